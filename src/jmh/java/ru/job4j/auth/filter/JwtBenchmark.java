@@ -0,0 +1,118 @@
+package ru.job4j.auth.filter;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.core.userdetails.User;
+import ru.job4j.auth.cache.TokenCache;
+import ru.job4j.auth.crypto.JwtKeyRing;
+import ru.job4j.auth.service.RefreshTokenService;
+import ru.job4j.auth.service.TokenRevocationService;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import java.io.IOException;
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+import static java.util.Collections.emptyList;
+
+/**
+ * Выпуск JWT при входе и проверка JWT на каждом запросе.
+ * Подпись ES256 временным ключом. Проверка меряется с кэшем проверенных
+ * токенов (попадание) и без него.
+ * Запуск: mvn -Pjmh -DskipTests verify -Djmh.includes=JwtBenchmark
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JwtBenchmark {
+    private static final FilterChain CHAIN = (req, res) -> { };
+    private static final MeterRegistry REGISTRY = new SimpleMeterRegistry();
+    /* empty Bloom filter: every check is the in-memory negative, the repository is never used */
+    private static final TokenRevocationService REVOCATIONS =
+            new TokenRevocationService(null, 1_000_000, 0.01, REGISTRY);
+    private static final JwtKeyRing KEYS = new JwtKeyRing("", "", true);
+    /* only the JWT is measured, the refresh token row is not written */
+    private static final RefreshTokenService REFRESH_TOKENS =
+            new RefreshTokenService(null, null, Duration.ofDays(30), REGISTRY) {
+                @Override
+                public String issue(String login) {
+                    return login;
+                }
+            };
+
+    private final Authentication authentication = new UsernamePasswordAuthenticationToken(
+            new User("login", "password", emptyList()), null, emptyList());
+    private final SigningFilter signing = new SigningFilter(tokens(10_000));
+    private final JWTAuthorizationFilter cached =
+            new JWTAuthorizationFilter(auth -> auth, tokens(10_000), REVOCATIONS);
+    private final JWTAuthorizationFilter uncached =
+            new JWTAuthorizationFilter(auth -> auth, tokens(0), REVOCATIONS);
+    private MockHttpServletRequest request;
+
+    @Setup
+    public void setUp() throws IOException, ServletException {
+        request = new MockHttpServletRequest();
+        request.addHeader(JWTAuthenticationFilter.HEADER_STRING, sign());
+    }
+
+    @Benchmark
+    public String sign() throws IOException, ServletException {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        signing.sign(response, authentication);
+        return response.getHeader(JWTAuthenticationFilter.HEADER_STRING);
+    }
+
+    @Benchmark
+    public Object verifyCached() throws IOException, ServletException {
+        return verify(cached);
+    }
+
+    @Benchmark
+    public Object verifyUncached() throws IOException, ServletException {
+        return verify(uncached);
+    }
+
+    private static JwtTokens tokens(long cacheSize) {
+        return new JwtTokens(KEYS, new TokenCache(cacheSize), REGISTRY, Duration.ofMinutes(15));
+    }
+
+    private Object verify(JWTAuthorizationFilter filter) throws IOException, ServletException {
+        filter.doFilter(request, new MockHttpServletResponse(), CHAIN);
+        Object principal = SecurityContextHolder.getContext().getAuthentication().getPrincipal();
+        SecurityContextHolder.clearContext();
+        return principal;
+    }
+
+    /**
+     * Доступ к выпуску токена {@link JWTAuthenticationFilter#successfulAuthentication}
+     */
+    private static class SigningFilter extends JWTAuthenticationFilter {
+        SigningFilter(JwtTokens tokens) {
+            super(auth -> auth, null, tokens, REFRESH_TOKENS, null, REGISTRY);
+        }
+
+        void sign(MockHttpServletResponse response, Authentication auth)
+                throws IOException, ServletException {
+            successfulAuthentication(null, response, null, auth);
+        }
+    }
+}
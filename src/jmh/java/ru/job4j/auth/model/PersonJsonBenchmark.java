@@ -0,0 +1,70 @@
+package ru.job4j.auth.model;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Сериализация и разбор {@link Person} в JSON: одиночный объект
+ * (тело запроса входа и ответа GET /person/{id}) и список из 1000 пользователей.
+ * Для сравнения - разбор новым ObjectMapper на каждый вызов,
+ * как было в JWTAuthenticationFilter до {@link ru.job4j.auth.filter.CredentialsParser}.
+ * Запуск: mvn -Pjmh -DskipTests verify -Djmh.includes=PersonJsonBenchmark
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PersonJsonBenchmark {
+    private final ObjectMapper mapper = new ObjectMapper();
+    private final ObjectReader reader = mapper.readerFor(Person.class);
+    private final ObjectWriter writer = mapper.writerFor(Person.class);
+    private final Person person = new Person(1, "login", "password", 0);
+    private final List<Person> persons = new ArrayList<>();
+    private byte[] json;
+
+    @Setup
+    public void setUp() throws IOException {
+        json = mapper.writeValueAsBytes(person);
+        for (int i = 0; i < 1000; i++) {
+            persons.add(new Person(i, "login" + i, "password" + i, 0));
+        }
+    }
+
+    @Benchmark
+    public byte[] serialize() throws IOException {
+        return writer.writeValueAsBytes(person);
+    }
+
+    @Benchmark
+    public Person deserialize() throws IOException {
+        return reader.readValue(json);
+    }
+
+    @Benchmark
+    public Person deserializeNewMapper() throws IOException {
+        return new ObjectMapper().readValue(json, Person.class);
+    }
+
+    @Benchmark
+    public byte[] serializeList() throws IOException {
+        return mapper.writeValueAsBytes(persons);
+    }
+}
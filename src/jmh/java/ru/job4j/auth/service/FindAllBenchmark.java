@@ -0,0 +1,72 @@
+package ru.job4j.auth.service;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import ru.job4j.auth.AuthApplication;
+import ru.job4j.auth.model.Person;
+import ru.job4j.auth.model.PersonPage;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Материализация списка пользователей из H2 в памяти:
+ * findAll (вся таблица сущностями) против одной страницы keyset пагинации.
+ * Запуск: mvn -Pjmh -DskipTests verify -Djmh.includes=FindAllBenchmark
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class FindAllBenchmark {
+    @Param({"1000", "10000"})
+    private int rows;
+
+    private ConfigurableApplicationContext context;
+    private PersonService persons;
+
+    @Setup
+    public void setUp() {
+        context = new SpringApplicationBuilder(AuthApplication.class)
+                .web(WebApplicationType.NONE)
+                .run("--spring.datasource.url=jdbc:h2:mem:bench;MODE=PostgreSQL;"
+                                + "CASE_INSENSITIVE_IDENTIFIERS=TRUE",
+                        "--spring.jpa.show-sql=false",
+                        "--password.bcrypt.min-strength=4",
+                        "--password.bcrypt.max-strength=4");
+        context.getBean(JdbcTemplate.class).update("insert into person (login, password)"
+                + " select concat('user', x), 'password' from system_range(1, ?)", rows);
+        persons = context.getBean(PersonService.class);
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public List<Person> findAll() {
+        return persons.findAll();
+    }
+
+    @Benchmark
+    public PersonPage firstPage() {
+        return persons.findPage(null, 100);
+    }
+}
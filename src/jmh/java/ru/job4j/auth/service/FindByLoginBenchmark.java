@@ -0,0 +1,76 @@
+package ru.job4j.auth.service;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Поиск пользователя по логину (запрос findByLogin) в H2 в памяти, чистый JDBC,
+ * случайный существующий логин. index=false - таблица до изменения 003 (полный просмотр),
+ * index=true - с уникальным индексом person_login_uindex.
+ * Запуск: mvn -Pjmh -DskipTests verify -Djmh.includes=FindByLoginBenchmark
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class FindByLoginBenchmark {
+    @Param({"10000", "100000", "1000000"})
+    private int rows;
+
+    @Param({"false", "true"})
+    private boolean index;
+
+    private Connection connection;
+    private PreparedStatement findByLogin;
+
+    @Setup
+    public void setUp() throws SQLException {
+        connection = DriverManager.getConnection(
+                "jdbc:h2:mem:login" + rows + index + ";MODE=PostgreSQL", "sa", "");
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("create table person (id serial primary key,"
+                    + " login varchar(255) not null, password varchar(255) not null)");
+            statement.execute("insert into person (login, password)"
+                    + " select concat('user', x), 'password' from system_range(1, " + rows + ")");
+            if (index) {
+                statement.execute("create unique index person_login_uindex on person (login)");
+            }
+        }
+        findByLogin = connection.prepareStatement(
+                "select id, login, password from person where login = ?");
+    }
+
+    @TearDown
+    public void tearDown() throws SQLException {
+        connection.close();
+    }
+
+    @Benchmark
+    public int findByLogin() throws SQLException {
+        findByLogin.setString(1, "user" + ThreadLocalRandom.current().nextInt(1, rows + 1));
+        try (ResultSet result = findByLogin.executeQuery()) {
+            return result.next() ? result.getInt(1) : 0;
+        }
+    }
+}
@@ -0,0 +1,90 @@
+package ru.job4j.auth.util;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import ru.job4j.auth.model.Person;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.util.HashMap;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Слияние патча с пользователем: прежний PATCH на отражении
+ * (getDeclaredMethods и Method.invoke на каждый запрос) против {@link MergePatch}.
+ * Запуск: mvn -Pjmh -DskipTests verify -Djmh.includes=PatchBenchmark
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PatchBenchmark {
+    private final Person current = new Person(1, "login", "password", 0);
+    private final Person[] requests = {
+            new Person(1, null, "password1", null),
+            new Person(1, null, "password2", null)
+    };
+    private final ObjectNode[] patches = new ObjectNode[2];
+    private MergePatch mergePatch;
+    private int next;
+
+    @Setup
+    public void setUp() throws Exception {
+        ObjectMapper mapper = new ObjectMapper();
+        mergePatch = new MergePatch(mapper);
+        patches[0] = (ObjectNode) mapper.readTree("{\"password\":\"password1\"}");
+        patches[1] = (ObjectNode) mapper.readTree("{\"password\":\"password2\"}");
+    }
+
+    @Benchmark
+    public Person reflective() throws InvocationTargetException, IllegalAccessException {
+        return reflectivePatch(current, requests[next++ & 1]);
+    }
+
+    @Benchmark
+    public Set<String> mergePatch() {
+        return mergePatch.apply(current, patches[next++ & 1]);
+    }
+
+    /**
+     * Прежняя реализация PersonController.updatePatchMappingExample без записи в БД
+     */
+    private static Person reflectivePatch(Person current, Person person)
+            throws InvocationTargetException, IllegalAccessException {
+        var methods = current.getClass().getDeclaredMethods();
+        var namePerMethod = new HashMap<String, Method>();
+        for (var method : methods) {
+            var name = method.getName();
+            if (name.startsWith("get") || name.startsWith("set")) {
+                namePerMethod.put(name, method);
+            }
+        }
+        for (var name : namePerMethod.keySet()) {
+            if (name.startsWith("get")) {
+                var getMethod = namePerMethod.get(name);
+                var setMethod = namePerMethod.get(name.replace("get", "set"));
+                if (setMethod == null) {
+                    throw new IllegalStateException("Check set and get pairs of " + current);
+                }
+                var newValue = getMethod.invoke(person);
+                if (newValue != null) {
+                    setMethod.invoke(current, newValue);
+                }
+            }
+        }
+        return current;
+    }
+}
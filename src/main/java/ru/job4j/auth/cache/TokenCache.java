@@ -0,0 +1,127 @@
+package ru.job4j.auth.cache;
+
+import com.auth0.jwt.interfaces.DecodedJWT;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Date;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+/**
+ * Кэш проверенных JWT.
+ * Ключ - SHA-256 от токена, значение - разобранный токен.
+ * Запись живёт до момента exp токена, размер кэша ограничен.
+ */
+@Component
+public class TokenCache implements MeterBinder {
+    private static final ThreadLocal<MessageDigest> SHA_256 = ThreadLocal.withInitial(() -> {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    });
+
+    private final Cache<ByteBuffer, DecodedJWT> tokens;
+
+    /**
+     * Конструктор
+     * @param maximumSize максимальное количество токенов в кэше
+     */
+    public TokenCache(@Value("${jwt.cache.maximum-size:10000}") long maximumSize) {
+        this.tokens = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfter(new ExpiresAtClaim())
+                .recordStats()
+                .build();
+    }
+
+    /**
+     * Вернуть проверенный токен из кэша или проверить его и положить в кэш
+     * @param token строка токена без префикса "Bearer "
+     * @param verifier функция проверки токена, вызывается только при промахе.
+     *                 Исключение проверки пробрасывается, в кэш ничего не попадает.
+     * @return тип {@link com.auth0.jwt.interfaces.DecodedJWT} проверенный токен
+     */
+    public DecodedJWT get(String token, Function<String, DecodedJWT> verifier) {
+        return tokens.get(digest(token), key -> verifier.apply(token));
+    }
+
+    /**
+     * Проверенный токен из кэша, без проверки при промахе
+     * @param token строка токена без префикса "Bearer "
+     * @return тип {@link com.auth0.jwt.interfaces.DecodedJWT} проверенный токен,
+     * null - токена нет в кэше
+     */
+    public DecodedJWT getIfPresent(String token) {
+        return tokens.getIfPresent(digest(token));
+    }
+
+    /**
+     * Статистика попаданий и промахов кэша
+     * @return тип {@link com.github.benmanes.caffeine.cache.stats.CacheStats}
+     */
+    public CacheStats stats() {
+        return tokens.stats();
+    }
+
+    /**
+     * Метрики кэша cache.* с тегом cache=jwt.tokens
+     * @param registry реестр метрик
+     */
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        CaffeineCacheMetrics.monitor(registry, tokens, "jwt.tokens");
+    }
+
+    /**
+     * Приблизительное количество токенов в кэше
+     * @return количество записей
+     */
+    public long size() {
+        return tokens.estimatedSize();
+    }
+
+    private static ByteBuffer digest(String token) {
+        return ByteBuffer.wrap(SHA_256.get().digest(token.getBytes(StandardCharsets.US_ASCII)));
+    }
+
+    /**
+     * Время жизни записи - до exp токена
+     */
+    private static class ExpiresAtClaim implements Expiry<ByteBuffer, DecodedJWT> {
+        @Override
+        public long expireAfterCreate(ByteBuffer key, DecodedJWT value, long currentTime) {
+            Date expiresAt = value.getExpiresAt();
+            if (expiresAt == null) {
+                return Long.MAX_VALUE;
+            }
+            return TimeUnit.MILLISECONDS.toNanos(
+                    Math.max(0, expiresAt.getTime() - System.currentTimeMillis()));
+        }
+
+        @Override
+        public long expireAfterUpdate(ByteBuffer key, DecodedJWT value,
+                                      long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+
+        @Override
+        public long expireAfterRead(ByteBuffer key, DecodedJWT value,
+                                    long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+    }
+}
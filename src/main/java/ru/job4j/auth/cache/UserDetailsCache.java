@@ -0,0 +1,160 @@
+package ru.job4j.auth.cache;
+
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import ru.job4j.auth.config.VirtualThreadsConfiguration;
+import ru.job4j.auth.model.Person;
+
+import java.time.Duration;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.function.Function;
+
+import static java.util.Collections.emptyList;
+
+/**
+ * Кэш данных пользователей для авторизации.
+ * Ключ - логин, размер и время жизни записей ограничены.
+ * Отсутствующие в хранилище логины не кэшируются.
+ * Загрузка при промахе выполняется исполнителем загрузки: по умолчанию в вызывающем
+ * потоке, в профиле virtual-threads - в отдельном виртуальном потоке, чтобы запрос
+ * к БД не шёл под монитором ConcurrentHashMap и не закреплял поток платформы.
+ * Изменённый в транзакции пользователь удаляется из кэша после её фиксации, иначе вход
+ * до фиксации вернул бы в кэш старую строку. Ещё datasource.replica.read-your-writes
+ * логин считается недавно записанным: его нужно читать с основной БД, пока реплики догоняют.
+ */
+@Component
+public class UserDetailsCache implements MeterBinder {
+    private final AsyncCache<String, Entry> users;
+    private final Cache<String, Boolean> written;
+
+    /**
+     * Конструктор
+     * @param maximumSize максимальное количество пользователей в кэше
+     * @param ttl время жизни записи с момента загрузки
+     * @param recentWrites сколько логин считается недавно записанным, 0 - не отслеживать
+     * @param loaders исполнитель загрузки, если не задан - вызывающий поток
+     */
+    public UserDetailsCache(@Value("${users.cache.maximum-size:10000}") long maximumSize,
+                            @Value("${users.cache.ttl:PT5M}") Duration ttl,
+                            @Value("${datasource.replica.read-your-writes:PT5S}")
+                            Duration recentWrites,
+                            @Qualifier(VirtualThreadsConfiguration.EXECUTOR)
+                            ObjectProvider<Executor> loaders) {
+        this.users = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(ttl)
+                .executor(loaders.getIfAvailable(() -> Runnable::run))
+                .recordStats()
+                .buildAsync();
+        this.written = recentWrites.isZero() ? null : Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(recentWrites)
+                .build();
+    }
+
+    /**
+     * Вернуть пользователя из кэша или загрузить его из хранилища
+     * @param login логин пользователя
+     * @param loader загрузка пользователя при промахе, null - пользователь не найден
+     * @return тип {@link org.springframework.security.core.userdetails.UserDetails}
+     * новый экземпляр на каждый вызов (Spring Security стирает пароль после входа),
+     * null - пользователь не найден
+     */
+    public UserDetails get(String login, Function<String, Person> loader) {
+        Entry entry;
+        try {
+            entry = users.get(login, key -> {
+                Person person = loader.apply(key);
+                return person == null ? null
+                        : new Entry(person.getLogin(), person.getPassword());
+            }).join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw e;
+        }
+        return entry == null ? null : new User(entry.login(), entry.password(), emptyList());
+    }
+
+    /**
+     * Удалить пользователя из кэша по логину. Внутри транзакции - после её фиксации,
+     * при откате запись остаётся. Логин становится недавно записанным.
+     * @param login логин пользователя
+     */
+    public void invalidate(String login) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            evict(login);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(
+                new TransactionSynchronization() {
+                    @Override
+                    public void afterCommit() {
+                        evict(login);
+                    }
+                });
+    }
+
+    /**
+     * Изменялся ли пользователь в течение datasource.replica.read-your-writes
+     * @param login логин пользователя
+     * @return true - читать пользователя нужно с основной БД
+     */
+    public boolean isRecentlyWritten(String login) {
+        return written != null && written.getIfPresent(login) != null;
+    }
+
+    /**
+     * Отметка записи ставится до удаления: загрузка, начатая после удаления,
+     * уже видит её и идёт на основную БД
+     */
+    private void evict(String login) {
+        if (written != null) {
+            written.put(login, Boolean.TRUE);
+        }
+        users.synchronous().invalidate(login);
+    }
+
+    /**
+     * Статистика кэша: доля попаданий, количество вытеснений и т.д.
+     * @return тип {@link com.github.benmanes.caffeine.cache.stats.CacheStats}
+     */
+    public CacheStats stats() {
+        return users.synchronous().stats();
+    }
+
+    /**
+     * Метрики кэша cache.* с тегом cache=user.details
+     * @param registry реестр метрик
+     */
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        CaffeineCacheMetrics.monitor(registry, users, "user.details");
+    }
+
+    /**
+     * Приблизительное количество пользователей в кэше
+     * @return количество записей
+     */
+    public long size() {
+        return users.synchronous().estimatedSize();
+    }
+
+    private record Entry(String login, String password) {
+    }
+}
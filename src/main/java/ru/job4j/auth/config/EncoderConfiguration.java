@@ -1,13 +1,73 @@
 package ru.job4j.auth.config;
 
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.DelegatingPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import ru.job4j.auth.crypto.BCryptCalibration;
+import ru.job4j.auth.crypto.BoundedPasswordEncoder;
+import ru.job4j.auth.crypto.PasswordHashingExecutor;
+
+import java.time.Duration;
+import java.util.Map;
 
 @Configuration
 public class EncoderConfiguration {
+    private static final Logger LOGGER =
+            LoggerFactory.getLogger(EncoderConfiguration.class.getSimpleName());
+
+    private static final String BCRYPT_ID = "bcrypt";
+
+    /**
+     * Пул хеширования паролей
+     * @param threads количество потоков, 0 - по числу процессоров
+     * @param queueCapacity длина очереди, при заполнении запросы получают 503
+     * @param retryAfter значение заголовка Retry-After в секундах
+     * @return тип {@link ru.job4j.auth.crypto.PasswordHashingExecutor}
+     */
+    @Bean
+    public PasswordHashingExecutor passwordHashingExecutor(
+            @Value("${password.hashing.threads:0}") int threads,
+            @Value("${password.hashing.queue-capacity:64}") int queueCapacity,
+            @Value("${password.hashing.retry-after:1}") long retryAfter) {
+        return new PasswordHashingExecutor(
+                threads > 0 ? threads : Runtime.getRuntime().availableProcessors(),
+                queueCapacity, retryAfter);
+    }
+
+    /**
+     * Шифровальщик паролей. Стоимость BCrypt подбирается при запуске
+     * под целевое время хеширования, хеши хранятся с префиксом {bcrypt}.
+     * Хеши без префикса (старые) проверяются BCrypt и перехешируются при входе.
+     * @param passwordHashingExecutor пул хеширования
+     * @param targetTime целевое время одного хеширования
+     * @param minStrength нижняя граница стоимости BCrypt
+     * @param maxStrength верхняя граница стоимости BCrypt
+     * @param meterRegistry реестр метрик, время хеширования auth.password.hash
+     * @return тип {@link ru.job4j.auth.crypto.BoundedPasswordEncoder}
+     */
     @Bean
-    public BCryptPasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
+    public BoundedPasswordEncoder passwordEncoder(
+            PasswordHashingExecutor passwordHashingExecutor,
+            @Value("${password.bcrypt.target-time:50ms}") Duration targetTime,
+            @Value("${password.bcrypt.min-strength:10}") int minStrength,
+            @Value("${password.bcrypt.max-strength:16}") int maxStrength,
+            MeterRegistry meterRegistry) {
+        int strength = BCryptCalibration.strengthFor(targetTime, minStrength, maxStrength);
+        LOGGER.info("BCrypt strength {} for target hash time {}", strength, targetTime);
+        BCryptPasswordEncoder bcrypt = new BCryptPasswordEncoder(strength);
+        DelegatingPasswordEncoder delegating = new DelegatingPasswordEncoder(
+                BCRYPT_ID, Map.<String, PasswordEncoder>of(BCRYPT_ID, bcrypt));
+        delegating.setDefaultPasswordEncoderForMatches(bcrypt);
+        Gauge.builder("password.bcrypt.strength", () -> strength)
+                .description("BCrypt cost factor chosen at startup")
+                .register(meterRegistry);
+        return new BoundedPasswordEncoder(delegating, passwordHashingExecutor, meterRegistry);
     }
 }
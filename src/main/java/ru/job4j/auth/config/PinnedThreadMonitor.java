@@ -0,0 +1,75 @@
+package ru.job4j.auth.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordedFrame;
+import jdk.jfr.consumer.RecordedStackTrace;
+import jdk.jfr.consumer.RecordingStream;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Duration;
+import java.util.stream.Collectors;
+
+/**
+ * Зеленский Н. aka Nike Z.
+ * Наблюдение за закреплением (pinning) виртуальных потоков через поток событий JFR
+ * jdk.VirtualThreadPinned: виртуальный поток блокируется внутри synchronized или
+ * нативного кадра и держит поток платформы. Каждое закрепление дольше порога
+ * учитывается таймером jvm.threads.virtual.pinned и пишется в лог с верхними
+ * кадрами стека - по ним видно, какой монитор JDBC, Hibernate или кэша его вызвал.
+ */
+public class PinnedThreadMonitor {
+    static final String EVENT = "jdk.VirtualThreadPinned";
+
+    private static final Logger LOGGER =
+            LoggerFactory.getLogger(PinnedThreadMonitor.class.getSimpleName());
+    private static final int FRAMES = 12;
+
+    private final RecordingStream stream = new RecordingStream();
+    private final Timer pinned;
+
+    /**
+     * Конструктор, запускает поток событий
+     * @param registry реестр метрик
+     * @param threshold минимальная длительность закрепления для записи
+     */
+    public PinnedThreadMonitor(MeterRegistry registry, Duration threshold) {
+        this.pinned = Timer.builder("jvm.threads.virtual.pinned")
+                .description("Virtual thread blocked while pinned to its carrier thread")
+                .register(registry);
+        stream.enable(EVENT).withThreshold(threshold).withStackTrace();
+        stream.onEvent(EVENT, this::onPinned);
+        stream.startAsync();
+    }
+
+    private void onPinned(RecordedEvent event) {
+        pinned.record(event.getDuration());
+        LOGGER.warn("Virtual thread {} pinned for {} ms at {}",
+                event.getThread() == null ? "?" : event.getThread().getJavaThreadId(),
+                event.getDuration().toMillis(), frames(event.getStackTrace()));
+    }
+
+    private static String frames(RecordedStackTrace stackTrace) {
+        if (stackTrace == null) {
+            return "unknown";
+        }
+        return stackTrace.getFrames().stream()
+                .limit(FRAMES)
+                .map(PinnedThreadMonitor::frame)
+                .collect(Collectors.joining(" <- "));
+    }
+
+    private static String frame(RecordedFrame frame) {
+        return frame.getMethod().getType().getName() + "." + frame.getMethod().getName()
+                + ":" + frame.getLineNumber();
+    }
+
+    /**
+     * Остановить поток событий
+     */
+    public void close() {
+        stream.close();
+    }
+}
@@ -0,0 +1,46 @@
+package ru.job4j.auth.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.web.embedded.netty.NettyReactiveWebServerFactory;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Зеленский Н. aka Nike Z.
+ * Неблокирующий стек: WebFlux на Netty и R2DBC вместо Spring MVC на Tomcat и JPA.
+ * Включается профилем reactive (application-reactive.properties задаёт
+ * spring.main.web-application-type=reactive и подключение spring.r2dbc.*).
+ */
+@Configuration
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+@EnableConfigurationProperties(DataSourceProperties.class)
+public class ReactiveWebConfiguration {
+    public static final String PROFILE = "reactive";
+
+    /**
+     * Tomcat в classpath ради сервлетного стека, и Spring Boot выбрал бы его сервером
+     * и для WebFlux. Сервер задаётся явно - Netty.
+     * @return фабрика сервера Netty
+     */
+    @Bean
+    public NettyReactiveWebServerFactory nettyReactiveWebServerFactory() {
+        return new NettyReactiveWebServerFactory();
+    }
+
+    /**
+     * Пул JDBC для Liquibase и компонентов на JPA. Spring Boot не создаёт DataSource,
+     * если есть R2DBC ConnectionFactory, поэтому пул объявлен явно
+     * из свойств spring.datasource.*; запросы API идут через R2DBC.
+     * @param properties свойства spring.datasource
+     * @return пул соединений JDBC
+     */
+    @Bean
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource dataSource(DataSourceProperties properties) {
+        return properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+    }
+}
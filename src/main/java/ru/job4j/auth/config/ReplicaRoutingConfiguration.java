@@ -0,0 +1,88 @@
+package ru.job4j.auth.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.core.env.Environment;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import ru.job4j.auth.datasource.ReplicaRoutingDataSource;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+/**
+ * Зеленский Н. aka Nike Z.
+ * Чтение с реплик (сервлетный стек): включается непустым datasource.replica.urls.
+ * Основная БД - spring.datasource.*, её пул настраивается spring.datasource.hikari.*;
+ * у каждой реплики свой пул с теми же логином и паролем и коротким ожиданием
+ * соединения, чтобы недоступная реплика быстро уступала чтение основной БД.
+ * Liquibase и JPA получают {@link ReplicaRoutingDataSource} за
+ * {@link LazyConnectionDataSourceProxy}; миграции идут вне транзакций только для
+ * чтения, то есть на основную БД, реплики получают схему репликацией.
+ */
+@Configuration
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+@ConditionalOnExpression("!'${datasource.replica.urls:}'.isEmpty()")
+public class ReplicaRoutingConfiguration {
+
+    /**
+     * Пулы основной БД и реплик
+     * @param properties свойства spring.datasource
+     * @param environment окружение для spring.datasource.hikari.*
+     * @param urls адреса JDBC реплик
+     * @param connectionTimeout ожидание соединения реплики
+     * @param readYourWrites окно чтения своих записей с основной БД
+     * @return маршрутизирующий источник соединений
+     */
+    @Bean
+    public ReplicaRoutingDataSource replicaRoutingDataSource(
+            DataSourceProperties properties,
+            Environment environment,
+            @Value("${datasource.replica.urls}") List<String> urls,
+            @Value("${datasource.replica.connection-timeout:PT1S}") Duration connectionTimeout,
+            @Value("${datasource.replica.read-your-writes:PT5S}") Duration readYourWrites) {
+        HikariDataSource primary = pool(properties, properties.determineUrl(), "primary");
+        Binder.get(environment).bind("spring.datasource.hikari", Bindable.ofInstance(primary));
+        List<HikariDataSource> replicas = IntStream.range(0, urls.size())
+                .mapToObj(i -> {
+                    HikariDataSource replica = pool(properties, urls.get(i), "replica-" + i);
+                    replica.setConnectionTimeout(connectionTimeout.toMillis());
+                    /* a replica that is down at startup must not stop the service */
+                    replica.setInitializationFailTimeout(-1);
+                    return replica;
+                })
+                .collect(Collectors.toList());
+        return new ReplicaRoutingDataSource(primary, replicas, readYourWrites);
+    }
+
+    /**
+     * Источник соединений для JPA и Liquibase
+     * @param routing маршрутизирующий источник
+     * @return источник, берущий соединение при первом запросе к БД
+     */
+    @Bean
+    @Primary
+    public DataSource dataSource(ReplicaRoutingDataSource routing) {
+        return new LazyConnectionDataSourceProxy(routing);
+    }
+
+    private static HikariDataSource pool(DataSourceProperties properties, String url,
+                                         String name) {
+        HikariDataSource pool = properties.initializeDataSourceBuilder()
+                .type(HikariDataSource.class)
+                .url(url)
+                .build();
+        pool.setPoolName(name);
+        return pool;
+    }
+}
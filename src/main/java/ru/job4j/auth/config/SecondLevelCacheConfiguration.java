@@ -0,0 +1,83 @@
+package ru.job4j.auth.config;
+
+import com.github.benmanes.caffeine.jcache.configuration.CaffeineConfiguration;
+import com.github.benmanes.caffeine.jcache.spi.CaffeineCachingProvider;
+import org.hibernate.cache.jcache.ConfigSettings;
+import org.hibernate.cfg.AvailableSettings;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import ru.job4j.auth.model.Person;
+
+import javax.cache.CacheManager;
+import java.net.URI;
+import java.time.Duration;
+import java.util.OptionalLong;
+import java.util.UUID;
+
+/**
+ * Зеленский Н. aka Nike Z.
+ * Кэш второго уровня Hibernate для {@link Person}: JCache поверх Caffeine в памяти процесса.
+ * Два региона: сущность по id и натуральный ключ login -> id, поэтому findById и
+ * поиск по логину при попадании в кэш не выполняют SQL. Размер и время жизни
+ * регионов - person.cache.maximum-size и person.cache.ttl, person.cache.enabled=false
+ * выключает кэш. Статистика регионов публикуется метриками hibernate.second.level.cache.*
+ * (нужен hibernate.generate_statistics=true).
+ */
+@Configuration
+public class SecondLevelCacheConfiguration {
+    private static final String ENTITY_REGION = Person.class.getName();
+    private static final String NATURAL_ID_REGION = ENTITY_REGION + "##NaturalId";
+
+    /**
+     * Менеджер кэшей регионов. Свой URI у каждого контекста Spring, чтобы
+     * контексты тестов не делили регионы
+     * @param maximumSize наибольшее количество записей в регионе
+     * @param ttl время жизни записи после записи в кэш
+     * @return тип {@link javax.cache.CacheManager}
+     */
+    @Bean(destroyMethod = "close")
+    public CacheManager personCacheManager(
+            @Value("${person.cache.maximum-size:10000}") long maximumSize,
+            @Value("${person.cache.ttl:PT5M}") Duration ttl) {
+        CacheManager manager = new CaffeineCachingProvider().getCacheManager(
+                URI.create("person-cache-" + UUID.randomUUID()), getClass().getClassLoader());
+        manager.createCache(ENTITY_REGION, region(maximumSize, ttl));
+        manager.createCache(NATURAL_ID_REGION, region(maximumSize, ttl));
+        return manager;
+    }
+
+    /**
+     * Подключение кэша к Hibernate
+     * @param manager менеджер кэшей регионов
+     * @param enabled false - кэш второго уровня выключен
+     * @return тип {@link HibernatePropertiesCustomizer}
+     */
+    @Bean
+    public HibernatePropertiesCustomizer secondLevelCacheCustomizer(
+            CacheManager manager,
+            @Value("${person.cache.enabled:true}") boolean enabled) {
+        return properties -> {
+            properties.put(AvailableSettings.USE_SECOND_LEVEL_CACHE, enabled);
+            if (enabled) {
+                properties.put(AvailableSettings.CACHE_REGION_FACTORY, "jcache");
+                properties.put(ConfigSettings.CACHE_MANAGER, manager);
+                properties.put(ConfigSettings.MISSING_CACHE_STRATEGY, "fail");
+            }
+        };
+    }
+
+    /**
+     * Hibernate сам разбирает сущность в массив значений, поэтому записи
+     * хранятся по ссылке, без копирования сериализацией при каждом чтении
+     */
+    private static CaffeineConfiguration<Object, Object> region(long maximumSize, Duration ttl) {
+        CaffeineConfiguration<Object, Object> region = new CaffeineConfiguration<>();
+        region.setMaximumSize(OptionalLong.of(maximumSize));
+        region.setExpireAfterWrite(OptionalLong.of(ttl.toNanos()));
+        region.setStoreByValue(false);
+        region.setStatisticsEnabled(true);
+        return region;
+    }
+}
@@ -0,0 +1,80 @@
+package ru.job4j.auth.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.apache.coyote.ProtocolHandler;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.web.embedded.tomcat.TomcatProtocolHandlerCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+
+import java.lang.reflect.InvocationTargetException;
+import java.time.Duration;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Зеленский Н. aka Nike Z.
+ * Профиль virtual-threads: Tomcat обрабатывает каждый запрос в отдельном виртуальном
+ * потоке (JDK 21+), блокирующие вызовы JDBC не занимают потоки платформы.
+ * Ограничением параллельности становится пул соединений Hikari и пул хеширования паролей.
+ * Проект собирается на JDK 17, поэтому фабрика виртуальных потоков находится отражением,
+ * на JDK ниже 21 профиль не запускается.
+ */
+@Configuration
+@Profile(VirtualThreadsConfiguration.PROFILE)
+public class VirtualThreadsConfiguration {
+    public static final String PROFILE = "virtual-threads";
+    public static final String EXECUTOR = "virtualThreadExecutor";
+
+    private static final Logger LOGGER =
+            LoggerFactory.getLogger(VirtualThreadsConfiguration.class.getSimpleName());
+
+    /**
+     * Исполнитель "поток на задачу" из Executors.newVirtualThreadPerTaskExecutor
+     * @return тип {@link java.util.concurrent.ExecutorService}
+     * @throws IllegalStateException если JDK не поддерживает виртуальные потоки
+     */
+    @Bean(name = EXECUTOR, destroyMethod = "shutdown")
+    public ExecutorService virtualThreadExecutor() {
+        try {
+            ExecutorService executor = (ExecutorService) Executors.class
+                    .getMethod("newVirtualThreadPerTaskExecutor")
+                    .invoke(null);
+            LOGGER.info("Requests run on virtual threads, JDK {}", Runtime.version());
+            return executor;
+        } catch (NoSuchMethodException e) {
+            throw new IllegalStateException("Profile " + PROFILE + " needs JDK 21 or newer, "
+                    + "running on " + Runtime.version(), e);
+        } catch (IllegalAccessException | InvocationTargetException e) {
+            throw new IllegalStateException("Can't create virtual thread executor", e);
+        }
+    }
+
+    /**
+     * Замена пула потоков коннектора Tomcat на виртуальные потоки
+     * @param virtualThreadExecutor исполнитель виртуальных потоков
+     * @return настройка коннектора Tomcat
+     */
+    @Bean
+    public TomcatProtocolHandlerCustomizer<ProtocolHandler> virtualThreadProtocolHandler(
+            @Qualifier(EXECUTOR) ExecutorService virtualThreadExecutor) {
+        return handler -> handler.setExecutor(virtualThreadExecutor);
+    }
+
+    /**
+     * Диагностика закрепления виртуальных потоков за потоком платформы
+     * @param registry реестр метрик
+     * @param threshold минимальная длительность закрепления для записи
+     * @return тип {@link ru.job4j.auth.config.PinnedThreadMonitor}
+     */
+    @Bean(destroyMethod = "close")
+    public PinnedThreadMonitor pinnedThreadMonitor(
+            MeterRegistry registry,
+            @Value("${virtual-threads.pinned.threshold:20ms}") Duration threshold) {
+        return new PinnedThreadMonitor(registry, threshold);
+    }
+}
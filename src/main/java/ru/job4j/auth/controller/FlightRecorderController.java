@@ -0,0 +1,71 @@
+package ru.job4j.auth.controller;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import ru.job4j.auth.service.FlightRecorderService;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.NoSuchElementException;
+
+/**
+ * Зеленский Н. aka Nike Z.
+ * Управление записью Java Flight Recorder, только для администраторов (admin.logins).
+ * -------------------------------------
+ * Пример:
+ * curl -X POST -H "Authorization: Bearer ..." http://localhost:8080/admin/jfr/start?duration=PT5M
+ * curl -X POST -H "Authorization: Bearer ..." http://localhost:8080/admin/jfr/stop
+ */
+@RestController
+@RequestMapping("/admin/jfr")
+public class FlightRecorderController {
+    private final FlightRecorderService recorder;
+
+    public FlightRecorderController(FlightRecorderService recorder) {
+        this.recorder = recorder;
+    }
+
+    /**
+     * Начать запись
+     * @param duration длительность записи (ISO-8601), по умолчанию jfr.recording.max-duration
+     * @return состояние записи, 409 - запись уже идёт
+     */
+    @PostMapping("/start")
+    public Map<String, Object> start(@RequestParam(required = false) Duration duration) {
+        return recorder.start(duration);
+    }
+
+    /**
+     * Остановить запись и записать её в файл на сервере
+     * @return состояние записи с путём к файлу, 404 - запись не начата
+     */
+    @PostMapping("/stop")
+    public Map<String, Object> stop() {
+        return recorder.stop();
+    }
+
+    /**
+     * Состояние текущей записи
+     * @return состояние записи, 404 - запись не начата
+     */
+    @GetMapping
+    public Map<String, Object> status() {
+        return recorder.status();
+    }
+
+    @ExceptionHandler(IllegalStateException.class)
+    public ResponseEntity<?> handleRunning(IllegalStateException e) {
+        return ResponseEntity.status(HttpStatus.CONFLICT).body(Map.of("message", e.getMessage()));
+    }
+
+    @ExceptionHandler(NoSuchElementException.class)
+    public ResponseEntity<?> handleMissing(NoSuchElementException e) {
+        return ResponseEntity.status(HttpStatus.NOT_FOUND).body(Map.of("message", e.getMessage()));
+    }
+}
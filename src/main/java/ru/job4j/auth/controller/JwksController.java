@@ -0,0 +1,43 @@
+package ru.job4j.auth.controller;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.CacheControl;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RestController;
+import ru.job4j.auth.crypto.JwtKeyRing;
+
+import java.time.Duration;
+import java.util.Map;
+
+/**
+ * Зеленский Н. aka Nike Z.
+ * Открытые ключи подписи JWT (JWK Set), без токена, для сервлетного и реактивного стеков.
+ * Другие сервисы кэшируют ответ на jwt.jwks.max-age и проверяют токены сами,
+ * ключ выбирается по kid из заголовка токена.
+ * -------------------------------------
+ * Пример:
+ * curl http://localhost:8080/.well-known/jwks.json
+ */
+@RestController
+public class JwksController {
+    public static final String JWKS_URL = "/.well-known/jwks.json";
+
+    private final JwtKeyRing keys;
+    private final CacheControl cacheControl;
+
+    public JwksController(JwtKeyRing keys,
+                          @Value("${jwt.jwks.max-age:PT5M}") Duration maxAge) {
+        this.keys = keys;
+        this.cacheControl = CacheControl.maxAge(maxAge).cachePublic();
+    }
+
+    /**
+     * Открытые ключи
+     * @return {"keys": [{"kty": "EC", "crv": "P-256", "kid": ..., "x": ..., "y": ...}]}
+     */
+    @GetMapping(JWKS_URL)
+    public ResponseEntity<Map<String, Object>> jwks() {
+        return ResponseEntity.ok().cacheControl(cacheControl).body(keys.jwks());
+    }
+}
@@ -1,59 +1,130 @@
 package ru.job4j.auth.controller;
 
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.RuntimeJsonMappingException;
+import com.fasterxml.jackson.databind.node.ObjectNode;
 import com.sun.istack.NotNull;
-import org.apache.log4j.Logger;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.http.CacheControl;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
 import ru.job4j.auth.model.Person;
+import ru.job4j.auth.model.PersonBatchResult;
+import ru.job4j.auth.model.PersonPage;
+import ru.job4j.auth.service.PersonBatchService;
+import ru.job4j.auth.service.PersonExportService;
+import ru.job4j.auth.service.PersonPatch;
 import ru.job4j.auth.service.PersonService;
-import java.lang.reflect.InvocationTargetException;
-import java.lang.reflect.Method;
-import java.util.HashMap;
-import java.util.List;
+import java.util.Iterator;
 import java.util.NoSuchElementException;
 import org.springframework.web.server.ResponseStatusException;
 import ru.job4j.auth.util.Operation;
+import ru.job4j.auth.util.PersonETags;
 
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
 import javax.validation.Valid;
+import java.io.IOException;
 
 /**
  * Rest контроллер для Person
  */
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
 @RestController
 @RequestMapping("/person")
 public class PersonController {
-    final static Logger LOGGER = Logger.getLogger(PersonController.class);
+    private static final Logger LOGGER =
+            LoggerFactory.getLogger(PersonController.class.getSimpleName());
     private final PersonService persons;
+    private final PersonExportService exporter;
+    private final PersonBatchService batches;
+    private final ObjectReader personReader;
+    private final ObjectMapper objectMapper;
 
-    public PersonController(final PersonService persons) {
+    public PersonController(final PersonService persons,
+                            final PersonExportService exporter,
+                            final PersonBatchService batches,
+                            final ObjectMapper objectMapper) {
         this.persons = persons;
+        this.exporter = exporter;
+        this.batches = batches;
+        this.personReader = objectMapper.readerFor(Person.class);
+        this.objectMapper = objectMapper;
     }
 
     /**
-     * Получить список всех {@link ru.job4j.auth.model.Person}
-     * @return тип {@link java.util.List<ru.job4j.auth.model.Person>}
-     * список хранящихся Person в сервисе.
+     * Получить страницу списка {@link ru.job4j.auth.model.Person}
+     * @param next курсор следующей страницы из предыдущего ответа,
+     *             без курсора возвращается первая страница
+     * @param limit размер страницы
+     * @return тип {@link ru.job4j.auth.model.PersonPage}
+     * страница Person, курсор следующей страницы и признак её наличия, с ETag страницы;
+     * 304 без тела - если страница не изменилась с If-None-Match.
+     * Пример: GET /person/?limit=2 -> {"items":[...],"next":"aWQ6Mg","hasMore":true}
+     *         GET /person/?limit=2&amp;next=aWQ6Mg
      */
     @GetMapping("/")
-    public List<Person> findAll() {
-        return this.persons.findAll();
+    public ResponseEntity<PersonPage> findAll(@RequestParam(required = false) String next,
+                                              @RequestParam(defaultValue = "100") int limit) {
+        try {
+            PersonPage page = this.persons.findPage(next, limit);
+            return ResponseEntity.ok()
+                    .cacheControl(CacheControl.noCache())
+                    .eTag(PersonETags.of(page))
+                    .body(page);
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage());
+        }
+    }
+
+    /**
+     * Выгрузка всех {@link ru.job4j.auth.model.Person} потоком для синхронизации
+     * @param format формат: ndjson (по умолчанию) или csv
+     * @param response тип {@link javax.servlet.http.HttpServletResponse} HTTP ответ
+     * @throws IOException в случае ошибки ввода/вывода
+     * Пример: curl -H "Authorization: Bearer ..." http:/ /localhost:8080/person/export?format=csv
+     */
+    @GetMapping("/export")
+    public void export(@RequestParam(defaultValue = "ndjson") String format,
+                       HttpServletResponse response) throws IOException {
+        PersonExportService.Format exportFormat;
+        try {
+            exportFormat = PersonExportService.Format.valueOf(format.toUpperCase());
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Unknown format: " + format);
+        }
+        response.setContentType(exportFormat.getContentType());
+        response.setCharacterEncoding("UTF-8");
+        exporter.export(response.getOutputStream(), exportFormat);
     }
 
     /**
      * Получить {@link ru.job4j.auth.model.Person} по {@param id}
      * @param id - идентификатор тип int.
      * @return тип {@link org.springframework.http.ResponseEntity<ru.job4j.auth.model.Person>}
+     * пользователь с ETag "id-version", 304 без тела - если версия совпала с If-None-Match,
+     * 404 без тела - не найден
      */
     @GetMapping("/{id}")
     @Validated(Operation.OnFind.class)
     public ResponseEntity<Person> findById(@Valid @PathVariable int id) {
-        var person = this.persons.findById(id);
-        return new ResponseEntity<Person>(
-                person.orElse(new Person()),
-                person.isPresent() ? HttpStatus.OK : HttpStatus.NOT_FOUND
-        );
+        return this.persons.findById(id)
+                .map(person -> ResponseEntity.ok()
+                        .cacheControl(CacheControl.noCache())
+                        .eTag(PersonETags.of(person))
+                        .body(person))
+                .orElseGet(() -> ResponseEntity.notFound().build());
     }
 
     /**
@@ -72,11 +143,40 @@ public class PersonController {
         );
     }
 
+    /**
+     * Пакетное создание пользователей, пароли хешируются
+     * @param request тело запроса: JSON массив Person (application/json)
+     *                или по одному Person на строку (application/x-ndjson)
+     * @return тип {@link ru.job4j.auth.model.PersonBatchResult}
+     * количество созданных и отклонённых, результат по каждому элементу.
+     * @throws IOException в случае ошибки ввода/вывода
+     * Пример: curl -H "Content-Type: application/x-ndjson" --data-binary @persons.ndjson
+     *         http:/ /localhost:8080/person/batch
+     */
+    @PostMapping(value = "/batch",
+            consumes = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_NDJSON_VALUE})
+    public PersonBatchResult createBatch(HttpServletRequest request) throws IOException {
+        try (MappingIterator<Person> items = personReader.readValues(request.getInputStream())) {
+            return this.batches.createAll(items);
+        } catch (JsonProcessingException | RuntimeJsonMappingException
+                 | IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage());
+        } catch (RuntimeException e) {
+            /* MappingIterator оборачивает ошибку разбора в RuntimeException */
+            if (e.getCause() instanceof JsonProcessingException) {
+                throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage());
+            }
+            throw e;
+        }
+    }
+
     /**
      * Сервис обновляет сущность Person в хранилище сервера
      * @param person - сохраняемая сущность тип {@link ru.job4j.auth.model.Person}
      * @return тип {@link org.springframework.http.ResponseEntity<java.lang.Void>}
      *  status = 304 - не изменено. Если не поменялось содержимое.
+     *  status = 409 - логин уже занят другим пользователем
+     *  или передана версия, а запись уже изменена (оптимистическая блокировка).
      */
     @PutMapping("/")
     @Validated(Operation.OnUpdate.class)
@@ -87,10 +187,16 @@ public class PersonController {
             response = this.persons.update(person) ? ResponseEntity.ok().build()
             : ResponseEntity.status(HttpStatus.NOT_MODIFIED).build();
         } catch (NoSuchElementException e) {
-            LOGGER.error("PUT /person/ " + e.getMessage());
+            LOGGER.error("PUT /person/ {}", e.getMessage());
             response = ResponseEntity.notFound().build();
+        } catch (DataIntegrityViolationException e) {
+            LOGGER.error("PUT /person/ {}", e.getMostSpecificCause().getMessage());
+            response = ResponseEntity.status(HttpStatus.CONFLICT).build();
+        } catch (OptimisticLockingFailureException e) {
+            LOGGER.error("PUT /person/ {}", e.getMessage());
+            response = ResponseEntity.status(HttpStatus.CONFLICT).build();
         } catch (Exception e) {
-            LOGGER.error("PUT /person/ " + e.getMessage());
+            LOGGER.error("PUT /person/ {}", e.getMessage(), e);
             response = ResponseEntity.internalServerError().build();
         }
         return response;
@@ -109,7 +215,7 @@ public class PersonController {
             response = this.persons.delete(id) ? ResponseEntity.ok().build()
             : ResponseEntity.status(HttpStatus.NOT_MODIFIED).build();
         } catch (Exception e) {
-            LOGGER.error("DELETE /person/" + id + " " + e.getMessage());
+            LOGGER.error("DELETE /person/{} {}", id, e.getMessage(), e);
             response = ResponseEntity.internalServerError().build();
         }
         return response;
@@ -130,45 +236,60 @@ public class PersonController {
     }
 
     /**
-     * метод PATCH для модели Person
+     * Частичное обновление пользователя, JSON Merge Patch (RFC 7396).
+     * Изменяются только переданные поля, null обнуляет поле.
+     * @param id идентификатор пользователя
+     * @param patch патч, например {"password": "new"}; поле version - ожидаемая версия записи
+     * @return тип {@link org.springframework.http.ResponseEntity<ru.job4j.auth.model.Person>}
+     *  status = 200 - обновлённый пользователь без пароля в теле ответа.
+     *  status = 304 - патч ничего не изменил.
+     *  status = 400 - поле не существует, не подходит по типу или результат не валиден.
+     *  status = 404 - пользователь не найден.
+     *  status = 409 - логин уже занят или версия записи не совпала.
+     */
+    @PatchMapping(value = "/{id}", consumes = "application/merge-patch+json")
+    public ResponseEntity<Person> patch(@PathVariable int id, @RequestBody ObjectNode patch) {
+        try {
+            return this.persons.patch(id, patch)
+                    .map(PersonPatch::withoutPassword)
+                    .map(ResponseEntity::ok)
+                    .orElseGet(() -> ResponseEntity.status(HttpStatus.NOT_MODIFIED).build());
+        } catch (NoSuchElementException e) {
+            LOGGER.error("PATCH /person/{} {}", id, e.getMessage());
+            return ResponseEntity.notFound().build();
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage());
+        }
+    }
+
+    /**
+     * метод PATCH для модели Person.
+     * Оставлен для совместимости: не null поля запроса применяются как merge patch
+     * через {@link #patch(int, ObjectNode)}.
      * @param person пользователь - поля: id, login, password.
      *               Поле id обязательно и должно быть целым положительным числом
-     * @return тип {@link ru.job4j.auth.model.Person} обновлённый пользователь из хранилища
-     * @throws InvocationTargetException ошибка
-     * @throws IllegalAccessException ошибка
+     * @return тип {@link ru.job4j.auth.model.Person} обновлённый пользователь без пароля
      */
     @PatchMapping("/updatePatchMappingExample")
     @Validated(Operation.OnUpdate.class)
-    public Person updatePatchMappingExample(@Valid @RequestBody Person person)
-            throws InvocationTargetException, IllegalAccessException {
-        var current = persons.findById(person.getId()).orElse(null);
-        if (current == null) {
-            throw new ResponseStatusException(HttpStatus.NOT_FOUND);
-        }
-        var methods = current.getClass().getDeclaredMethods();
-        var namePerMethod = new HashMap<String, Method>();
-        for (var method: methods) {
-            var name = method.getName();
-            if (name.startsWith("get") || name.startsWith("set")) {
-                namePerMethod.put(name, method);
+    public Person updatePatchMappingExample(@Valid @RequestBody Person person) {
+        ObjectNode patch = objectMapper.valueToTree(person);
+        patch.remove("id");
+        Iterator<JsonNode> values = patch.elements();
+        while (values.hasNext()) {
+            if (values.next().isNull()) {
+                values.remove();
             }
         }
-        for (var name : namePerMethod.keySet()) {
-            if (name.startsWith("get")) {
-                var getMethod = namePerMethod.get(name);
-                var setMethod = namePerMethod.get(name.replace("get", "set"));
-                if (setMethod == null) {
-                    throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
-                            "Impossible invoke set method from object : "
-                                    + current + ", Check set and get pairs.");
-                }
-                var newValue = getMethod.invoke(person);
-                if (newValue != null) {
-                    setMethod.invoke(current, newValue);
-                }
-            }
+        try {
+            return persons.patch(person.getId(), patch)
+                    .or(() -> persons.findById(person.getId()))
+                    .map(PersonPatch::withoutPassword)
+                    .orElseThrow();
+        } catch (NoSuchElementException e) {
+            throw new ResponseStatusException(HttpStatus.NOT_FOUND);
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage());
         }
-        persons.update(current);
-        return current;
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,161 @@
+package ru.job4j.auth.controller;
+
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.validation.annotation.Validated;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PatchMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.PutMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
+import reactor.core.publisher.Mono;
+import ru.job4j.auth.model.Person;
+import ru.job4j.auth.model.PersonPage;
+import ru.job4j.auth.service.PersonPatch;
+import ru.job4j.auth.service.ReactivePersonService;
+import ru.job4j.auth.util.Operation;
+import ru.job4j.auth.util.PersonETags;
+
+import java.util.NoSuchElementException;
+
+/**
+ * Зеленский Н. aka Nike Z.
+ * Rest контроллер для Person на WebFlux (профиль reactive).
+ * Пути и коды ответов те же, что у {@link PersonController} и {@link SignUpController}.
+ * Пакетное создание (/person/batch), выгрузка (/person/export)
+ * и /person/updatePatchMappingExample есть только в сервлетном стеке.
+ */
+@RestController
+@RequestMapping("/person")
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+public class ReactivePersonController {
+    private static final Logger LOGGER =
+            LoggerFactory.getLogger(ReactivePersonController.class.getSimpleName());
+
+    private final ReactivePersonService persons;
+
+    public ReactivePersonController(ReactivePersonService persons) {
+        this.persons = persons;
+    }
+
+    /**
+     * Получить страницу списка {@link ru.job4j.auth.model.Person}
+     * @param next курсор следующей страницы из предыдущего ответа
+     * @param limit размер страницы
+     * @return тип {@link ru.job4j.auth.model.PersonPage} с ETag страницы,
+     * 304 без тела - страница не изменилась с If-None-Match, 400 - курсор повреждён
+     */
+    @GetMapping("/")
+    public Mono<ResponseEntity<PersonPage>> findAll(
+            @RequestParam(required = false) String next,
+            @RequestParam(defaultValue = "100") int limit) {
+        return persons.findPage(next, limit)
+                .map(page -> ResponseEntity.ok()
+                        .cacheControl(CacheControl.noCache())
+                        .eTag(PersonETags.of(page))
+                        .body(page))
+                .onErrorMap(IllegalArgumentException.class,
+                        e -> new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage()));
+    }
+
+    /**
+     * Получить {@link ru.job4j.auth.model.Person} по {@param id}
+     * @param id - идентификатор тип int.
+     * @return пользователь с ETag "id-version", 304 без тела - версия совпала
+     * с If-None-Match, 404 без тела - не найден
+     */
+    @GetMapping("/{id}")
+    public Mono<ResponseEntity<Person>> findById(@PathVariable int id) {
+        return persons.findById(id)
+                .map(person -> ResponseEntity.ok()
+                        .cacheControl(CacheControl.noCache())
+                        .eTag(PersonETags.of(person))
+                        .body(person))
+                .defaultIfEmpty(ResponseEntity.notFound().build());
+    }
+
+    /**
+     * Добавить пользователя
+     * @param person - добавляемая сущность тип {@link ru.job4j.auth.model.Person}
+     * @return 201 и сохранённый пользователь, 409 - логин уже занят
+     */
+    @PostMapping("/")
+    public Mono<ResponseEntity<Person>> create(
+            @Validated(Operation.OnCreate.class) @RequestBody Person person) {
+        return persons.create(person)
+                .map(saved -> ResponseEntity.status(HttpStatus.CREATED).body(saved));
+    }
+
+    /**
+     * Регистрация нового пользователя, пароль хешируется
+     * @param person новый пользователь, поля login и password
+     * @return 200, 409 - логин уже занят, 503 - пул хеширования перегружен
+     */
+    @PostMapping("/sign-up")
+    public Mono<Void> signUp(@Validated(Operation.OnCreate.class) @RequestBody Person person) {
+        return persons.signUp(person).then();
+    }
+
+    /**
+     * Обновить пользователя
+     * @param person - сохраняемая сущность тип {@link ru.job4j.auth.model.Person}
+     * @return 200 - обновлён, 304 - без изменений, 404 - не найден,
+     * 409 - логин занят или версия записи устарела
+     */
+    @PutMapping("/")
+    public Mono<ResponseEntity<Void>> update(
+            @Validated(Operation.OnUpdate.class) @RequestBody Person person) {
+        return persons.update(person)
+                .map(updated -> updated ? ResponseEntity.ok().<Void>build()
+                        : ResponseEntity.status(HttpStatus.NOT_MODIFIED).<Void>build())
+                .onErrorResume(NoSuchElementException.class, e -> {
+                    LOGGER.error("PUT /person/ {}", e.getMessage());
+                    return Mono.just(ResponseEntity.notFound().build());
+                });
+    }
+
+    /**
+     * Удалить пользователя по {@param id}
+     * @param id - идентификатор пользователя
+     * @return 200 - удалён, 304 - не найден
+     */
+    @DeleteMapping("/{id}")
+    public Mono<ResponseEntity<Void>> delete(@PathVariable int id) {
+        return persons.delete(id)
+                .map(deleted -> deleted ? ResponseEntity.ok().<Void>build()
+                        : ResponseEntity.status(HttpStatus.NOT_MODIFIED).<Void>build());
+    }
+
+    /**
+     * Частичное обновление пользователя, JSON Merge Patch (RFC 7396)
+     * @param id идентификатор пользователя
+     * @param patch патч, например {"password": "new"}; поле version - ожидаемая версия записи
+     * @return 200 и обновлённый пользователь без пароля, 304 - патч ничего не изменил,
+     * 400 - патч не применим, 404 - не найден, 409 - логин занят или версия не совпала
+     */
+    @PatchMapping(value = "/{id}", consumes = "application/merge-patch+json")
+    public Mono<ResponseEntity<Person>> patch(@PathVariable int id,
+                                              @RequestBody ObjectNode patch) {
+        return persons.patch(id, patch)
+                .map(PersonPatch::withoutPassword)
+                .map(ResponseEntity::ok)
+                .defaultIfEmpty(ResponseEntity.status(HttpStatus.NOT_MODIFIED).build())
+                .onErrorResume(NoSuchElementException.class, e -> {
+                    LOGGER.error("PATCH /person/{} {}", id, e.getMessage());
+                    return Mono.just(ResponseEntity.notFound().build());
+                })
+                .onErrorMap(IllegalArgumentException.class,
+                        e -> new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage()));
+    }
+}
@@ -0,0 +1,88 @@
+package ru.job4j.auth.controller;
+
+import com.auth0.jwt.interfaces.DecodedJWT;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.Authentication;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RestController;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+import ru.job4j.auth.filter.JwtTokens;
+import ru.job4j.auth.service.RefreshTokenService;
+import ru.job4j.auth.service.TokenRevocationService;
+
+import java.util.Map;
+
+import static ru.job4j.auth.filter.JWTAuthenticationFilter.HEADER_STRING;
+import static ru.job4j.auth.filter.JWTAuthenticationFilter.REFRESH_HEADER;
+import static ru.job4j.auth.filter.JWTAuthenticationFilter.REFRESH_URL;
+import static ru.job4j.auth.filter.JWTAuthenticationFilter.TOKEN_PREFIX;
+
+/**
+ * Зеленский Н. aka Nike Z.
+ * Обновление и отзыв токенов на WebFlux (профиль reactive), как {@link TokenController}.
+ * Таблицы refresh_token и revoked_token доступны через JPA,
+ * обращения к ним выполняются на Schedulers.boundedElastic().
+ */
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+@RestController
+public class ReactiveTokenController {
+    private final TokenRevocationService revocations;
+    private final RefreshTokenService refreshTokens;
+    private final JwtTokens tokens;
+
+    public ReactiveTokenController(TokenRevocationService revocations,
+                                   RefreshTokenService refreshTokens,
+                                   JwtTokens tokens) {
+        this.revocations = revocations;
+        this.refreshTokens = refreshTokens;
+        this.tokens = tokens;
+    }
+
+    /**
+     * Обменять токен обновления на новый токен доступа и новый токен обновления
+     * @param refreshToken токен обновления из заголовка Refresh-Token
+     * @return 200 с заголовками Authorization и Refresh-Token, 401 - токен неизвестен,
+     * истёк или уже использован
+     */
+    @PostMapping(REFRESH_URL)
+    public Mono<ResponseEntity<Void>> refresh(
+            @RequestHeader(value = REFRESH_HEADER, required = false) String refreshToken) {
+        if (refreshToken == null) {
+            return Mono.just(ResponseEntity.status(HttpStatus.UNAUTHORIZED).build());
+        }
+        return Mono.fromCallable(() -> refreshTokens.rotate(refreshToken))
+                .subscribeOn(Schedulers.boundedElastic())
+                .map(result -> result
+                        .map(rotated -> ResponseEntity.ok()
+                                .header(HEADER_STRING, TOKEN_PREFIX + tokens.sign(rotated.login()))
+                                .header(REFRESH_HEADER, rotated.refreshToken())
+                                .<Void>build())
+                        .orElseGet(() -> ResponseEntity.status(HttpStatus.UNAUTHORIZED).build()));
+    }
+
+    /**
+     * Отозвать токен текущего запроса и, если передан, цепочку токена обновления
+     * @param authentication аутентификация, в details - проверенный токен
+     * @param refreshToken токен обновления из заголовка Refresh-Token
+     * @return 204 - токен отозван, 400 - токен выпущен без jti, 403 - токен недействителен
+     */
+    @PostMapping("/logout")
+    public Mono<ResponseEntity<?>> logout(
+            Authentication authentication,
+            @RequestHeader(value = REFRESH_HEADER, required = false) String refreshToken) {
+        return Mono.fromCallable(() -> {
+                    if (refreshToken != null) {
+                        refreshTokens.revoke(refreshToken);
+                    }
+                    return revocations.revoke((DecodedJWT) authentication.getDetails());
+                })
+                .subscribeOn(Schedulers.boundedElastic())
+                .map(revoked -> revoked ? ResponseEntity.noContent().build()
+                        : ResponseEntity.badRequest()
+                        .body(Map.of("message", "Token has no jti and cannot be revoked")));
+    }
+}
@@ -1,6 +1,7 @@
 package ru.job4j.auth.controller;
 
-import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
 import ru.job4j.auth.model.Person;
@@ -54,25 +55,26 @@ import java.util.HashMap;
  * bJcs7KeIrQufZocvljH9hTu9PVr31dvyLfRyXso7tZLmkEYtWybqjHVBRNKM"
  * -X GET http:/ /localhost:8080/person/
  */
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
 @RestController
 @RequestMapping("/person")
 public class SignUpController {
     private static final Logger LOGGER =
             LoggerFactory.getLogger(SignUpController.class.getSimpleName());
     private final UserDetailsServiceImpl users;
-    private final BCryptPasswordEncoder encoder;
+    private final PasswordEncoder encoder;
     private final ObjectMapper objectMapper;
 
     /**
      * Конструктор
      * @param users тип {@link ru.job4j.auth.service.UserDetailsServiceImpl}
      *              сервис для авторизации пользователя
-     * @param encoder тип {@link org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder}
+     * @param encoder тип {@link org.springframework.security.crypto.password.PasswordEncoder}
      *                шифровальщик пароля
      * @param objectMapper тип {@link com.fasterxml.jackson.databind.ObjectMapper}
      */
     public SignUpController(UserDetailsServiceImpl users,
-                            BCryptPasswordEncoder encoder,
+                            PasswordEncoder encoder,
                             ObjectMapper objectMapper) {
         this.users = users;
         this.encoder = encoder;
@@ -88,6 +90,7 @@ public class SignUpController {
      * >>     \"login\": \"admin3\",
      * >>     \"password\": \"password\"
      * >> }' http:/ /localhost:8080/person/sign-up
+     * Логин уникален: повтор отклоняет уникальный индекс БД, ответ 409.
      */
     @PostMapping("/sign-up")
     @Validated(Operation.OnCreate.class)
@@ -128,6 +131,6 @@ public class SignUpController {
             put("message", e.getMessage());
             put("type", e.getClass());
         }}));
-        LOGGER.error(e.getLocalizedMessage());
+        LOGGER.error("Sign-up failed: {}", e.getLocalizedMessage());
     }
 }
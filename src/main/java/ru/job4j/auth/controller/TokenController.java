@@ -0,0 +1,88 @@
+package ru.job4j.auth.controller;
+
+import com.auth0.jwt.interfaces.DecodedJWT;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.Authentication;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RestController;
+import ru.job4j.auth.filter.JwtTokens;
+import ru.job4j.auth.service.RefreshTokenService;
+import ru.job4j.auth.service.TokenRevocationService;
+
+import java.util.Map;
+
+import static ru.job4j.auth.filter.JWTAuthenticationFilter.HEADER_STRING;
+import static ru.job4j.auth.filter.JWTAuthenticationFilter.REFRESH_HEADER;
+import static ru.job4j.auth.filter.JWTAuthenticationFilter.REFRESH_URL;
+import static ru.job4j.auth.filter.JWTAuthenticationFilter.TOKEN_PREFIX;
+
+/**
+ * Зеленский Н. aka Nike Z.
+ * Обновление и отзыв токенов.
+ * Новый токен доступа выдаётся по токену обновления без проверки пароля,
+ * при выходе токен из заголовка Authorization отзывается до своего истечения.
+ * -------------------------------------
+ * Пример:
+ * curl -i -X POST -H "Refresh-Token: ..." http://localhost:8080/person/token/refresh
+ * curl -i -X POST -H "Authorization: Bearer ..." -H "Refresh-Token: ..."
+ * http://localhost:8080/logout
+ */
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+@RestController
+public class TokenController {
+    private final TokenRevocationService revocations;
+    private final RefreshTokenService refreshTokens;
+    private final JwtTokens tokens;
+
+    public TokenController(TokenRevocationService revocations,
+                           RefreshTokenService refreshTokens,
+                           JwtTokens tokens) {
+        this.revocations = revocations;
+        this.refreshTokens = refreshTokens;
+        this.tokens = tokens;
+    }
+
+    /**
+     * Обменять токен обновления на новый токен доступа и новый токен обновления
+     * @param refreshToken токен обновления из заголовка Refresh-Token
+     * @return 200 с заголовками Authorization и Refresh-Token, 401 - токен неизвестен,
+     * истёк или уже использован
+     */
+    @PostMapping(REFRESH_URL)
+    public ResponseEntity<?> refresh(
+            @RequestHeader(value = REFRESH_HEADER, required = false) String refreshToken) {
+        if (refreshToken == null) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
+        }
+        return refreshTokens.rotate(refreshToken)
+                .<ResponseEntity<?>>map(rotated -> ResponseEntity.ok()
+                        .header(HEADER_STRING, TOKEN_PREFIX + tokens.sign(rotated.login()))
+                        .header(REFRESH_HEADER, rotated.refreshToken())
+                        .build())
+                .orElseGet(() -> ResponseEntity.status(HttpStatus.UNAUTHORIZED).build());
+    }
+
+    /**
+     * Отозвать токен текущего запроса и, если передан, цепочку токена обновления
+     * @param authentication аутентификация, в details - проверенный токен
+     * @param refreshToken токен обновления из заголовка Refresh-Token
+     * @return 204 - токен отозван, 400 - токен выпущен без jti и не может быть отозван,
+     * 403 - токен недействителен или уже отозван
+     */
+    @PostMapping("/logout")
+    public ResponseEntity<?> logout(
+            Authentication authentication,
+            @RequestHeader(value = REFRESH_HEADER, required = false) String refreshToken) {
+        if (refreshToken != null) {
+            refreshTokens.revoke(refreshToken);
+        }
+        if (!revocations.revoke((DecodedJWT) authentication.getDetails())) {
+            return ResponseEntity.badRequest()
+                    .body(Map.of("message", "Token has no jti and cannot be revoked"));
+        }
+        return ResponseEntity.noContent().build();
+    }
+}
@@ -0,0 +1,42 @@
+package ru.job4j.auth.crypto;
+
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+
+import java.time.Duration;
+
+/**
+ * Подбор стоимости (strength) BCrypt под заданное время хеширования на текущем узле.
+ * Время хеширования удваивается с каждой единицей strength, поэтому достаточно
+ * замерить минимальную стоимость и пересчитать.
+ */
+public class BCryptCalibration {
+    private static final String SAMPLE = "calibration-password";
+    private static final int WARM_UP = 2;
+
+    private BCryptCalibration() {
+    }
+
+    /**
+     * Подобрать strength
+     * @param target желаемое время одного хеширования
+     * @param minStrength нижняя граница (по безопасности)
+     * @param maxStrength верхняя граница
+     * @return наибольший strength из [minStrength, maxStrength], время которого
+     * не превышает target, или minStrength, если даже он медленнее target
+     */
+    public static int strengthFor(Duration target, int minStrength, int maxStrength) {
+        BCryptPasswordEncoder encoder = new BCryptPasswordEncoder(minStrength);
+        for (int i = 0; i < WARM_UP; i++) {
+            encoder.encode(SAMPLE);
+        }
+        long start = System.nanoTime();
+        encoder.encode(SAMPLE);
+        long nanos = System.nanoTime() - start;
+        int strength = minStrength;
+        while (strength < maxStrength && nanos * 2 <= target.toNanos()) {
+            strength++;
+            nanos *= 2;
+        }
+        return strength;
+    }
+}
@@ -0,0 +1,103 @@
+package ru.job4j.auth.crypto;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import ru.job4j.auth.util.ResultTimers;
+
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+/**
+ * {@link PasswordEncoder}, выполняющий хеширование и проверку пароля
+ * в {@link PasswordHashingExecutor}, а не в потоке запроса.
+ * Время самого хеширования (без ожидания в очереди пула) пишется в таймер auth.password.hash.
+ */
+public class BoundedPasswordEncoder implements PasswordEncoder {
+    private final PasswordEncoder delegate;
+    private final PasswordHashingExecutor executor;
+    private final ResultTimers encodeTimers;
+    private final ResultTimers upgradeTimers;
+    private final ResultTimers matchesTimers;
+
+    /**
+     * Конструктор
+     * @param delegate шифровальщик, выполняющий работу (BCrypt)
+     * @param executor пул хеширования
+     * @param registry реестр метрик
+     */
+    public BoundedPasswordEncoder(PasswordEncoder delegate, PasswordHashingExecutor executor,
+                                  MeterRegistry registry) {
+        this.delegate = delegate;
+        this.executor = executor;
+        this.encodeTimers = timers(registry, "encode", "success", "error");
+        this.upgradeTimers = timers(registry, "upgrade", "success", "error");
+        this.matchesTimers = timers(registry, "matches", "match", "mismatch", "error");
+    }
+
+    @Override
+    public String encode(CharSequence rawPassword) {
+        return executor.call(() -> encodeTimed(encodeTimers, rawPassword));
+    }
+
+    /**
+     * Захешировать пароли параллельно в пуле хеширования
+     * @param rawPasswords пароли
+     * @return хеши в порядке паролей
+     */
+    public List<String> encodeAll(List<? extends CharSequence> rawPasswords) {
+        return executor.callAll(rawPasswords.stream()
+                .<Supplier<String>>map(raw -> () -> encodeTimed(encodeTimers, raw))
+                .collect(Collectors.toList()));
+    }
+
+    @Override
+    public boolean matches(CharSequence rawPassword, String encodedPassword) {
+        return executor.call(() -> timed(matchesTimers,
+                () -> delegate.matches(rawPassword, encodedPassword),
+                matched -> matched ? "match" : "mismatch"));
+    }
+
+    @Override
+    public boolean upgradeEncoding(String encodedPassword) {
+        return delegate.upgradeEncoding(encodedPassword);
+    }
+
+    /**
+     * Перехешировать пароль в фоне, поток запроса не ждёт результата.
+     * Если пул перегружен, перехеширование пропускается до следующего входа.
+     * @param rawPassword пароль
+     * @param onEncoded получатель нового хеша, вызывается в потоке пула
+     * @return false - если задача не принята пулом
+     */
+    public boolean upgradeAsync(CharSequence rawPassword, Consumer<String> onEncoded) {
+        return executor.tryExecute(() -> onEncoded.accept(encodeTimed(upgradeTimers, rawPassword)));
+    }
+
+    private String encodeTimed(ResultTimers timers, CharSequence rawPassword) {
+        return timed(timers, () -> delegate.encode(rawPassword), hash -> "success");
+    }
+
+    private static <T> T timed(ResultTimers timers, Supplier<T> hashing,
+                               Function<T, String> result) {
+        long start = timers.start();
+        String outcome = "error";
+        try {
+            T value = hashing.get();
+            outcome = result.apply(value);
+            return value;
+        } finally {
+            timers.stop(start, outcome);
+        }
+    }
+
+    private static ResultTimers timers(MeterRegistry registry, String operation,
+                                       String... results) {
+        return new ResultTimers(registry, "auth.password.hash",
+                "Password hashing time, without waiting in the pool queue",
+                Tags.of("operation", operation), results);
+    }
+}
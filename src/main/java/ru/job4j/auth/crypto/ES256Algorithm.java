@@ -0,0 +1,64 @@
+package ru.job4j.auth.crypto;
+
+import com.auth0.jwt.algorithms.Algorithm;
+import com.auth0.jwt.exceptions.SignatureGenerationException;
+import com.auth0.jwt.exceptions.SignatureVerificationException;
+import com.auth0.jwt.interfaces.DecodedJWT;
+import com.auth0.jwt.interfaces.ECDSAKeyProvider;
+
+import java.math.BigInteger;
+import java.util.Base64;
+
+/**
+ * Зеленский Н. aka Nike Z.
+ * ES256 с проверкой структуры подписи до проверки ключом: r и s должны быть
+ * в диапазоне [1, n-1], n - порядок кривой P-256. JDK 15 - 17.0.2 принимают
+ * подпись r = s = 0 для любого сообщения (CVE-2022-21449), java-jwt проверяет
+ * это сам только с 3.19.1. Здесь та же проверка, независимо от версий JDK и java-jwt.
+ */
+public class ES256Algorithm extends Algorithm {
+    private static final BigInteger ORDER = new BigInteger(
+            "FFFFFFFF00000000FFFFFFFFFFFFFFFFBCE6FAADA7179E84F3B9CAC2FC632551", 16);
+    private static final int NUMBER_BYTES = 32;
+
+    private final Algorithm delegate;
+
+    /**
+     * Конструктор
+     * @param keys ключи подписи и проверки
+     */
+    public ES256Algorithm(ECDSAKeyProvider keys) {
+        super("ES256", "SHA256withECDSA");
+        this.delegate = Algorithm.ECDSA256(keys);
+    }
+
+    @Override
+    public void verify(DecodedJWT jwt) throws SignatureVerificationException {
+        byte[] signature;
+        try {
+            signature = Base64.getUrlDecoder().decode(jwt.getSignature());
+        } catch (IllegalArgumentException e) {
+            throw new SignatureVerificationException(this, e);
+        }
+        if (signature.length != 2 * NUMBER_BYTES
+                || !inRange(new BigInteger(1, signature, 0, NUMBER_BYTES))
+                || !inRange(new BigInteger(1, signature, NUMBER_BYTES, NUMBER_BYTES))) {
+            throw new SignatureVerificationException(this);
+        }
+        delegate.verify(jwt);
+    }
+
+    @Override
+    public byte[] sign(byte[] contentBytes) throws SignatureGenerationException {
+        return delegate.sign(contentBytes);
+    }
+
+    @Override
+    public String getSigningKeyId() {
+        return delegate.getSigningKeyId();
+    }
+
+    private static boolean inRange(BigInteger number) {
+        return number.signum() > 0 && number.compareTo(ORDER) < 0;
+    }
+}
@@ -0,0 +1,187 @@
+package ru.job4j.auth.crypto;
+
+import com.auth0.jwt.interfaces.ECDSAKeyProvider;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.GeneralSecurityException;
+import java.security.KeyFactory;
+import java.security.KeyPair;
+import java.security.KeyPairGenerator;
+import java.security.MessageDigest;
+import java.security.interfaces.ECPrivateKey;
+import java.security.interfaces.ECPublicKey;
+import java.security.spec.ECGenParameterSpec;
+import java.security.spec.PKCS8EncodedKeySpec;
+import java.security.spec.X509EncodedKeySpec;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+/**
+ * Зеленский Н. aka Nike Z.
+ * Ключи подписи JWT (ES256, кривая P-256). Токен подписывается активным ключом,
+ * его идентификатор пишется в заголовок kid; проверка берёт открытый ключ по kid
+ * из заранее загруженной таблицы, ключи при проверке не разбираются.
+ * <p>
+ * Ключи лежат в каталоге jwt.keys.directory: {kid}.pub - открытый ключ (PEM, X.509),
+ * {kid}.key - закрытый (PEM, PKCS#8), закрытый нужен только активному ключу
+ * jwt.keys.active. Ключи без .key только проверяют подпись - так публикуется
+ * следующий ключ до переключения и остаётся прежний, пока не истекут его токены.
+ * Ключи читаются только при старте, новый {kid}.pub виден после перезапуска.
+ * Без каталога сервис не запускается. Временный ключ, создаваемый при старте, разрешает
+ * jwt.keys.allow-temporary=true (разработка, тесты): его токены не переживают
+ * перезапуск и не проверяются другими экземплярами сервиса.
+ */
+@Component
+public class JwtKeyRing implements ECDSAKeyProvider {
+    private static final Logger LOGGER = LoggerFactory.getLogger(JwtKeyRing.class.getSimpleName());
+    private static final String CURVE = "secp256r1";
+    private static final int COORDINATE_BYTES = 32;
+
+    private final Map<String, ECPublicKey> publicKeys;
+    private final String activeKeyId;
+    private final ECPrivateKey privateKey;
+    private final Map<String, Object> jwks;
+
+    /**
+     * Конструктор
+     * @param directory каталог ключей, пусто - временный ключ, если он разрешён
+     * @param activeKeyId kid ключа подписи, в каталоге должны быть {kid}.key и {kid}.pub
+     * @param allowTemporary разрешить временный ключ, когда каталог не задан
+     * @throws IllegalStateException если каталог не задан и временный ключ не разрешён
+     */
+    public JwtKeyRing(@Value("${jwt.keys.directory:}") String directory,
+                      @Value("${jwt.keys.active:}") String activeKeyId,
+                      @Value("${jwt.keys.allow-temporary:false}") boolean allowTemporary) {
+        if (directory.isBlank() && !allowTemporary) {
+            throw new IllegalStateException("jwt.keys.directory is not set: tokens would be"
+                    + " signed with a temporary key and lost on restart. Set"
+                    + " jwt.keys.directory and jwt.keys.active, or"
+                    + " jwt.keys.allow-temporary=true for development");
+        }
+        try {
+            Map<String, ECPublicKey> keys = new LinkedHashMap<>();
+            if (directory.isBlank()) {
+                KeyPairGenerator generator = KeyPairGenerator.getInstance("EC");
+                generator.initialize(new ECGenParameterSpec(CURVE));
+                KeyPair pair = generator.generateKeyPair();
+                ECPublicKey publicKey = (ECPublicKey) pair.getPublic();
+                String kid = thumbprint(publicKey);
+                this.activeKeyId = kid;
+                this.privateKey = (ECPrivateKey) pair.getPrivate();
+                keys.put(kid, publicKey);
+                LOGGER.warn("jwt.keys.directory is not set, tokens are signed with temporary"
+                        + " key {} and become invalid after restart", kid);
+            } else {
+                Path dir = Path.of(directory);
+                KeyFactory factory = KeyFactory.getInstance("EC");
+                try (Stream<Path> files = Files.list(dir)) {
+                    for (Path file : files.sorted().toList()) {
+                        String name = file.getFileName().toString();
+                        if (name.endsWith(".pub")) {
+                            keys.put(name.substring(0, name.length() - ".pub".length()),
+                                    (ECPublicKey) factory.generatePublic(
+                                            new X509EncodedKeySpec(pem(file))));
+                        }
+                    }
+                }
+                if (!keys.containsKey(activeKeyId)) {
+                    throw new IllegalStateException("jwt.keys.active=" + activeKeyId
+                            + " has no " + activeKeyId + ".pub in " + dir);
+                }
+                this.activeKeyId = activeKeyId;
+                this.privateKey = (ECPrivateKey) factory.generatePrivate(
+                        new PKCS8EncodedKeySpec(pem(dir.resolve(activeKeyId + ".key"))));
+                LOGGER.info("JWT keys {}, signing with {}", keys.keySet(), activeKeyId);
+            }
+            this.publicKeys = Collections.unmodifiableMap(keys);
+            this.jwks = jwks(keys);
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("Invalid JWT keys in " + directory, e);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Override
+    public ECPublicKey getPublicKeyById(String keyId) {
+        return keyId == null ? null : publicKeys.get(keyId);
+    }
+
+    @Override
+    public ECPrivateKey getPrivateKey() {
+        return privateKey;
+    }
+
+    @Override
+    public String getPrivateKeyId() {
+        return activeKeyId;
+    }
+
+    /**
+     * Открытые ключи в формате JWK Set (RFC 7517) для /.well-known/jwks.json
+     * @return неизменяемый документ {"keys": [...]}
+     */
+    public Map<String, Object> jwks() {
+        return jwks;
+    }
+
+    private static Map<String, Object> jwks(Map<String, ECPublicKey> keys) {
+        List<Map<String, String>> list = new ArrayList<>();
+        keys.forEach((kid, key) -> {
+            Map<String, String> jwk = new LinkedHashMap<>();
+            jwk.put("kty", "EC");
+            jwk.put("crv", "P-256");
+            jwk.put("use", "sig");
+            jwk.put("alg", "ES256");
+            jwk.put("kid", kid);
+            jwk.put("x", coordinate(key.getW().getAffineX()));
+            jwk.put("y", coordinate(key.getW().getAffineY()));
+            list.add(Collections.unmodifiableMap(jwk));
+        });
+        return Map.of("keys", Collections.unmodifiableList(list));
+    }
+
+    /**
+     * Координата точки - ровно 32 байта без знака, base64url без дополнения
+     */
+    private static String coordinate(BigInteger value) {
+        byte[] bytes = value.toByteArray();
+        byte[] fixed = new byte[COORDINATE_BYTES];
+        int length = Math.min(bytes.length, COORDINATE_BYTES);
+        System.arraycopy(bytes, bytes.length - length, fixed, COORDINATE_BYTES - length, length);
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(fixed);
+    }
+
+    /**
+     * kid временного ключа - отпечаток JWK по RFC 7638
+     */
+    private static String thumbprint(ECPublicKey key) throws GeneralSecurityException {
+        String canonical = "{\"crv\":\"P-256\",\"kty\":\"EC\",\"x\":\""
+                + coordinate(key.getW().getAffineX()) + "\",\"y\":\""
+                + coordinate(key.getW().getAffineY()) + "\"}";
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(
+                MessageDigest.getInstance("SHA-256")
+                        .digest(canonical.getBytes(StandardCharsets.US_ASCII)));
+    }
+
+    private static byte[] pem(Path file) throws IOException {
+        String text = Files.readString(file, StandardCharsets.US_ASCII)
+                .replaceAll("-----[A-Z ]+-----", "")
+                .replaceAll("\\s", "");
+        return Base64.getDecoder().decode(text);
+    }
+}
@@ -0,0 +1,242 @@
+package ru.job4j.auth.crypto;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.FunctionTimer;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Выделенный пул потоков для хеширования и проверки паролей.
+ * Количество потоков и длина очереди ограничены: при заполненной очереди
+ * задача сразу отклоняется с {@link PasswordHashingRejectedException},
+ * а потоки Tomcat не занимаются BCrypt все одновременно.
+ * Состояние пула публикуется в метриках password.hashing.*.
+ */
+public class PasswordHashingExecutor implements MeterBinder {
+    private final ThreadPoolExecutor pool;
+    private final long retryAfterSeconds;
+    private final LongAdder rejected = new LongAdder();
+    private final LongAdder waits = new LongAdder();
+    private final LongAdder waitNanos = new LongAdder();
+    private final LongAccumulator maxWaitNanos = new LongAccumulator(Math::max, 0);
+
+    /**
+     * Конструктор
+     * @param threads количество потоков пула
+     * @param queueCapacity длина очереди ожидающих задач
+     * @param retryAfterSeconds значение Retry-After для отклонённых запросов
+     */
+    public PasswordHashingExecutor(int threads, int queueCapacity, long retryAfterSeconds) {
+        this.pool = new ThreadPoolExecutor(threads, threads, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), new HashingThreadFactory(),
+                new ThreadPoolExecutor.AbortPolicy());
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+
+    /**
+     * Выполнить задачу в пуле и дождаться результата
+     * @param task задача хеширования или проверки пароля
+     * @param <T> тип результата
+     * @return результат задачи
+     * @throws PasswordHashingRejectedException если очередь пула заполнена
+     */
+    public <T> T call(Supplier<T> task) {
+        return await(submit(task));
+    }
+
+    /**
+     * Выполнить задачи параллельно и дождаться всех результатов.
+     * Задачи ставятся в пул окнами по числу потоков, чтобы пакет
+     * не занимал всю очередь, общую со входами пользователей.
+     * @param tasks задачи
+     * @param <T> тип результата
+     * @return результаты в порядке задач
+     * @throws PasswordHashingRejectedException если очередь пула заполнена
+     */
+    public <T> List<T> callAll(List<Supplier<T>> tasks) {
+        int window = pool.getMaximumPoolSize();
+        List<T> results = new ArrayList<>(tasks.size());
+        for (int from = 0; from < tasks.size(); from += window) {
+            List<Future<T>> futures = new ArrayList<>(window);
+            int to = Math.min(from + window, tasks.size());
+            try {
+                for (Supplier<T> task : tasks.subList(from, to)) {
+                    futures.add(submit(task));
+                }
+                for (Future<T> future : futures) {
+                    results.add(await(future));
+                }
+            } catch (RuntimeException | Error e) {
+                futures.forEach(future -> future.cancel(true));
+                throw e;
+            }
+        }
+        return results;
+    }
+
+    /**
+     * Поставить фоновую задачу в пул, не дожидаясь результата
+     * @param task задача
+     * @return false - если очередь пула заполнена и задача не принята
+     */
+    public boolean tryExecute(Runnable task) {
+        long submitted = System.nanoTime();
+        try {
+            pool.execute(() -> {
+                recordWait(System.nanoTime() - submitted);
+                task.run();
+            });
+            return true;
+        } catch (RejectedExecutionException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Количество задач в очереди
+     * @return длина очереди
+     */
+    public int getQueueDepth() {
+        return pool.getQueue().size();
+    }
+
+    /**
+     * Количество потоков, занятых хешированием
+     * @return занятые потоки
+     */
+    public int getActiveCount() {
+        return pool.getActiveCount();
+    }
+
+    /**
+     * Количество отклонённых задач с момента запуска
+     * @return отклонённые задачи
+     */
+    public long getRejectedCount() {
+        return rejected.sum();
+    }
+
+    /**
+     * Количество задач, дождавшихся свободного потока
+     * @return задачи, начатые пулом
+     */
+    public long getWaitCount() {
+        return waits.sum();
+    }
+
+    /**
+     * Суммарное время ожидания задач в очереди
+     * @param unit единица измерения
+     * @return время ожидания
+     */
+    public double getTotalWaitTime(TimeUnit unit) {
+        return (double) waitNanos.sum() / unit.toNanos(1);
+    }
+
+    /**
+     * Максимальное время ожидания задачи в очереди с момента запуска
+     * @param unit единица измерения
+     * @return время ожидания
+     */
+    public double getMaxWaitTime(TimeUnit unit) {
+        return (double) maxWaitNanos.get() / unit.toNanos(1);
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("password.hashing.queue", this, PasswordHashingExecutor::getQueueDepth)
+                .description("Tasks waiting for a hashing thread")
+                .register(registry);
+        Gauge.builder("password.hashing.active", this, PasswordHashingExecutor::getActiveCount)
+                .description("Threads busy hashing")
+                .register(registry);
+        FunctionCounter.builder("password.hashing.rejected", this,
+                        PasswordHashingExecutor::getRejectedCount)
+                .description("Tasks rejected because the queue was full")
+                .register(registry);
+        FunctionTimer.builder("password.hashing.wait", this,
+                        PasswordHashingExecutor::getWaitCount,
+                        executor -> executor.getTotalWaitTime(TimeUnit.NANOSECONDS),
+                        TimeUnit.NANOSECONDS)
+                .description("Time tasks spent in the queue")
+                .register(registry);
+        Gauge.builder("password.hashing.wait.max", this,
+                        executor -> executor.getMaxWaitTime(TimeUnit.SECONDS))
+                .description("Longest queue wait since start")
+                .baseUnit("seconds")
+                .register(registry);
+    }
+
+    /**
+     * Остановить пул, вызывается Spring при закрытии контекста
+     */
+    public void shutdown() {
+        pool.shutdown();
+    }
+
+    private <T> Future<T> submit(Supplier<T> task) {
+        long submitted = System.nanoTime();
+        try {
+            return pool.submit(() -> {
+                recordWait(System.nanoTime() - submitted);
+                return task.get();
+            });
+        } catch (RejectedExecutionException e) {
+            rejected.increment();
+            throw new PasswordHashingRejectedException(
+                    "Password hashing queue is full", retryAfterSeconds);
+        }
+    }
+
+    private <T> T await(Future<T> future) {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            future.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new PasswordHashingRejectedException(
+                    "Interrupted while waiting for password hashing", retryAfterSeconds);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw new IllegalStateException(cause);
+        }
+    }
+
+    private void recordWait(long nanos) {
+        waits.increment();
+        waitNanos.add(nanos);
+        maxWaitNanos.accumulate(nanos);
+    }
+
+    private static class HashingThreadFactory implements ThreadFactory {
+        private final AtomicInteger number = new AtomicInteger();
+
+        @Override
+        public Thread newThread(Runnable runnable) {
+            Thread thread = new Thread(runnable, "password-hashing-" + number.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }
+    }
+}
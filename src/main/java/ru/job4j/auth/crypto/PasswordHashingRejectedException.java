@@ -0,0 +1,30 @@
+package ru.job4j.auth.crypto;
+
+import org.springframework.security.authentication.InternalAuthenticationServiceException;
+
+/**
+ * Пул хеширования паролей перегружен: очередь заполнена.
+ * Наследует {@link InternalAuthenticationServiceException}, чтобы ProviderManager
+ * не перебирал другие провайдеры и сразу вернул ошибку фильтру входа.
+ */
+public class PasswordHashingRejectedException extends InternalAuthenticationServiceException {
+    private final long retryAfterSeconds;
+
+    /**
+     * Конструктор
+     * @param message сообщение
+     * @param retryAfterSeconds через сколько секунд клиенту стоит повторить запрос
+     */
+    public PasswordHashingRejectedException(String message, long retryAfterSeconds) {
+        super(message);
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+
+    /**
+     * Значение заголовка Retry-After
+     * @return количество секунд
+     */
+    public long getRetryAfterSeconds() {
+        return retryAfterSeconds;
+    }
+}
@@ -0,0 +1,49 @@
+package ru.job4j.auth.crypto;
+
+import org.springframework.security.core.CredentialsContainer;
+
+import java.util.Arrays;
+
+/**
+ * Зеленский Н. aka Nike Z.
+ * Пароль из тела запроса входа в char[], а не в неизменяемой строке.
+ * Spring Security стирает его вызовом {@link #eraseCredentials()} после успешного входа,
+ * фильтры входа - после любого исхода; массив заполняется нулями.
+ * Строка создаётся только по {@link #toString()}, когда её требует BCrypt.
+ */
+public final class RawPassword implements CharSequence, CredentialsContainer {
+    private final char[] chars;
+
+    /**
+     * Конструктор, массив не копируется
+     * @param chars символы пароля
+     */
+    public RawPassword(char[] chars) {
+        this.chars = chars;
+    }
+
+    @Override
+    public int length() {
+        return chars.length;
+    }
+
+    @Override
+    public char charAt(int index) {
+        return chars[index];
+    }
+
+    @Override
+    public CharSequence subSequence(int start, int end) {
+        return new String(chars, start, end - start);
+    }
+
+    @Override
+    public void eraseCredentials() {
+        Arrays.fill(chars, '\0');
+    }
+
+    @Override
+    public String toString() {
+        return new String(chars);
+    }
+}
@@ -0,0 +1,219 @@
+package ru.job4j.auth.datasource;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.metrics.micrometer.MicrometerMetricsTrackerFactory;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.composite.CompositeMeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.datasource.AbstractDataSource;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLFeatureNotSupportedException;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+/**
+ * Зеленский Н. aka Nike Z.
+ * Пулы соединений основной БД и реплик. Транзакции @Transactional(readOnly = true)
+ * получают соединение с реплики (по кругу среди доступных), остальные запросы -
+ * с основной БД. Признак readOnly известен только после начала транзакции, поэтому
+ * источник оборачивается в {@link LazyConnectionDataSourceProxy}: соединение
+ * берётся при первом запросе к БД.
+ * Реплика, не выдавшая соединение, считается недоступной до следующей успешной
+ * проверки {@link #checkReplicas()}, чтение тогда идёт на основную БД.
+ * Чтение своих записей: после транзакции записи пользователь читает с основной БД
+ * в течение окна read-your-writes, пока реплики догоняют.
+ * Метрики: auth.datasource.route (target, reason=write|read|pinned|fallback),
+ * auth.datasource.replica.healthy (replica) и hikaricp.* каждого пула. Реестр метрик
+ * сам связывает источники соединений, поэтому метрики подключаются через {@link MeterBinder}.
+ */
+public class ReplicaRoutingDataSource extends AbstractDataSource
+        implements MeterBinder, AutoCloseable {
+    private static final Logger LOGGER =
+            LoggerFactory.getLogger(ReplicaRoutingDataSource.class.getSimpleName());
+
+    private final CompositeMeterRegistry meters = new CompositeMeterRegistry();
+    private final HikariDataSource primary;
+    private final List<Replica> replicas;
+    private final Cache<String, Boolean> pinned;
+    private final AtomicInteger next = new AtomicInteger();
+    private final Counter writes;
+    private final Counter pinnedReads;
+    private final Counter fallbacks;
+
+    /**
+     * Конструктор
+     * @param primary пул основной БД
+     * @param replicas пулы реплик
+     * @param readYourWrites сколько после записи пользователь читает с основной БД,
+     *                       0 - не закреплять
+     */
+    public ReplicaRoutingDataSource(HikariDataSource primary, List<HikariDataSource> replicas,
+                                    Duration readYourWrites) {
+        this.primary = primary;
+        this.replicas = IntStream.range(0, replicas.size())
+                .mapToObj(i -> new Replica("replica-" + i, replicas.get(i), meters))
+                .collect(Collectors.toList());
+        this.pinned = readYourWrites.isZero() ? null : Caffeine.newBuilder()
+                .expireAfterWrite(readYourWrites)
+                .build();
+        this.writes = route(meters, "primary", "write");
+        this.pinnedReads = route(meters, "primary", "pinned");
+        this.fallbacks = route(meters, "primary", "fallback");
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        meters.add(registry);
+        track(primary, registry);
+        replicas.forEach(replica -> track(replica.pool, registry));
+    }
+
+    /**
+     * Hikari принимает метрики пула один раз
+     */
+    private static void track(HikariDataSource pool, MeterRegistry registry) {
+        if (pool.getMetricsTrackerFactory() == null) {
+            pool.setMetricsTrackerFactory(new MicrometerMetricsTrackerFactory(registry));
+        }
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        if (!TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            if (TransactionSynchronizationManager.isActualTransactionActive()) {
+                pin();
+            }
+            writes.increment();
+            return primary.getConnection();
+        }
+        if (isPinned()) {
+            pinnedReads.increment();
+            return primary.getConnection();
+        }
+        int start = Math.floorMod(next.getAndIncrement(), Math.max(replicas.size(), 1));
+        for (int i = 0; i < replicas.size(); i++) {
+            Replica replica = replicas.get((start + i) % replicas.size());
+            if (!replica.healthy) {
+                continue;
+            }
+            try {
+                Connection connection = replica.pool.getConnection();
+                replica.reads.increment();
+                return connection;
+            } catch (SQLException e) {
+                replica.down(e);
+            }
+        }
+        fallbacks.increment();
+        return primary.getConnection();
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        throw new SQLFeatureNotSupportedException("Credentials are set per pool");
+    }
+
+    /**
+     * Проверка реплик: недоступная реплика возвращается в работу, когда
+     * снова выдаёт рабочее соединение
+     */
+    @Scheduled(fixedDelayString = "${datasource.replica.health-check-period:PT5S}",
+            initialDelayString = "${datasource.replica.health-check-period:PT5S}")
+    public void checkReplicas() {
+        for (Replica replica : replicas) {
+            try (Connection connection = replica.pool.getConnection()) {
+                if (!connection.isValid(1)) {
+                    throw new SQLException("Connection is not valid");
+                }
+                if (!replica.healthy) {
+                    LOGGER.info("Replica {} is back", replica.name);
+                    replica.healthy = true;
+                }
+            } catch (SQLException e) {
+                replica.down(e);
+            }
+        }
+    }
+
+    /**
+     * @return количество доступных реплик
+     */
+    public int healthyReplicas() {
+        return (int) replicas.stream().filter(replica -> replica.healthy).count();
+    }
+
+    @Override
+    public void close() {
+        replicas.forEach(replica -> replica.pool.close());
+        primary.close();
+    }
+
+    private void pin() {
+        String user = currentUser();
+        if (pinned != null && user != null) {
+            pinned.put(user, Boolean.TRUE);
+        }
+    }
+
+    private boolean isPinned() {
+        String user = currentUser();
+        return pinned != null && user != null && pinned.getIfPresent(user) != null;
+    }
+
+    private static String currentUser() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        return authentication == null ? null : authentication.getName();
+    }
+
+    private static Counter route(MeterRegistry registry, String target, String reason) {
+        return Counter.builder("auth.datasource.route")
+                .description("Connections handed out by the replica routing data source")
+                .tag("target", target)
+                .tag("reason", reason)
+                .register(registry);
+    }
+
+    /**
+     * Пул реплики и её состояние
+     */
+    private static final class Replica {
+        private final String name;
+        private final HikariDataSource pool;
+        private final Counter reads;
+        private volatile boolean healthy = true;
+
+        Replica(String name, HikariDataSource pool, MeterRegistry registry) {
+            this.name = name;
+            this.pool = pool;
+            this.reads = route(registry, name, "read");
+            Gauge.builder("auth.datasource.replica.healthy", this, r -> r.healthy ? 1 : 0)
+                    .description("1 - the replica takes reads, 0 - reads go to the primary")
+                    .tag("replica", name)
+                    .register(registry);
+        }
+
+        void down(SQLException e) {
+            if (healthy) {
+                LOGGER.warn("Replica {} is down, reads go to the primary: {}",
+                        name, e.getMessage());
+                healthy = false;
+            }
+        }
+    }
+}
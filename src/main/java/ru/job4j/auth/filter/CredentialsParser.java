@@ -0,0 +1,141 @@
+package ru.job4j.auth.filter;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+import ru.job4j.auth.crypto.RawPassword;
+import ru.job4j.auth.util.ResultTimers;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Arrays;
+
+/**
+ * Зеленский Н. aka Nike Z.
+ * Разбор тела запроса входа {"login": ..., "password": ...} потоковым парсером общего
+ * JsonFactory приложения, без привязки к сущности Person. Остальные поля пропускаются.
+ * Тело читается не больше login.body.max-size байт в массив, который затем
+ * заполняется нулями; пароль попадает в {@link RawPassword}, минуя String.
+ * Время разбора - таймер auth.login.parse (result=success|malformed|too_large).
+ */
+@Component
+public class CredentialsParser {
+    private static final String LOGIN = "login";
+    private static final String PASSWORD = "password";
+
+    private final JsonFactory factory;
+    private final int maxBodySize;
+    private final ResultTimers timers;
+
+    /**
+     * Конструктор
+     * @param mapper общий ObjectMapper приложения, используется его JsonFactory
+     * @param maxBodySize наибольший размер тела запроса входа
+     * @param registry реестр метрик, таймер auth.login.parse
+     */
+    public CredentialsParser(ObjectMapper mapper,
+                             @Value("${login.body.max-size:1KB}") DataSize maxBodySize,
+                             MeterRegistry registry) {
+        this.factory = mapper.getFactory();
+        this.maxBodySize = Math.toIntExact(maxBodySize.toBytes());
+        this.timers = new ResultTimers(registry, "auth.login.parse", "Credential parsing",
+                Tags.empty(), "success", "malformed", "too_large");
+    }
+
+    /**
+     * Наибольший размер тела запроса входа
+     * @return количество байт
+     */
+    public int getMaxBodySize() {
+        return maxBodySize;
+    }
+
+    /**
+     * Разобрать тело запроса входа
+     * @param in тело запроса
+     * @param contentLength длина тела из заголовка Content-Length, -1 - неизвестна
+     * @return неаутентифицированный токен, пароль - {@link RawPassword};
+     * после проверки токен нужно стереть eraseCredentials()
+     * @throws MalformedCredentialsException если тело не разбирается или слишком большое
+     */
+    public UsernamePasswordAuthenticationToken parse(InputStream in, long contentLength) {
+        long start = timers.start();
+        String result = "success";
+        try {
+            return read(in, contentLength);
+        } catch (MalformedCredentialsException e) {
+            result = e.getStatus() == HttpStatus.PAYLOAD_TOO_LARGE ? "too_large" : "malformed";
+            throw e;
+        } finally {
+            timers.stop(start, result);
+        }
+    }
+
+    private UsernamePasswordAuthenticationToken read(InputStream in, long contentLength) {
+        if (contentLength > maxBodySize) {
+            throw MalformedCredentialsException.tooLarge(maxBodySize);
+        }
+        byte[] body = new byte[contentLength >= 0 ? (int) contentLength : maxBodySize];
+        try {
+            int length = in.readNBytes(body, 0, body.length);
+            if (length == maxBodySize && in.read() != -1) {
+                throw MalformedCredentialsException.tooLarge(maxBodySize);
+            }
+            return parse(body, length);
+        } catch (IOException e) {
+            throw MalformedCredentialsException.malformed(e.getMessage());
+        } finally {
+            Arrays.fill(body, (byte) 0);
+        }
+    }
+
+    private UsernamePasswordAuthenticationToken parse(byte[] body, int length)
+            throws IOException {
+        String login = null;
+        char[] password = null;
+        try (JsonParser parser = factory.createParser(body, 0, length)) {
+            if (parser.nextToken() != JsonToken.START_OBJECT) {
+                throw MalformedCredentialsException.malformed("Credentials must be an object");
+            }
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String field = parser.getCurrentName();
+                JsonToken value = parser.nextToken();
+                if (value == JsonToken.VALUE_STRING && LOGIN.equals(field)) {
+                    login = parser.getText();
+                } else if (value == JsonToken.VALUE_STRING && PASSWORD.equals(field)) {
+                    wipe(password);
+                    int offset = parser.getTextOffset();
+                    password = Arrays.copyOfRange(parser.getTextCharacters(),
+                            offset, offset + parser.getTextLength());
+                } else {
+                    parser.skipChildren();
+                }
+            }
+            if (parser.currentToken() != JsonToken.END_OBJECT
+                    || login == null || password == null) {
+                throw MalformedCredentialsException.malformed(
+                        "login and password are required");
+            }
+            UsernamePasswordAuthenticationToken token =
+                    new UsernamePasswordAuthenticationToken(login, new RawPassword(password));
+            password = null;
+            return token;
+        } finally {
+            wipe(password);
+        }
+    }
+
+    private static void wipe(char[] chars) {
+        if (chars != null) {
+            Arrays.fill(chars, '\0');
+        }
+    }
+}
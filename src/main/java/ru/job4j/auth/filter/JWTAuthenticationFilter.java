@@ -1,73 +1,167 @@
 package ru.job4j.auth.filter;
 
-import com.auth0.jwt.JWT;
-import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
 import org.springframework.security.authentication.AuthenticationManager;
+import org.springframework.security.authentication.BadCredentialsException;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.AuthenticationException;
 import org.springframework.security.core.userdetails.User;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter;
-import ru.job4j.auth.model.Person;
+import ru.job4j.auth.crypto.PasswordHashingRejectedException;
+import ru.job4j.auth.jfr.LoginEvent;
+import ru.job4j.auth.ratelimit.LoginRateLimitedException;
+import ru.job4j.auth.ratelimit.LoginRateLimiter;
+import ru.job4j.auth.service.RefreshTokenService;
+import ru.job4j.auth.util.ResultTimers;
 import javax.servlet.FilterChain;
 import javax.servlet.ServletException;
 import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
 import java.io.IOException;
-import java.util.ArrayList;
-import java.util.Date;
-
-import static com.auth0.jwt.algorithms.Algorithm.HMAC512;
 
 /**
  * Класс фильтра для регистрации пользователя
  */
 public class JWTAuthenticationFilter extends UsernamePasswordAuthenticationFilter {
 
-    public static final String SECRET = "SecretKeyToGenJWTs";
-    public static final long EXPIRATION_TIME = 864_000_000; /* 10 days */
     public static final String TOKEN_PREFIX = "Bearer ";
     public static final String HEADER_STRING = "Authorization";
     public static final String SIGN_UP_URL = "/person/sign-up";
+    public static final String REFRESH_HEADER = "Refresh-Token";
+    public static final String REFRESH_URL = "/person/token/refresh";
 
     private final AuthenticationManager auth;
+    private final CredentialsParser parser;
+    private final JwtTokens tokens;
+    private final RefreshTokenService refreshTokens;
+    private final LoginRateLimiter limiter;
+    private final ResultTimers timers;
 
     /**
      * Конструктор.
      * @param auth тип {@link org.springframework.security.authentication.AuthenticationManager}
+     * @param parser разбор тела запроса входа
+     * @param tokens выпуск токенов
+     * @param refreshTokens выпуск токенов обновления
+     * @param limiter ограничение попыток входа по адресу и логину
+     * @param registry реестр метрик, таймер auth.login.authenticate
      */
-    public JWTAuthenticationFilter(AuthenticationManager auth) {
+    public JWTAuthenticationFilter(AuthenticationManager auth, CredentialsParser parser,
+                                   JwtTokens tokens, RefreshTokenService refreshTokens,
+                                   LoginRateLimiter limiter, MeterRegistry registry) {
         this.auth = auth;
+        this.parser = parser;
+        this.tokens = tokens;
+        this.refreshTokens = refreshTokens;
+        this.limiter = limiter;
+        this.timers = authenticateTimers(registry);
     }
 
+    /**
+     * Пароль стирается после проверки при любом исходе
+     */
     @Override
     public Authentication attemptAuthentication(HttpServletRequest req, HttpServletResponse res)
             throws AuthenticationException {
+        limiter.checkAddress(req.getRemoteAddr());
+        UsernamePasswordAuthenticationToken credits = parse(req);
+        try {
+            limiter.checkLogin(credits.getName());
+            return authenticate(credits);
+        } finally {
+            credits.eraseCredentials();
+        }
+    }
+
+    private Authentication authenticate(UsernamePasswordAuthenticationToken credits) {
+        LoginEvent event = new LoginEvent();
+        event.begin();
+        long start = timers.start();
+        String result = "success";
         try {
-            Person credits = new ObjectMapper()
-                    .readValue(req.getInputStream(), Person.class);
+            return auth.authenticate(credits);
+        } catch (AuthenticationException e) {
+            result = reason(e);
+            throw e;
+        } finally {
+            timers.stop(start, result);
+            event.end(credits.getName(), result);
+        }
+    }
 
-            return auth.authenticate(
-                    new UsernamePasswordAuthenticationToken(
-                            credits.getLogin(),
-                            credits.getPassword(),
-                            new ArrayList<>())
-            );
+    private UsernamePasswordAuthenticationToken parse(HttpServletRequest req) {
+        try {
+            return parser.parse(req.getInputStream(), req.getContentLengthLong());
         } catch (IOException e) {
-            throw new RuntimeException(e);
+            throw MalformedCredentialsException.malformed(e.getMessage());
+        }
+    }
+
+    /**
+     * Таймеры auth.login.authenticate по результатам {@link #reason}, общие с
+     * {@link JWTAuthenticationWebFilter}
+     */
+    static ResultTimers authenticateTimers(MeterRegistry registry) {
+        return new ResultTimers(registry, "auth.login.authenticate", "Credential check",
+                Tags.empty(), "success", "overloaded", "bad_credentials", "error");
+    }
+
+    private static String reason(AuthenticationException e) {
+        if (e instanceof PasswordHashingRejectedException) {
+            return "overloaded";
+        }
+        if (e instanceof BadCredentialsException) {
+            return "bad_credentials";
         }
+        return "error";
     }
 
+    /**
+     * Короткоживущий токен доступа - в заголовке Authorization,
+     * токен обновления для {@link #REFRESH_URL} - в заголовке Refresh-Token
+     */
     @Override
     protected void successfulAuthentication(
             HttpServletRequest req,
             HttpServletResponse res,
             FilterChain chain,
             Authentication auth) throws IOException, ServletException {
-        String token = JWT.create()
-                .withSubject(((User) auth.getPrincipal()).getUsername())
-                .withExpiresAt(new Date(System.currentTimeMillis() + EXPIRATION_TIME))
-                .sign(HMAC512(SECRET.getBytes()));
-        res.addHeader(HEADER_STRING, TOKEN_PREFIX + token);
+        String login = ((User) auth.getPrincipal()).getUsername();
+        res.addHeader(HEADER_STRING, TOKEN_PREFIX + tokens.sign(login));
+        res.addHeader(REFRESH_HEADER, refreshTokens.issue(login));
+    }
+
+    /**
+     * Перегрузка пула хеширования паролей - 503 с Retry-After,
+     * превышение частоты попыток - 429 с Retry-After,
+     * тело не разбирается - 400, слишком большое - 413,
+     * остальные ошибки входа обрабатываются как раньше
+     */
+    @Override
+    protected void unsuccessfulAuthentication(HttpServletRequest req,
+                                              HttpServletResponse res,
+                                              AuthenticationException failed)
+            throws IOException, ServletException {
+        if (failed instanceof PasswordHashingRejectedException) {
+            res.setStatus(HttpStatus.SERVICE_UNAVAILABLE.value());
+            res.setHeader(HttpHeaders.RETRY_AFTER, String.valueOf(
+                    ((PasswordHashingRejectedException) failed).getRetryAfterSeconds()));
+            return;
+        }
+        if (failed instanceof LoginRateLimitedException) {
+            res.setStatus(HttpStatus.TOO_MANY_REQUESTS.value());
+            res.setHeader(HttpHeaders.RETRY_AFTER, String.valueOf(
+                    ((LoginRateLimitedException) failed).getRetryAfterSeconds()));
+            return;
+        }
+        if (failed instanceof MalformedCredentialsException) {
+            res.setStatus(((MalformedCredentialsException) failed).getStatus().value());
+            return;
+        }
+        super.unsuccessfulAuthentication(req, res, failed);
     }
 }
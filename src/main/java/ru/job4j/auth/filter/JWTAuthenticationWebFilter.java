@@ -0,0 +1,166 @@
+package ru.job4j.auth.filter;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.core.io.buffer.DataBufferLimitException;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.security.authentication.BadCredentialsException;
+import org.springframework.security.authentication.ReactiveAuthenticationManager;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.AuthenticationException;
+import org.springframework.security.core.CredentialsContainer;
+import org.springframework.security.web.server.authentication.AuthenticationWebFilter;
+import org.springframework.security.web.server.context.NoOpServerSecurityContextRepository;
+import org.springframework.security.web.server.util.matcher.ServerWebExchangeMatchers;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+import ru.job4j.auth.crypto.PasswordHashingRejectedException;
+import ru.job4j.auth.jfr.LoginEvent;
+import ru.job4j.auth.ratelimit.LoginRateLimitedException;
+import ru.job4j.auth.ratelimit.LoginRateLimiter;
+import ru.job4j.auth.service.RefreshTokenService;
+import ru.job4j.auth.util.ResultTimers;
+
+import java.net.InetSocketAddress;
+
+import static ru.job4j.auth.filter.JWTAuthenticationFilter.HEADER_STRING;
+import static ru.job4j.auth.filter.JWTAuthenticationFilter.REFRESH_HEADER;
+import static ru.job4j.auth.filter.JWTAuthenticationFilter.TOKEN_PREFIX;
+
+/**
+ * Зеленский Н. aka Nike Z.
+ * Фильтр входа WebFlux (профиль reactive), вариант {@link JWTAuthenticationFilter}:
+ * POST /login с JSON {"login": ..., "password": ...}, токен - в заголовке Authorization,
+ * токен обновления - в заголовке Refresh-Token.
+ * Ответы: 401 - неверный логин или пароль, 503 с Retry-After - пул хеширования перегружен,
+ * 429 с Retry-After - превышена частота попыток, 400 - тело не разбирается,
+ * 413 - тело больше login.body.max-size. Пароль стирается после проверки.
+ */
+public class JWTAuthenticationWebFilter extends AuthenticationWebFilter {
+    public static final String LOGIN_URL = "/login";
+
+    private final CredentialsParser parser;
+    private final LoginRateLimiter limiter;
+
+    /**
+     * Конструктор.
+     * @param auth менеджер аутентификации
+     * @param parser разбор тела запроса входа
+     * @param tokens выпуск токенов
+     * @param refreshTokens выпуск токенов обновления, запись в БД идёт через JPA
+     *                      на Schedulers.boundedElastic()
+     * @param limiter ограничение попыток входа по адресу и логину
+     * @param registry реестр метрик, таймер auth.login.authenticate
+     */
+    public JWTAuthenticationWebFilter(ReactiveAuthenticationManager auth, CredentialsParser parser,
+                                      JwtTokens tokens, RefreshTokenService refreshTokens,
+                                      LoginRateLimiter limiter, MeterRegistry registry) {
+        super(timed(auth, registry));
+        this.parser = parser;
+        this.limiter = limiter;
+        setRequiresAuthenticationMatcher(
+                ServerWebExchangeMatchers.pathMatchers(HttpMethod.POST, LOGIN_URL));
+        setServerAuthenticationConverter(this::parse);
+        setSecurityContextRepository(NoOpServerSecurityContextRepository.getInstance());
+        setAuthenticationSuccessHandler((webFilterExchange, authentication) ->
+                Mono.fromCallable(() -> refreshTokens.issue(authentication.getName()))
+                        .subscribeOn(Schedulers.boundedElastic())
+                        .doOnNext(refreshToken -> {
+                            HttpHeaders headers =
+                                    webFilterExchange.getExchange().getResponse().getHeaders();
+                            headers.add(HEADER_STRING,
+                                    TOKEN_PREFIX + tokens.sign(authentication.getName()));
+                            headers.add(REFRESH_HEADER, refreshToken);
+                        })
+                        .then());
+        setAuthenticationFailureHandler((webFilterExchange, e) ->
+                unsuccessful(webFilterExchange.getExchange().getResponse(), e));
+    }
+
+    private Mono<Authentication> parse(ServerWebExchange exchange) {
+        InetSocketAddress remote = exchange.getRequest().getRemoteAddress();
+        limiter.checkAddress(remote == null ? "unknown" : remote.getHostString());
+        return DataBufferUtils.join(exchange.getRequest().getBody(), parser.getMaxBodySize())
+                .onErrorMap(DataBufferLimitException.class,
+                        e -> MalformedCredentialsException.tooLarge(parser.getMaxBodySize()))
+                .switchIfEmpty(Mono.error(() ->
+                        MalformedCredentialsException.malformed("Credentials are empty")))
+                .map(buffer -> {
+                    try {
+                        return parser.parse(buffer.asInputStream(), buffer.readableByteCount());
+                    } finally {
+                        DataBufferUtils.release(buffer);
+                    }
+                })
+                .map(credits -> {
+                    try {
+                        limiter.checkLogin(credits.getName());
+                        return credits;
+                    } catch (LoginRateLimitedException e) {
+                        credits.eraseCredentials();
+                        throw e;
+                    }
+                });
+    }
+
+    /**
+     * Замер и событие JFR проверки логина и пароля, как в {@link JWTAuthenticationFilter}
+     */
+    private static ReactiveAuthenticationManager timed(ReactiveAuthenticationManager auth,
+                                                       MeterRegistry registry) {
+        ResultTimers timers = JWTAuthenticationFilter.authenticateTimers(registry);
+        return authentication -> Mono.defer(() -> {
+            LoginEvent event = new LoginEvent();
+            event.begin();
+            long start = timers.start();
+            return auth.authenticate(authentication)
+                    .doOnSuccess(result -> {
+                        timers.stop(start, "success");
+                        event.end(authentication.getName(), "success");
+                    })
+                    .doOnError(e -> {
+                        String result = reason(e);
+                        timers.stop(start, result);
+                        event.end(authentication.getName(), result);
+                    })
+                    .doFinally(signal -> {
+                        if (authentication instanceof CredentialsContainer) {
+                            ((CredentialsContainer) authentication).eraseCredentials();
+                        }
+                    });
+        });
+    }
+
+    private static String reason(Throwable e) {
+        if (e instanceof PasswordHashingRejectedException) {
+            return "overloaded";
+        }
+        if (e instanceof BadCredentialsException) {
+            return "bad_credentials";
+        }
+        return "error";
+    }
+
+    private static Mono<Void> unsuccessful(ServerHttpResponse response,
+                                           AuthenticationException failed) {
+        if (failed instanceof PasswordHashingRejectedException) {
+            response.setStatusCode(HttpStatus.SERVICE_UNAVAILABLE);
+            response.getHeaders().set(HttpHeaders.RETRY_AFTER, String.valueOf(
+                    ((PasswordHashingRejectedException) failed).getRetryAfterSeconds()));
+        } else if (failed instanceof LoginRateLimitedException) {
+            response.setStatusCode(HttpStatus.TOO_MANY_REQUESTS);
+            response.getHeaders().set(HttpHeaders.RETRY_AFTER, String.valueOf(
+                    ((LoginRateLimitedException) failed).getRetryAfterSeconds()));
+        } else if (failed instanceof MalformedCredentialsException) {
+            response.setStatusCode(((MalformedCredentialsException) failed).getStatus());
+        } else {
+            response.setStatusCode(HttpStatus.UNAUTHORIZED);
+        }
+        return response.setComplete();
+    }
+}
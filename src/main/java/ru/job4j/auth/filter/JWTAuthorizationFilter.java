@@ -1,11 +1,15 @@
 package ru.job4j.auth.filter;
 
-import com.auth0.jwt.JWT;
-import com.auth0.jwt.algorithms.Algorithm;
+import com.auth0.jwt.exceptions.JWTVerificationException;
+import com.auth0.jwt.interfaces.DecodedJWT;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpHeaders;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.web.authentication.www.BasicAuthenticationFilter;
+import ru.job4j.auth.service.TokenRevocationService;
 
 import javax.servlet.FilterChain;
 import javax.servlet.ServletException;
@@ -15,16 +19,33 @@ import java.io.IOException;
 import java.util.ArrayList;
 
 import static ru.job4j.auth.filter.JWTAuthenticationFilter.HEADER_STRING;
-import static ru.job4j.auth.filter.JWTAuthenticationFilter.SECRET;
 import static ru.job4j.auth.filter.JWTAuthenticationFilter.TOKEN_PREFIX;
 
 /**
- * Фильтр авторизации
+ * Фильтр авторизации.
+ * Отозванный токен не аутентифицирует запрос, ответ 403.
+ * Поддельный или истёкший токен - ответ 401 с заголовком
+ * WWW-Authenticate: Bearer error="invalid_token" (RFC 6750), клиент обновляет токен.
+ * Проверенный токен {@link DecodedJWT} сохраняется в details аутентификации.
  */
 public class JWTAuthorizationFilter extends BasicAuthenticationFilter {
+    private static final Logger LOGGER =
+            LoggerFactory.getLogger(JWTAuthorizationFilter.class.getSimpleName());
+    private static final String INVALID_TOKEN = "Bearer error=\"invalid_token\"";
+    private final JwtTokens tokens;
+    private final TokenRevocationService revocations;
 
-    public JWTAuthorizationFilter(AuthenticationManager authManager) {
+    /**
+     * Конструктор.
+     * @param authManager менеджер аутентификации
+     * @param tokens проверка токенов
+     * @param revocations отозванные токены
+     */
+    public JWTAuthorizationFilter(AuthenticationManager authManager, JwtTokens tokens,
+                                  TokenRevocationService revocations) {
         super(authManager);
+        this.tokens = tokens;
+        this.revocations = revocations;
     }
 
     @Override
@@ -38,7 +59,17 @@ public class JWTAuthorizationFilter extends BasicAuthenticationFilter {
             return;
         }
 
-        UsernamePasswordAuthenticationToken authentication = getAuthentication(req);
+        UsernamePasswordAuthenticationToken authentication;
+        try {
+            authentication = getAuthentication(req);
+        } catch (JWTVerificationException e) {
+            /* an expired access token is routine, no stack trace */
+            LOGGER.debug("Bearer token rejected: {}", e.getMessage());
+            SecurityContextHolder.clearContext();
+            res.setHeader(HttpHeaders.WWW_AUTHENTICATE, INVALID_TOKEN);
+            res.setStatus(HttpServletResponse.SC_UNAUTHORIZED);
+            return;
+        }
 
         SecurityContextHolder.getContext().setAuthentication(authentication);
         chain.doFilter(req, res);
@@ -48,18 +79,19 @@ public class JWTAuthorizationFilter extends BasicAuthenticationFilter {
         String token = request.getHeader(HEADER_STRING);
         if (token != null) {
             /* parse the token. */
-            String user = JWT.require(Algorithm.HMAC512(SECRET.getBytes()))
-                    .build()
-                    .verify(token.replace(TOKEN_PREFIX, ""))
-                    .getSubject();
+            DecodedJWT jwt = tokens.verify(token.substring(TOKEN_PREFIX.length()));
+            String user = jwt.getSubject();
 
-            if (user != null) {
-                return new UsernamePasswordAuthenticationToken(user, null, new ArrayList<>());
+            /* the Bloom filter answers most tokens without a transaction */
+            if (user != null && !(revocations.mightBeRevoked(jwt.getId())
+                    && revocations.isRevoked(jwt.getId()))) {
+                UsernamePasswordAuthenticationToken authentication =
+                        new UsernamePasswordAuthenticationToken(user, null, new ArrayList<>());
+                authentication.setDetails(jwt);
+                return authentication;
             }
             return null;
         }
         return null;
     }
 }
-
-
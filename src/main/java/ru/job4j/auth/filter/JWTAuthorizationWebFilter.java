@@ -0,0 +1,84 @@
+package ru.job4j.auth.filter;
+
+import com.auth0.jwt.exceptions.JWTVerificationException;
+import com.auth0.jwt.interfaces.DecodedJWT;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.ReactiveSecurityContextHolder;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.server.WebFilter;
+import org.springframework.web.server.WebFilterChain;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+import ru.job4j.auth.service.TokenRevocationService;
+
+import java.util.ArrayList;
+import java.util.Optional;
+
+import static ru.job4j.auth.filter.JWTAuthenticationFilter.HEADER_STRING;
+import static ru.job4j.auth.filter.JWTAuthenticationFilter.TOKEN_PREFIX;
+
+/**
+ * Зеленский Н. aka Nike Z.
+ * Фильтр авторизации WebFlux (профиль reactive), вариант {@link JWTAuthorizationFilter}.
+ * Токен из кэша проверенных токенов берётся в потоке event loop. Проверка подписи
+ * ES256 при промахе кэша - около миллисекунды процессора, поэтому выполняется
+ * на Schedulers.boundedElastic() и не задерживает остальные соединения event loop.
+ * С недействительным или отозванным токеном запрос продолжается
+ * без аутентификации и получает 403. Отзыв проверяется фильтром Блума в памяти,
+ * только при совпадении фильтра запрос к БД выполняется на Schedulers.boundedElastic().
+ */
+public class JWTAuthorizationWebFilter implements WebFilter {
+    private final JwtTokens tokens;
+    private final TokenRevocationService revocations;
+
+    /**
+     * Конструктор.
+     * @param tokens проверка токенов
+     * @param revocations отозванные токены
+     */
+    public JWTAuthorizationWebFilter(JwtTokens tokens, TokenRevocationService revocations) {
+        this.tokens = tokens;
+        this.revocations = revocations;
+    }
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, WebFilterChain chain) {
+        String header = exchange.getRequest().getHeaders().getFirst(HEADER_STRING);
+        if (header == null || !header.startsWith(TOKEN_PREFIX)) {
+            return chain.filter(exchange);
+        }
+        String token = header.substring(TOKEN_PREFIX.length());
+        DecodedJWT cached = tokens.cached(token);
+        if (cached != null) {
+            return authorized(exchange, chain, cached);
+        }
+        return Mono.fromCallable(() -> Optional.of(tokens.verifyAndCache(token)))
+                .subscribeOn(Schedulers.boundedElastic())
+                .onErrorReturn(JWTVerificationException.class, Optional.empty())
+                .flatMap(jwt -> jwt.isPresent()
+                        ? authorized(exchange, chain, jwt.get()) : chain.filter(exchange));
+    }
+
+    private Mono<Void> authorized(ServerWebExchange exchange, WebFilterChain chain,
+                                  DecodedJWT jwt) {
+        if (jwt.getSubject() == null) {
+            return chain.filter(exchange);
+        }
+        if (!revocations.mightBeRevoked(jwt.getId())) {
+            return authenticated(exchange, chain, jwt);
+        }
+        return Mono.fromCallable(() -> revocations.isRevoked(jwt.getId()))
+                .subscribeOn(Schedulers.boundedElastic())
+                .flatMap(revoked -> revoked
+                        ? chain.filter(exchange) : authenticated(exchange, chain, jwt));
+    }
+
+    private static Mono<Void> authenticated(ServerWebExchange exchange, WebFilterChain chain,
+                                            DecodedJWT jwt) {
+        UsernamePasswordAuthenticationToken authentication =
+                new UsernamePasswordAuthenticationToken(jwt.getSubject(), null, new ArrayList<>());
+        authentication.setDetails(jwt);
+        return chain.filter(exchange)
+                .contextWrite(ReactiveSecurityContextHolder.withAuthentication(authentication));
+    }
+}
@@ -0,0 +1,149 @@
+package ru.job4j.auth.filter;
+
+import com.auth0.jwt.JWT;
+import com.auth0.jwt.JWTVerifier;
+import com.auth0.jwt.algorithms.Algorithm;
+import com.auth0.jwt.exceptions.JWTDecodeException;
+import com.auth0.jwt.exceptions.JWTVerificationException;
+import com.auth0.jwt.exceptions.SignatureVerificationException;
+import com.auth0.jwt.exceptions.TokenExpiredException;
+import com.auth0.jwt.interfaces.DecodedJWT;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import ru.job4j.auth.cache.TokenCache;
+import ru.job4j.auth.crypto.ES256Algorithm;
+import ru.job4j.auth.crypto.JwtKeyRing;
+import ru.job4j.auth.jfr.TokenVerificationEvent;
+import ru.job4j.auth.util.ResultTimers;
+
+import java.time.Duration;
+import java.util.Date;
+import java.util.UUID;
+import java.util.function.Function;
+
+/**
+ * Зеленский Н. aka Nike Z.
+ * Выпуск и проверка JWT, общие для фильтров сервлетов и WebFlux.
+ * Подпись ES256 ({@link ES256Algorithm}) ключами {@link JwtKeyRing}, открытые ключи
+ * публикуются в /.well-known/jwks.json, так что другие сервисы проверяют токены сами.
+ * Токен доступа живёт jwt.access-token.ttl, новый выдаётся по токену обновления
+ * ({@link ru.job4j.auth.service.RefreshTokenService}) без проверки пароля.
+ */
+@Component
+public class JwtTokens {
+    private final Algorithm algorithm;
+    private final Function<String, DecodedJWT> verifier;
+    private final TokenCache tokens;
+    private final ResultTimers hits;
+    private final ResultTimers misses;
+    private final long ttlMillis;
+
+    /**
+     * Конструктор
+     * @param keys ключи подписи
+     * @param tokens тип {@link ru.job4j.auth.cache.TokenCache} кэш проверенных токенов
+     * @param registry реестр метрик, таймер auth.jwt.verify
+     * @param ttl время жизни токена доступа
+     */
+    public JwtTokens(JwtKeyRing keys, TokenCache tokens, MeterRegistry registry,
+                     @Value("${jwt.access-token.ttl:PT15M}") Duration ttl) {
+        this.algorithm = new ES256Algorithm(keys);
+        JWTVerifier jwtVerifier = JWT.require(algorithm).build();
+        this.verifier = jwtVerifier::verify;
+        this.tokens = tokens;
+        this.hits = timers(registry, "hit");
+        this.misses = timers(registry, "miss");
+        this.ttlMillis = ttl.toMillis();
+    }
+
+    /**
+     * Выпустить токен, claim jti - случайный UUID для отзыва токена,
+     * заголовок kid - идентификатор ключа подписи
+     * @param subject логин пользователя
+     * @return подписанный токен без префикса "Bearer "
+     */
+    public String sign(String subject) {
+        return JWT.create()
+                .withSubject(subject)
+                .withJWTId(UUID.randomUUID().toString())
+                .withExpiresAt(new Date(System.currentTimeMillis() + ttlMillis))
+                .sign(algorithm);
+    }
+
+    /**
+     * Проверка токена через кэш с замером времени и событием JFR.
+     * Теги: cache - hit/miss, result - success или причина отказа.
+     * Попадание в кэш не создаёт объектов, кроме ключа кэша (SHA-256 токена).
+     * @param token токен без префикса "Bearer "
+     * @return тип {@link com.auth0.jwt.interfaces.DecodedJWT} проверенный токен
+     * @throws JWTVerificationException если токен не прошёл проверку
+     */
+    public DecodedJWT verify(String token) {
+        DecodedJWT jwt = cached(token);
+        return jwt != null ? jwt : verifyAndCache(token);
+    }
+
+    /**
+     * Только поиск в кэше проверенных токенов, без проверки подписи.
+     * Дёшево, подходит для потока event loop.
+     * @param token токен без префикса "Bearer "
+     * @return тип {@link com.auth0.jwt.interfaces.DecodedJWT} проверенный токен,
+     * null - токена нет в кэше, нужен {@link #verifyAndCache}
+     */
+    public DecodedJWT cached(String token) {
+        TokenVerificationEvent event = new TokenVerificationEvent();
+        event.begin();
+        long start = hits.start();
+        DecodedJWT jwt = tokens.getIfPresent(token);
+        if (jwt != null) {
+            hits.stop(start, "success");
+            event.end(jwt.getSubject(), true, "success");
+        }
+        return jwt;
+    }
+
+    /**
+     * Проверка подписи ES256 (около миллисекунды процессора) и запись в кэш.
+     * @param token токен без префикса "Bearer "
+     * @return тип {@link com.auth0.jwt.interfaces.DecodedJWT} проверенный токен
+     * @throws JWTVerificationException если токен не прошёл проверку
+     */
+    public DecodedJWT verifyAndCache(String token) {
+        TokenVerificationEvent event = new TokenVerificationEvent();
+        event.begin();
+        long start = misses.start();
+        DecodedJWT jwt = null;
+        String result = "success";
+        try {
+            jwt = tokens.get(token, verifier);
+            return jwt;
+        } catch (JWTVerificationException e) {
+            result = reason(e);
+            throw e;
+        } finally {
+            misses.stop(start, result);
+            event.end(jwt == null ? null : jwt.getSubject(), false, result);
+        }
+    }
+
+    private static ResultTimers timers(MeterRegistry registry, String cache) {
+        return new ResultTimers(registry, "auth.jwt.verify", "JWT parsing and verification",
+                Tags.of("cache", cache), "success", "expired", "bad_signature", "malformed",
+                "invalid");
+    }
+
+    private static String reason(JWTVerificationException e) {
+        if (e instanceof TokenExpiredException) {
+            return "expired";
+        }
+        if (e instanceof SignatureVerificationException) {
+            return "bad_signature";
+        }
+        if (e instanceof JWTDecodeException) {
+            return "malformed";
+        }
+        return "invalid";
+    }
+}
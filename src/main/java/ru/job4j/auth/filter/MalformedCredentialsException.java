@@ -0,0 +1,45 @@
+package ru.job4j.auth.filter;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.security.core.AuthenticationException;
+
+/**
+ * Тело запроса входа не разбирается (ответ 400) или больше допустимого (ответ 413).
+ * Бросается до чтения пользователя из БД и проверки BCrypt.
+ */
+public class MalformedCredentialsException extends AuthenticationException {
+    private final HttpStatus status;
+
+    private MalformedCredentialsException(String message, HttpStatus status) {
+        super(message);
+        this.status = status;
+    }
+
+    /**
+     * Тело не JSON-объект с полями login и password
+     * @param message причина
+     * @return исключение с ответом 400
+     */
+    public static MalformedCredentialsException malformed(String message) {
+        return new MalformedCredentialsException(message, HttpStatus.BAD_REQUEST);
+    }
+
+    /**
+     * Тело больше login.body.max-size
+     * @param maxBodySize наибольший размер тела в байтах
+     * @return исключение с ответом 413
+     */
+    public static MalformedCredentialsException tooLarge(int maxBodySize) {
+        return new MalformedCredentialsException(
+                "Credentials are larger than " + maxBodySize + " bytes",
+                HttpStatus.PAYLOAD_TOO_LARGE);
+    }
+
+    /**
+     * Код ответа
+     * @return 400 или 413
+     */
+    public HttpStatus getStatus() {
+        return status;
+    }
+}
@@ -3,11 +3,16 @@ package ru.job4j.auth.handlers;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.MethodArgumentNotValidException;
 import org.springframework.web.bind.annotation.ControllerAdvice;
 import org.springframework.web.bind.annotation.ExceptionHandler;
+import ru.job4j.auth.crypto.PasswordHashingRejectedException;
 import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
 import java.io.IOException;
@@ -18,6 +23,7 @@ import java.util.stream.Collectors;
 /**
  * Класс обработчика NullPointerException исключения для всех сервисов
  */
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
 @ControllerAdvice
 public class GlobalExceptionHandler {
 
@@ -56,7 +62,7 @@ public class GlobalExceptionHandler {
                             put("details", e.getMessage());
                         }
                     }));
-        LOGGER.error(e.getMessage());
+        LOGGER.error("Empty fields: {}", e.getMessage());
     }
 
     /**
@@ -79,4 +85,44 @@ public class GlobalExceptionHandler {
                         .collect(Collectors.toList())
         );
     }
-}
\ No newline at end of file
+
+    /**
+     * Обработчик исключения DataIntegrityViolationException для всех сервисов.
+     * Возникает при нарушении ограничений БД, например при повторе логина
+     * (уникальный индекс person_login_uindex).
+     * @param e исключение тип {@link org.springframework.dao.DataIntegrityViolationException}
+     * @return ответ на запрос со статусом 409, тип {@link ResponseEntity<>}
+     */
+    @ExceptionHandler(DataIntegrityViolationException.class)
+    public ResponseEntity<?> handleConflict(DataIntegrityViolationException e) {
+        LOGGER.error("Conflict: {}", e.getMostSpecificCause().getMessage());
+        return ResponseEntity.status(HttpStatus.CONFLICT).body(
+                Map.of("message", "Person conflicts with existing data, login must be unique"));
+    }
+
+    /**
+     * Обработчик исключения OptimisticLockingFailureException для всех сервисов.
+     * Возникает, если запись изменена другим запросом после чтения (версия не совпала).
+     * @param e исключение тип {@link org.springframework.dao.OptimisticLockingFailureException}
+     * @return ответ на запрос со статусом 409, тип {@link ResponseEntity<>}
+     */
+    @ExceptionHandler(OptimisticLockingFailureException.class)
+    public ResponseEntity<?> handleStale(OptimisticLockingFailureException e) {
+        LOGGER.error("Stale version: {}", e.getMessage());
+        return ResponseEntity.status(HttpStatus.CONFLICT).body(
+                Map.of("message", "Person was modified concurrently, reload and retry"));
+    }
+
+    /**
+     * Обработчик перегрузки пула хеширования паролей для всех сервисов
+     * @param e исключение тип {@link ru.job4j.auth.crypto.PasswordHashingRejectedException}
+     * @return ответ на запрос со статусом 503 и заголовком Retry-After
+     */
+    @ExceptionHandler(PasswordHashingRejectedException.class)
+    public ResponseEntity<?> handleOverload(PasswordHashingRejectedException e) {
+        LOGGER.error("Password hashing overloaded: {}", e.getMessage());
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(e.getRetryAfterSeconds()))
+                .body(Map.of("message", e.getMessage()));
+    }
+}
@@ -0,0 +1,85 @@
+package ru.job4j.auth.handlers;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.RestControllerAdvice;
+import org.springframework.web.bind.support.WebExchangeBindException;
+import ru.job4j.auth.crypto.PasswordHashingRejectedException;
+
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * Зеленский Н. aka Nike Z.
+ * Обработчик исключений WebFlux (профиль reactive), ответы как у {@link GlobalExceptionHandler}
+ */
+@RestControllerAdvice
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+public class ReactiveExceptionHandler {
+    private static final Logger LOGGER =
+            LoggerFactory.getLogger(ReactiveExceptionHandler.class.getSimpleName());
+
+    /**
+     * Невалидное тело запроса
+     * @param e исключение тип {@link org.springframework.web.bind.support.WebExchangeBindException}
+     * @return ответ на запрос со статусом 400
+     */
+    @ExceptionHandler(WebExchangeBindException.class)
+    public ResponseEntity<?> handle(WebExchangeBindException e) {
+        return ResponseEntity.badRequest().body(
+                e.getFieldErrors().stream()
+                        .map(f -> Map.of(
+                                f.getField(),
+                                String.format("%s. Actual value: %s",
+                                        f.getDefaultMessage(),
+                                        f.getRejectedValue()
+                                )
+                        ))
+                        .collect(Collectors.toList())
+        );
+    }
+
+    /**
+     * Нарушение ограничений БД, например повтор логина
+     * @param e исключение тип {@link org.springframework.dao.DataIntegrityViolationException}
+     * @return ответ на запрос со статусом 409
+     */
+    @ExceptionHandler(DataIntegrityViolationException.class)
+    public ResponseEntity<?> handleConflict(DataIntegrityViolationException e) {
+        LOGGER.error("Conflict: {}", e.getMostSpecificCause().getMessage());
+        return ResponseEntity.status(HttpStatus.CONFLICT).body(
+                Map.of("message", "Person conflicts with existing data, login must be unique"));
+    }
+
+    /**
+     * Запись изменена другим запросом после чтения
+     * @param e исключение тип {@link org.springframework.dao.OptimisticLockingFailureException}
+     * @return ответ на запрос со статусом 409
+     */
+    @ExceptionHandler(OptimisticLockingFailureException.class)
+    public ResponseEntity<?> handleStale(OptimisticLockingFailureException e) {
+        LOGGER.error("Stale version: {}", e.getMessage());
+        return ResponseEntity.status(HttpStatus.CONFLICT).body(
+                Map.of("message", "Person was modified concurrently, reload and retry"));
+    }
+
+    /**
+     * Перегрузка пула хеширования паролей
+     * @param e исключение тип {@link ru.job4j.auth.crypto.PasswordHashingRejectedException}
+     * @return ответ на запрос со статусом 503 и заголовком Retry-After
+     */
+    @ExceptionHandler(PasswordHashingRejectedException.class)
+    public ResponseEntity<?> handleOverload(PasswordHashingRejectedException e) {
+        LOGGER.error("Password hashing overloaded: {}", e.getMessage());
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(e.getRetryAfterSeconds()))
+                .body(Map.of("message", e.getMessage()));
+    }
+}
@@ -0,0 +1,39 @@
+package ru.job4j.auth.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Зеленский Н. aka Nike Z.
+ * Событие JFR: проверка логина и пароля в JWTAuthenticationFilter.
+ * Длительность события - время аутентификации, включая ожидание пула хеширования.
+ */
+@Name("ru.job4j.auth.Login")
+@Label("Login")
+@Description("Credential check of POST /login")
+@Category({"job4j auth", "Authentication"})
+@StackTrace(false)
+public class LoginEvent extends Event {
+    @Label("Login Hash")
+    private String login;
+
+    @Label("Outcome")
+    private String outcome;
+
+    /**
+     * Завершить событие. Хеш логина считается, только если событие будет записано.
+     * @param login логин пользователя
+     * @param outcome результат: success, bad_credentials, overloaded, error
+     */
+    public void end(String login, String outcome) {
+        if (shouldCommit()) {
+            this.login = LoginHash.of(login);
+            this.outcome = outcome;
+            commit();
+        }
+    }
+}
@@ -0,0 +1,57 @@
+package ru.job4j.auth.jfr;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.SecureRandom;
+
+/**
+ * Зеленский Н. aka Nike Z.
+ * Обезличенный логин для событий JFR: первые 8 байт HMAC-SHA256 в hex.
+ * Ключ HMAC случайный и живёт только в памяти процесса: события одного пользователя
+ * в записи можно связать между собой, но логин не подбирается по словарю из файла .jfr.
+ * Хеши разных запусков сервиса не совпадают.
+ */
+public final class LoginHash {
+    private static final char[] HEX = "0123456789abcdef".toCharArray();
+    private static final int BYTES = 8;
+    private static final String ALGORITHM = "HmacSHA256";
+    private static final SecretKeySpec KEY = key();
+    private static final ThreadLocal<Mac> HMAC = ThreadLocal.withInitial(() -> {
+        try {
+            Mac mac = Mac.getInstance(ALGORITHM);
+            mac.init(KEY);
+            return mac;
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException(e);
+        }
+    });
+
+    private LoginHash() {
+    }
+
+    /**
+     * Хеш логина
+     * @param login логин, может быть null
+     * @return 16 hex символов, null - если логин null
+     */
+    public static String of(String login) {
+        if (login == null) {
+            return null;
+        }
+        byte[] digest = HMAC.get().doFinal(login.getBytes(StandardCharsets.UTF_8));
+        char[] result = new char[BYTES * 2];
+        for (int i = 0; i < BYTES; i++) {
+            result[i * 2] = HEX[(digest[i] >> 4) & 0xF];
+            result[i * 2 + 1] = HEX[digest[i] & 0xF];
+        }
+        return new String(result);
+    }
+
+    private static SecretKeySpec key() {
+        byte[] key = new byte[32];
+        new SecureRandom().nextBytes(key);
+        return new SecretKeySpec(key, ALGORITHM);
+    }
+}
@@ -0,0 +1,66 @@
+package ru.job4j.auth.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Зеленский Н. aka Nike Z.
+ * Событие JFR: вызов метода PersonService с запросами к БД.
+ * Фиксация транзакции, открытой прокси @Transactional, в длительность не входит.
+ */
+@Name("ru.job4j.auth.Person")
+@Label("Person Operation")
+@Description("PersonService call including its database statements")
+@Category({"job4j auth", "Persistence"})
+@StackTrace(false)
+public class PersonEvent extends Event {
+    @Label("Operation")
+    private String operation;
+
+    @Label("Person Id")
+    private int id;
+
+    @Label("Login Hash")
+    private String login;
+
+    @Label("Rows")
+    @Description("Rows read or changed")
+    private int rows;
+
+    @Label("Outcome")
+    private String outcome;
+
+    /**
+     * Начать событие
+     * @param operation имя метода PersonService
+     * @return начатое событие
+     */
+    public static PersonEvent start(String operation) {
+        PersonEvent event = new PersonEvent();
+        event.operation = operation;
+        event.begin();
+        return event;
+    }
+
+    /**
+     * Завершить событие
+     * @param id идентификатор пользователя, 0 - не известен
+     * @param login логин пользователя, null - не известен
+     * @param rows количество прочитанных или изменённых строк
+     * @param outcome результат: success, unchanged, not_found, conflict,
+     *                invalid, error
+     */
+    public void end(int id, String login, int rows, String outcome) {
+        if (shouldCommit()) {
+            this.id = id;
+            this.login = LoginHash.of(login);
+            this.rows = rows;
+            this.outcome = outcome;
+            commit();
+        }
+    }
+}
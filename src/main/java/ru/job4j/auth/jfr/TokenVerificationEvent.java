@@ -0,0 +1,44 @@
+package ru.job4j.auth.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Зеленский Н. aka Nike Z.
+ * Событие JFR: разбор и проверка JWT в JWTAuthorizationFilter.
+ */
+@Name("ru.job4j.auth.TokenVerification")
+@Label("Token Verification")
+@Description("JWT parsing and signature check of an authorized request")
+@Category({"job4j auth", "Authentication"})
+@StackTrace(false)
+public class TokenVerificationEvent extends Event {
+    @Label("Login Hash")
+    private String login;
+
+    @Label("Cached")
+    @Description("Token was taken from the cache of verified tokens")
+    private boolean cached;
+
+    @Label("Outcome")
+    private String outcome;
+
+    /**
+     * Завершить событие
+     * @param login субъект токена, null - если токен не прошёл проверку
+     * @param cached токен взят из кэша
+     * @param outcome результат: success, expired, bad_signature, malformed, invalid
+     */
+    public void end(String login, boolean cached, String outcome) {
+        if (shouldCommit()) {
+            this.login = LoginHash.of(login);
+            this.cached = cached;
+            this.outcome = outcome;
+            commit();
+        }
+    }
+}
@@ -0,0 +1,44 @@
+package ru.job4j.auth.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Зеленский Н. aka Nike Z.
+ * Событие JFR: загрузка пользователя в UserDetailsServiceImpl.loadUserByUsername.
+ */
+@Name("ru.job4j.auth.UserLookup")
+@Label("User Lookup")
+@Description("User details lookup by login through the user cache")
+@Category({"job4j auth", "Authentication"})
+@StackTrace(false)
+public class UserLookupEvent extends Event {
+    @Label("Login Hash")
+    private String login;
+
+    @Label("Cached")
+    @Description("User was taken from the cache without a database query")
+    private boolean cached;
+
+    @Label("Outcome")
+    private String outcome;
+
+    /**
+     * Завершить событие
+     * @param login логин пользователя
+     * @param cached пользователь взят из кэша
+     * @param outcome результат: found, not_found, error
+     */
+    public void end(String login, boolean cached, String outcome) {
+        if (shouldCommit()) {
+            this.login = LoginHash.of(login);
+            this.cached = cached;
+            this.outcome = outcome;
+            commit();
+        }
+    }
+}
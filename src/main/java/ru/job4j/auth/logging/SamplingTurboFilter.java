@@ -0,0 +1,91 @@
+package ru.job4j.auth.logging;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.turbo.TurboFilter;
+import ch.qos.logback.core.spi.FilterReply;
+import org.slf4j.Marker;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Зеленский Н. aka Nike Z.
+ * Выборочное логирование по логгерам: из событий ниже WARN логгера и его потомков
+ * пишется только заданная доля, WARN и ERROR пишутся всегда.
+ * Настройка - logging.sampling в виде логгер:доля через запятую, например
+ * org.hibernate.SQL:0.01,RefreshTokenService:0.1 (логгеры приложения названы простым
+ * именем класса); пусто - без выборки.
+ * Фильтр вызывается на каждый вызов логгера, поэтому доля логгера вычисляется
+ * один раз и кэшируется по имени.
+ */
+public class SamplingTurboFilter extends TurboFilter {
+    private static final double ALL = 1.0;
+
+    private final Map<String, Double> rates = new HashMap<>();
+    private final Map<String, Double> resolved = new ConcurrentHashMap<>();
+    private String sampling = "";
+
+    /**
+     * Доли логгеров, задаётся в logback-spring.xml
+     * @param sampling логгер:доля через запятую, доля от 0 до 1
+     */
+    public void setSampling(String sampling) {
+        this.sampling = sampling == null ? "" : sampling;
+    }
+
+    @Override
+    public void start() {
+        rates.clear();
+        resolved.clear();
+        for (String entry : sampling.split(",")) {
+            if (entry.isBlank()) {
+                continue;
+            }
+            int colon = entry.lastIndexOf(':');
+            if (colon < 1) {
+                addError("Sampling entry must be logger:rate, got " + entry);
+                continue;
+            }
+            try {
+                rates.put(entry.substring(0, colon).trim(),
+                        Double.parseDouble(entry.substring(colon + 1).trim()));
+            } catch (NumberFormatException e) {
+                addError("Sampling rate must be a number, got " + entry, e);
+            }
+        }
+        super.start();
+    }
+
+    @Override
+    public FilterReply decide(Marker marker, Logger logger, Level level, String format,
+                              Object[] params, Throwable t) {
+        if (rates.isEmpty() || format == null || level.isGreaterOrEqual(Level.WARN)
+                || !level.isGreaterOrEqual(logger.getEffectiveLevel())) {
+            return FilterReply.NEUTRAL;
+        }
+        double rate = resolved.computeIfAbsent(logger.getName(), this::rate);
+        return rate >= ALL || ThreadLocalRandom.current().nextDouble() < rate
+                ? FilterReply.NEUTRAL : FilterReply.DENY;
+    }
+
+    /**
+     * Доля ближайшего настроенного предка по имени логгера
+     */
+    private double rate(String name) {
+        String current = name;
+        while (true) {
+            Double rate = rates.get(current);
+            if (rate != null) {
+                return rate;
+            }
+            int dot = current.lastIndexOf('.');
+            if (dot < 0) {
+                return ALL;
+            }
+            current = current.substring(0, dot);
+        }
+    }
+}
@@ -1,25 +1,52 @@
 package ru.job4j.auth.model;
 
+import lombok.AllArgsConstructor;
 import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.DynamicUpdate;
+import org.hibernate.annotations.GenericGenerator;
+import org.hibernate.annotations.NaturalId;
+import org.hibernate.annotations.NaturalIdCache;
+import org.hibernate.annotations.Parameter;
 import ru.job4j.auth.util.Operation;
 
+import javax.persistence.Cacheable;
+import javax.persistence.Column;
 import javax.persistence.Entity;
 import javax.persistence.GeneratedValue;
 import javax.persistence.GenerationType;
 import javax.persistence.Id;
+import javax.persistence.Version;
 import javax.validation.constraints.Min;
 import javax.validation.constraints.NotBlank;
 import javax.validation.constraints.NotNull;
 
 /**
  * Зеленский Н. aka Nike Z.
- * Сущность Person
+ * Сущность Person.
+ * Кэшируется в кэше второго уровня Hibernate вместе с натуральным ключом login,
+ * регионы настраивает {@link ru.job4j.auth.config.SecondLevelCacheConfiguration}.
  */
 @Entity
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE)
+@NaturalIdCache
+@DynamicUpdate
 @Data
+@NoArgsConstructor
+@AllArgsConstructor
 public class Person {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "person_seq")
+    @GenericGenerator(name = "person_seq",
+            strategy = "org.hibernate.id.enhanced.SequenceStyleGenerator",
+            parameters = {
+                    @Parameter(name = "sequence_name", value = "person_seq"),
+                    @Parameter(name = "increment_size", value = "50"),
+                    @Parameter(name = "optimizer", value = "pooled-lo")
+            })
     @Min(value = 1, message = "Id must be more than 0",
             groups = {Operation.OnFind.class, Operation.OnUpdate.class, Operation.OnDelete.class})
     private int id;
@@ -28,11 +55,22 @@ public class Person {
             groups = {Operation.OnCreate.class, Operation.OnUpdate.class})
     @NotBlank(message = "login must be not empty",
             groups = {Operation.OnCreate.class, Operation.OnUpdate.class})
+    @NaturalId(mutable = true)
+    @Column(nullable = false, unique = true)
     private String login;
 
     @NotNull(message = "password must be non null",
             groups = {Operation.OnCreate.class, Operation.OnUpdate.class})
     @NotBlank(message = "password must be not empty",
             groups = {Operation.OnCreate.class, Operation.OnUpdate.class})
+    @Column(nullable = false)
     private String password;
+
+    /**
+     * Версия записи, увеличивается при каждом изменении.
+     * Если передана при обновлении, запись обновится только при совпадении версии.
+     */
+    @Version
+    @Column(nullable = false)
+    private Integer version;
 }
@@ -0,0 +1,93 @@
+package ru.job4j.auth.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Итог пакетного создания {@link ru.job4j.auth.model.Person}
+ */
+@Data
+@NoArgsConstructor
+public class PersonBatchResult {
+    /**
+     * Количество созданных пользователей
+     */
+    private int created;
+
+    /**
+     * Количество отклонённых пользователей
+     */
+    private int rejected;
+
+    /**
+     * Результат по каждому элементу пакета, в порядке элементов
+     */
+    private List<Item> items = new ArrayList<>();
+
+    /**
+     * Добавить результат элемента и обновить счётчики
+     * @param item результат элемента
+     */
+    public void add(Item item) {
+        items.add(item);
+        if (item.getStatus() == Status.CREATED) {
+            created++;
+        } else {
+            rejected++;
+        }
+    }
+
+    /**
+     * Результат элемента пакета
+     */
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Item {
+        /**
+         * Номер элемента в пакете, с 0
+         */
+        private int index;
+
+        private Status status;
+
+        /**
+         * id созданного пользователя, null - если не создан
+         */
+        private Integer id;
+
+        /**
+         * Причины отказа
+         */
+        private List<String> errors;
+    }
+
+    /**
+     * Статус элемента пакета
+     */
+    public enum Status {
+        /**
+         * Создан
+         */
+        CREATED,
+
+        /**
+         * Не прошёл проверку полей
+         */
+        INVALID,
+
+        /**
+         * Логин уже занят или повторяется в пакете
+         */
+        CONFLICT,
+
+        /**
+         * Ошибка при сохранении
+         */
+        FAILED
+    }
+}
@@ -0,0 +1,31 @@
+package ru.job4j.auth.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Страница списка {@link ru.job4j.auth.model.Person}
+ * при постраничном выводе по ключу (keyset pagination по id)
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class PersonPage {
+    /**
+     * Пользователи страницы, упорядоченные по id
+     */
+    private List<Person> items;
+
+    /**
+     * Непрозрачный курсор следующей страницы, null - если страница последняя
+     */
+    private String next;
+
+    /**
+     * true - если после этой страницы есть ещё пользователи
+     */
+    private boolean hasMore;
+}
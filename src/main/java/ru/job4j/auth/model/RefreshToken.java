@@ -0,0 +1,43 @@
+package ru.job4j.auth.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import javax.persistence.Column;
+import javax.persistence.Entity;
+import javax.persistence.Id;
+import java.time.Instant;
+
+/**
+ * Зеленский Н. aka Nike Z.
+ * Токен обновления. Хранится SHA-256 токена, сам токен знает только клиент.
+ * Токены одной цепочки обменов (от одного входа) имеют общий family.
+ * Владелец - id пользователя, логин может достаться другому пользователю после удаления.
+ */
+@Entity
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class RefreshToken {
+    @Id
+    private String tokenHash;
+
+    @Column(nullable = false)
+    private String family;
+
+    @Column(nullable = false)
+    private int personId;
+
+    @Column(nullable = false)
+    private String login;
+
+    @Column(nullable = false)
+    private Instant expiresAt;
+
+    /**
+     * Токен уже обменян на новый, повторное предъявление - признак кражи
+     */
+    @Column(nullable = false)
+    private boolean used;
+}
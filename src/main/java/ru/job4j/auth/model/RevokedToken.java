@@ -0,0 +1,27 @@
+package ru.job4j.auth.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import javax.persistence.Column;
+import javax.persistence.Entity;
+import javax.persistence.Id;
+import java.time.Instant;
+
+/**
+ * Зеленский Н. aka Nike Z.
+ * Отозванный JWT: идентификатор токена и время его истечения.
+ * После истечения запись не нужна - токен и так не пройдёт проверку.
+ */
+@Entity
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class RevokedToken {
+    @Id
+    private String jti;
+
+    @Column(nullable = false)
+    private Instant expiresAt;
+}
@@ -0,0 +1,29 @@
+package ru.job4j.auth.ratelimit;
+
+import org.springframework.security.core.AuthenticationException;
+
+/**
+ * Слишком много попыток входа с адреса или для логина, ответ 429 с Retry-After.
+ * Бросается до чтения пользователя из БД и проверки BCrypt.
+ */
+public class LoginRateLimitedException extends AuthenticationException {
+    private final long retryAfterSeconds;
+
+    /**
+     * Конструктор
+     * @param message сообщение
+     * @param retryAfterSeconds через сколько секунд клиенту стоит повторить запрос
+     */
+    public LoginRateLimitedException(String message, long retryAfterSeconds) {
+        super(message);
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+
+    /**
+     * Значение заголовка Retry-After
+     * @return количество секунд
+     */
+    public long getRetryAfterSeconds() {
+        return retryAfterSeconds;
+    }
+}
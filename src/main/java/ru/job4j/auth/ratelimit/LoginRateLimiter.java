@@ -0,0 +1,114 @@
+package ru.job4j.auth.ratelimit;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Зеленский Н. aka Nike Z.
+ * Ограничение попыток входа по адресу клиента и по логину (свойства login.rate-limit.*).
+ * Проверяется в фильтре входа до чтения пользователя и BCrypt, поэтому перебор паролей
+ * не расходует БД и пул хеширования. Сначала проверяется адрес: отклонённый по адресу
+ * запрос не тратит попытки логина.
+ * Метрики: auth.login.rate.limit (scope=address|login, result=allowed|rejected)
+ * и auth.login.rate.limit.keys - количество отслеживаемых ключей.
+ */
+@Component
+public class LoginRateLimiter {
+    private final boolean enabled;
+    private final Scope address;
+    private final Scope login;
+
+    /**
+     * Конструктор
+     * @param enabled false - ограничение выключено
+     * @param maxKeys сколько адресов и сколько логинов отслеживается одновременно
+     * @param addressCapacity попыток подряд с одного адреса
+     * @param addressRefill время возврата одной попытки адреса
+     * @param loginCapacity попыток подряд для одного логина
+     * @param loginRefill время возврата одной попытки логина
+     * @param registry реестр метрик
+     */
+    public LoginRateLimiter(
+            @Value("${login.rate-limit.enabled:true}") boolean enabled,
+            @Value("${login.rate-limit.max-keys:100000}") long maxKeys,
+            @Value("${login.rate-limit.address.capacity:50}") int addressCapacity,
+            @Value("${login.rate-limit.address.refill-period:PT0.1S}") Duration addressRefill,
+            @Value("${login.rate-limit.login.capacity:10}") int loginCapacity,
+            @Value("${login.rate-limit.login.refill-period:PT6S}") Duration loginRefill,
+            MeterRegistry registry) {
+        this.enabled = enabled;
+        this.address = new Scope("address",
+                new RateLimiter(addressCapacity, addressRefill, maxKeys), registry);
+        this.login = new Scope("login",
+                new RateLimiter(loginCapacity, loginRefill, maxKeys), registry);
+    }
+
+    /**
+     * Проверка попытки входа с адреса
+     * @param remoteAddress адрес клиента
+     * @throws LoginRateLimitedException если попытки адреса исчерпаны
+     */
+    public void checkAddress(String remoteAddress) {
+        if (enabled) {
+            address.check(remoteAddress);
+        }
+    }
+
+    /**
+     * Проверка попытки входа для логина
+     * @param username логин из запроса
+     * @throws LoginRateLimitedException если попытки логина исчерпаны
+     */
+    public void checkLogin(String username) {
+        if (enabled && username != null) {
+            login.check(username);
+        }
+    }
+
+    /**
+     * Ограничитель одного вида ключей со счётчиками
+     */
+    private static final class Scope {
+        private final String name;
+        private final RateLimiter limiter;
+        private final Counter allowed;
+        private final Counter rejected;
+
+        private Scope(String name, RateLimiter limiter, MeterRegistry registry) {
+            this.name = name;
+            this.limiter = limiter;
+            this.allowed = counter(registry, name, "allowed");
+            this.rejected = counter(registry, name, "rejected");
+            Gauge.builder("auth.login.rate.limit.keys", limiter, RateLimiter::size)
+                    .description("Tracked login rate limit keys")
+                    .tag("scope", name)
+                    .register(registry);
+        }
+
+        private void check(String key) {
+            long wait = limiter.tryAcquire(key);
+            if (wait == 0) {
+                allowed.increment();
+                return;
+            }
+            rejected.increment();
+            throw new LoginRateLimitedException("Too many login attempts per " + name,
+                    Math.max(1, (wait + TimeUnit.SECONDS.toNanos(1) - 1)
+                            / TimeUnit.SECONDS.toNanos(1)));
+        }
+
+        private static Counter counter(MeterRegistry registry, String scope, String result) {
+            return Counter.builder("auth.login.rate.limit")
+                    .description("Login rate limit decisions")
+                    .tag("scope", scope)
+                    .tag("result", result)
+                    .register(registry);
+        }
+    }
+}
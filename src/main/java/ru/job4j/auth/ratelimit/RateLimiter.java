@@ -0,0 +1,79 @@
+package ru.job4j.auth.ratelimit;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+/**
+ * Зеленский Н. aka Nike Z.
+ * Ограничитель частоты по ключу: token bucket в форме GCRA (generic cell rate algorithm).
+ * На ключ хранится одно число - теоретическое время следующего запроса (TAT),
+ * проверка - чтение и compareAndSet без блокировок.
+ * Ключи хранятся в Caffeine с ограничением размера: вытеснение по частоте
+ * (TinyLFU sketch) не даёт потоку разовых ключей вытеснить активные,
+ * запись без обращений дольше окна всплеска удаляется - её ведро уже полное.
+ */
+public class RateLimiter {
+    private final long interval;
+    private final long burst;
+    private final long origin;
+    private final LongSupplier clock;
+    private final Cache<String, AtomicLong> buckets;
+
+    /**
+     * Конструктор
+     * @param capacity размер ведра: сколько запросов подряд допускается
+     * @param refillPeriod за сколько времени в ведро возвращается один запрос
+     * @param maxKeys сколько ключей хранится одновременно
+     */
+    public RateLimiter(int capacity, Duration refillPeriod, long maxKeys) {
+        this(capacity, refillPeriod, maxKeys, System::nanoTime);
+    }
+
+    RateLimiter(int capacity, Duration refillPeriod, long maxKeys, LongSupplier clock) {
+        if (capacity < 1 || refillPeriod.isNegative() || refillPeriod.isZero()) {
+            throw new IllegalArgumentException("capacity and refill period must be positive");
+        }
+        this.interval = refillPeriod.toNanos();
+        this.burst = interval * capacity;
+        this.clock = clock;
+        this.origin = clock.getAsLong();
+        this.buckets = Caffeine.newBuilder()
+                .maximumSize(maxKeys)
+                .expireAfterAccess(burst, TimeUnit.NANOSECONDS)
+                .build();
+    }
+
+    /**
+     * Взять запрос из ведра ключа
+     * @param key ключ
+     * @return 0 - запрос разрешён, иначе через сколько наносекунд он будет разрешён
+     */
+    public long tryAcquire(String key) {
+        AtomicLong tat = buckets.get(key, k -> new AtomicLong());
+        while (true) {
+            long now = clock.getAsLong() - origin;
+            long current = tat.get();
+            long next = Math.max(current, now) + interval;
+            long wait = next - now - burst;
+            if (wait > 0) {
+                return wait;
+            }
+            if (tat.compareAndSet(current, next)) {
+                return 0;
+            }
+        }
+    }
+
+    /**
+     * Приблизительное количество отслеживаемых ключей
+     * @return количество ключей
+     */
+    public long size() {
+        return buckets.estimatedSize();
+    }
+}
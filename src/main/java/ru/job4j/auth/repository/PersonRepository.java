@@ -1,11 +1,16 @@
 package ru.job4j.auth.repository;
 
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.CrudRepository;
+import org.springframework.data.repository.query.Param;
 import ru.job4j.auth.model.Person;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
-public interface PersonRepository extends CrudRepository<Person, Integer> {
+public interface PersonRepository extends CrudRepository<Person, Integer>, PersonRepositoryCustom {
     /**
      * Поиск пользователя в хранилище по логину
      * @param login строка с логином пользователя
@@ -13,4 +18,27 @@ public interface PersonRepository extends CrudRepository<Person, Integer> {
      * @return тип {@link java.util.Optional<ru.job4j.auth.model.Person>}
      */
     Optional<Person> findByLogin(String login);
-}
\ No newline at end of file
+
+    /**
+     * Есть ли пользователь с логином
+     * @param login строка с логином пользователя
+     * @return true - есть
+     */
+    boolean existsByLogin(String login);
+
+    /**
+     * Страница пользователей с id больше заданного, по возрастанию id (keyset pagination)
+     * @param id id последней записи предыдущей страницы, 0 - первая страница
+     * @param page размер страницы, смещение не используется
+     * @return тип {@link java.util.List<ru.job4j.auth.model.Person>}
+     */
+    List<Person> findByIdGreaterThanOrderByIdAsc(int id, Pageable page);
+
+    /**
+     * Какие из логинов уже заняты
+     * @param logins проверяемые логины
+     * @return занятые логины
+     */
+    @Query("select p.login from Person p where p.login in :logins")
+    List<String> findExistingLogins(@Param("logins") Collection<String> logins);
+}
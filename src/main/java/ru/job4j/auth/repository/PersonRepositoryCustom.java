@@ -0,0 +1,37 @@
+package ru.job4j.auth.repository;
+
+import ru.job4j.auth.model.Person;
+
+import java.util.Collection;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+/**
+ * Методы {@link ru.job4j.auth.repository.PersonRepository},
+ * реализованные вручную через EntityManager
+ */
+public interface PersonRepositoryCustom {
+    /**
+     * Потоковое чтение всех пользователей по курсору JDBC, по возрастанию id.
+     * Записи не попадают в контекст персистентности.
+     * Поток нужно закрыть и читать внутри транзакции.
+     * @param fetchSize количество строк, получаемых из БД за один запрос курсора
+     * @return тип {@link java.util.stream.Stream<ru.job4j.auth.model.Person>}
+     */
+    Stream<Person> streamAll(int fetchSize);
+
+    /**
+     * Вставить новых пользователей одной пачкой JDBC batch и очистить
+     * контекст персистентности. Вызывать внутри транзакции.
+     * @param persons новые пользователи, id назначаются из последовательности
+     */
+    void persistAll(Collection<Person> persons);
+
+    /**
+     * Поиск пользователя по натуральному ключу login. При включённом кэше
+     * второго уровня логин и сущность берутся из кэша без запроса к БД.
+     * @param login логин пользователя
+     * @return тип {@link java.util.Optional<ru.job4j.auth.model.Person>}
+     */
+    Optional<Person> findByNaturalId(String login);
+}
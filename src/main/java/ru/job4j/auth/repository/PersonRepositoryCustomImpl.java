@@ -0,0 +1,56 @@
+package ru.job4j.auth.repository;
+
+import org.hibernate.Session;
+import org.hibernate.jpa.QueryHints;
+import ru.job4j.auth.model.Person;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import java.util.Collection;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+/**
+ * Реализация {@link ru.job4j.auth.repository.PersonRepositoryCustom}
+ */
+public class PersonRepositoryCustomImpl implements PersonRepositoryCustom {
+    @PersistenceContext
+    private EntityManager em;
+
+    /**
+     * Выборка через конструктор: Hibernate создаёт обычные объекты Person,
+     * а не управляемые сущности, поэтому контекст персистентности не растёт.
+     */
+    @Override
+    public Stream<Person> streamAll(int fetchSize) {
+        return em.createQuery("select new ru.job4j.auth.model.Person("
+                        + "p.id, p.login, p.password, p.version)"
+                        + " from Person p order by p.id", Person.class)
+                .setHint(QueryHints.HINT_FETCH_SIZE, fetchSize)
+                .setHint(QueryHints.HINT_READONLY, true)
+                .getResultStream();
+    }
+
+    @Override
+    public void persistAll(Collection<Person> persons) {
+        persons.forEach(em::persist);
+        em.flush();
+        em.clear();
+    }
+
+    /**
+     * Без кэша второго уровня поиск по натуральному ключу - два запроса
+     * (id по логину, затем сущность), поэтому тогда выполняется один обычный запрос.
+     */
+    @Override
+    public Optional<Person> findByNaturalId(String login) {
+        Session session = em.unwrap(Session.class);
+        if (session.getSessionFactory().getSessionFactoryOptions().isSecondLevelCacheEnabled()) {
+            return session.bySimpleNaturalId(Person.class).loadOptional(login);
+        }
+        return em.createQuery("select p from Person p where p.login = :login", Person.class)
+                .setParameter("login", login)
+                .getResultStream()
+                .findFirst();
+    }
+}
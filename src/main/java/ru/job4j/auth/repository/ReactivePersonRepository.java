@@ -0,0 +1,156 @@
+package ru.job4j.auth.repository;
+
+import io.r2dbc.spi.ConnectionFactory;
+import io.r2dbc.spi.Row;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import ru.job4j.auth.model.Person;
+
+/**
+ * Зеленский Н. aka Nike Z.
+ * Неблокирующее хранилище {@link ru.job4j.auth.model.Person} на R2DBC для профиля reactive.
+ * Те же запросы, что и в {@link PersonRepository}, на SQL через {@link DatabaseClient}:
+ * Spring Data R2DBC не подключается, чтобы сущность JPA не делили два модуля Spring Data.
+ * Ошибки драйвера переводятся в {@link org.springframework.dao.DataAccessException},
+ * повтор логина - {@link org.springframework.dao.DataIntegrityViolationException}.
+ */
+@Repository
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+public class ReactivePersonRepository {
+    private static final String COLUMNS = "select id, login, password, version from person";
+
+    private final DatabaseClient client;
+
+    public ReactivePersonRepository(ConnectionFactory connectionFactory) {
+        this.client = DatabaseClient.create(connectionFactory);
+    }
+
+    /**
+     * Поиск пользователя по id
+     * @param id идентификатор пользователя
+     * @return пользователь, пусто - не найден
+     */
+    public Mono<Person> findById(int id) {
+        return client.sql(COLUMNS + " where id = :id")
+                .bind("id", id)
+                .map(ReactivePersonRepository::person)
+                .one();
+    }
+
+    /**
+     * Поиск пользователя по логину
+     * @param login строка с логином пользователя
+     * @return пользователь, пусто - не найден
+     */
+    public Mono<Person> findByLogin(String login) {
+        return client.sql(COLUMNS + " where login = :login")
+                .bind("login", login)
+                .map(ReactivePersonRepository::person)
+                .one();
+    }
+
+    /**
+     * Страница пользователей с id больше заданного, по возрастанию id (keyset pagination)
+     * @param id id последней записи предыдущей страницы, 0 - первая страница
+     * @param limit размер страницы
+     * @return пользователи страницы
+     */
+    public Flux<Person> findByIdGreaterThan(int id, int limit) {
+        return client.sql(COLUMNS + " where id > :id order by id limit :limit")
+                .bind("id", id)
+                .bind("limit", limit)
+                .map(ReactivePersonRepository::person)
+                .all();
+    }
+
+    /**
+     * Добавить пользователя, id выдаёт значение по умолчанию колонки - nextval('person_seq').
+     * Hibernate берёт из последовательности блоки по 50 (pooled-lo), поэтому одиночные
+     * значения здесь не пересекаются с id, выданными сервлетным стеком на той же БД.
+     * @param person новый пользователь, id и version не учитываются
+     * @return сохранённый пользователь с id и версией 0
+     */
+    public Mono<Person> save(Person person) {
+        return client.sql("insert into person (login, password, version)"
+                        + " values (:login, :password, 0)")
+                .filter(statement -> statement.returnGeneratedValues("id"))
+                .bind("login", person.getLogin())
+                .bind("password", person.getPassword())
+                .map(row -> row.get("id", Integer.class))
+                .one()
+                .map(id -> new Person(id, person.getLogin(), person.getPassword(), 0));
+    }
+
+    /**
+     * Обновить логин и пароль одним запросом, только если они отличаются от сохранённых
+     * и, если передана версия, запись не менялась с момента чтения. Версия увеличивается.
+     * @param id идентификатор пользователя
+     * @param login новый логин
+     * @param password новый пароль
+     * @param version ожидаемая версия записи, null - без проверки версии
+     * @return количество обновлённых строк: 1 - обновлён,
+     * 0 - не найден, без изменений или версия устарела
+     */
+    public Mono<Integer> updateIfChanged(int id, String login, String password, Integer version) {
+        DatabaseClient.GenericExecuteSpec update = client.sql("update person"
+                        + " set login = :login, password = :password, version = version + 1"
+                        + " where id = :id and (login <> :login or password <> :password)"
+                        + (version == null ? "" : " and version = :version"))
+                .bind("id", id)
+                .bind("login", login)
+                .bind("password", password);
+        if (version != null) {
+            update = update.bind("version", version);
+        }
+        return update.fetch().rowsUpdated();
+    }
+
+    /**
+     * Текущая версия записи пользователя
+     * @param id идентификатор пользователя
+     * @return версия, пусто - пользователь не найден
+     */
+    public Mono<Integer> findVersionById(int id) {
+        return client.sql("select version from person where id = :id")
+                .bind("id", id)
+                .map(row -> row.get("version", Integer.class))
+                .one();
+    }
+
+    /**
+     * Удалить пользователя одним запросом, без предварительного чтения
+     * @param id идентификатор пользователя
+     * @return количество удалённых строк: 1 - удалён, 0 - не найден
+     */
+    public Mono<Integer> removeById(int id) {
+        return client.sql("delete from person where id = :id")
+                .bind("id", id)
+                .fetch()
+                .rowsUpdated();
+    }
+
+    /**
+     * Заменить хеш пароля, если он не изменился с момента чтения
+     * @param login логин пользователя
+     * @param oldPassword прочитанный ранее хеш пароля
+     * @param newPassword новый хеш пароля
+     * @return количество обновлённых строк: 1 - заменён, 0 - пароль уже изменён
+     */
+    public Mono<Integer> updatePassword(String login, String oldPassword, String newPassword) {
+        return client.sql("update person set password = :newPassword, version = version + 1"
+                        + " where login = :login and password = :oldPassword")
+                .bind("login", login)
+                .bind("oldPassword", oldPassword)
+                .bind("newPassword", newPassword)
+                .fetch()
+                .rowsUpdated();
+    }
+
+    private static Person person(Row row) {
+        return new Person(row.get("id", Integer.class), row.get("login", String.class),
+                row.get("password", String.class), row.get("version", Integer.class));
+    }
+}
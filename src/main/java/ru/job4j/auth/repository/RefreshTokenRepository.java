@@ -0,0 +1,55 @@
+package ru.job4j.auth.repository;
+
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.CrudRepository;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+import ru.job4j.auth.model.RefreshToken;
+
+import java.time.Instant;
+
+public interface RefreshTokenRepository extends CrudRepository<RefreshToken, String> {
+    /**
+     * Отметить токен использованным, если он ещё не использован и не истёк.
+     * Из двух одновременных обменов одного токена строку обновит только один.
+     * @param tokenHash SHA-256 токена
+     * @param now текущее время
+     * @return 1 - токен можно обменять, 0 - не найден, истёк или уже использован
+     */
+    @Transactional
+    @Modifying(clearAutomatically = true)
+    @Query("update RefreshToken r set r.used = true"
+            + " where r.tokenHash = :tokenHash and r.used = false and r.expiresAt > :now")
+    int markUsed(@Param("tokenHash") String tokenHash, @Param("now") Instant now);
+
+    /**
+     * Удалить все токены цепочки
+     * @param family идентификатор цепочки
+     * @return количество удалённых токенов
+     */
+    @Transactional
+    @Modifying
+    @Query("delete from RefreshToken r where r.family = :family")
+    int deleteByFamily(@Param("family") String family);
+
+    /**
+     * Удалить все токены пользователя
+     * @param personId идентификатор пользователя
+     * @return количество удалённых токенов
+     */
+    @Transactional
+    @Modifying
+    @Query("delete from RefreshToken r where r.personId = :personId")
+    int deleteByPersonId(@Param("personId") int personId);
+
+    /**
+     * Удалить истёкшие токены
+     * @param now текущее время
+     * @return количество удалённых токенов
+     */
+    @Transactional
+    @Modifying
+    @Query("delete from RefreshToken r where r.expiresAt < :now")
+    int deleteExpired(@Param("now") Instant now);
+}
@@ -0,0 +1,30 @@
+package ru.job4j.auth.repository;
+
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.CrudRepository;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+import ru.job4j.auth.model.RevokedToken;
+
+import java.time.Instant;
+import java.util.List;
+
+public interface RevokedTokenRepository extends CrudRepository<RevokedToken, String> {
+    /**
+     * Идентификаторы всех отозванных токенов
+     * @return список jti
+     */
+    @Query("select r.jti from RevokedToken r")
+    List<String> findAllJti();
+
+    /**
+     * Удалить записи истёкших токенов
+     * @param now текущее время
+     * @return количество удалённых записей
+     */
+    @Transactional
+    @Modifying
+    @Query("delete from RevokedToken r where r.expiresAt < :now")
+    int deleteExpired(@Param("now") Instant now);
+}
@@ -0,0 +1,161 @@
+package ru.job4j.auth.service;
+
+import jdk.jfr.Configuration;
+import jdk.jfr.Recording;
+import jdk.jfr.RecordingState;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.util.unit.DataSize;
+
+import javax.annotation.PreDestroy;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.text.ParseException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.NoSuchElementException;
+
+/**
+ * Зеленский Н. aka Nike Z.
+ * Управление записью Java Flight Recorder под нагрузкой.
+ * Одновременно идёт не больше одной записи, она ограничена по времени, возрасту
+ * и объёму данных. По окончании (вызов stop или истечение длительности) JFR сам
+ * пишет запись в файл в каталоге jfr.recording.directory.
+ */
+@Service
+public class FlightRecorderService {
+    private static final Logger LOGGER =
+            LoggerFactory.getLogger(FlightRecorderService.class.getSimpleName());
+    private static final DateTimeFormatter FILE_TIME =
+            DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss");
+
+    private final String settings;
+    private final Duration maxDuration;
+    private final Duration maxAge;
+    private final DataSize maxSize;
+    private final Path directory;
+
+    private Recording recording;
+
+    /**
+     * Конструктор
+     * @param settings набор настроек JFR: default (около 1% накладных расходов) или profile
+     * @param maxDuration наибольшая длительность записи, после неё запись останавливается
+     * @param maxAge сколько последних данных хранить в записи
+     * @param maxSize наибольший объём данных записи
+     * @param directory каталог для файлов записей
+     */
+    public FlightRecorderService(
+            @Value("${jfr.recording.settings:profile}") String settings,
+            @Value("${jfr.recording.max-duration:PT30M}") Duration maxDuration,
+            @Value("${jfr.recording.max-age:PT10M}") Duration maxAge,
+            @Value("${jfr.recording.max-size:100MB}") DataSize maxSize,
+            @Value("${jfr.recording.directory:${java.io.tmpdir}}") Path directory) {
+        this.settings = settings;
+        this.maxDuration = maxDuration;
+        this.maxAge = maxAge;
+        this.maxSize = maxSize;
+        this.directory = directory;
+    }
+
+    /**
+     * Начать запись
+     * @param duration длительность записи, null или больше jfr.recording.max-duration -
+     *                 jfr.recording.max-duration
+     * @return состояние записи
+     * @throws IllegalStateException если запись уже идёт
+     */
+    public synchronized Map<String, Object> start(Duration duration) {
+        if (recording != null && recording.getState() != RecordingState.CLOSED) {
+            throw new IllegalStateException("Recording " + recording.getName() + " is "
+                    + recording.getState().name().toLowerCase() + ", stop it first");
+        }
+        Duration bounded = duration == null || duration.isNegative() || duration.isZero()
+                || duration.compareTo(maxDuration) > 0 ? maxDuration : duration;
+        String name = "job4j-auth-" + LocalDateTime.now().format(FILE_TIME);
+        Recording next;
+        try {
+            Files.createDirectories(directory);
+            next = new Recording(Configuration.getConfiguration(settings));
+            next.setDestination(directory.resolve(name + ".jfr"));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } catch (ParseException e) {
+            throw new IllegalStateException("Invalid JFR settings " + settings, e);
+        }
+        next.setName(name);
+        next.setToDisk(true);
+        next.setDuration(bounded);
+        next.setMaxAge(maxAge);
+        next.setMaxSize(maxSize.toBytes());
+        next.start();
+        recording = next;
+        LOGGER.info("JFR recording {} started for {}", name, bounded);
+        return status(next);
+    }
+
+    /**
+     * Остановить запись и записать её в файл
+     * @return состояние записи с путём к файлу
+     * @throws NoSuchElementException если запись не начата
+     */
+    public synchronized Map<String, Object> stop() {
+        if (recording == null) {
+            throw new NoSuchElementException("No JFR recording was started");
+        }
+        Recording current = recording;
+        recording = null;
+        if (current.getState() == RecordingState.RUNNING) {
+            current.stop();
+        }
+        current.close();
+        Map<String, Object> result = status(current);
+        try {
+            result.put("size", Files.size(current.getDestination()));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        LOGGER.info("JFR recording {} written to {}", current.getName(), current.getDestination());
+        return result;
+    }
+
+    /**
+     * Состояние текущей записи
+     * @return состояние записи
+     * @throws NoSuchElementException если запись не начата
+     */
+    public synchronized Map<String, Object> status() {
+        if (recording == null) {
+            throw new NoSuchElementException("No JFR recording was started");
+        }
+        return status(recording);
+    }
+
+    /**
+     * Остановить запись при остановке приложения, данные сохраняются в файл
+     */
+    @PreDestroy
+    public synchronized void close() {
+        if (recording != null) {
+            stop();
+        }
+    }
+
+    private static Map<String, Object> status(Recording recording) {
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("name", recording.getName());
+        result.put("state", recording.getState().name().toLowerCase());
+        result.put("startTime", recording.getStartTime());
+        result.put("duration", recording.getDuration());
+        result.put("size", recording.getSize());
+        result.put("file", String.valueOf(recording.getDestination()));
+        return result;
+    }
+}
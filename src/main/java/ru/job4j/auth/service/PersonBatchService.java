@@ -0,0 +1,187 @@
+package ru.job4j.auth.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.job4j.auth.cache.UserDetailsCache;
+import ru.job4j.auth.crypto.BoundedPasswordEncoder;
+import ru.job4j.auth.model.Person;
+import ru.job4j.auth.model.PersonBatchResult;
+import ru.job4j.auth.model.PersonBatchResult.Item;
+import ru.job4j.auth.model.PersonBatchResult.Status;
+import ru.job4j.auth.repository.PersonRepository;
+import ru.job4j.auth.util.Operation;
+
+import javax.validation.ConstraintViolation;
+import javax.validation.Validator;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Пакетное создание {@link ru.job4j.auth.model.Person}.
+ * Элементы проверяются группой {@link Operation.OnCreate}, пароли хешируются
+ * параллельно в пуле хеширования, вставка идёт пачками JDBC batch
+ * (id выдаёт последовательность person_seq блоками, без запроса на каждую строку).
+ */
+@Service
+public class PersonBatchService {
+    private static final int MAX_IN_LIST = 1000;
+
+    private final PersonRepository persons;
+    private final UserDetailsCache users;
+    private final BoundedPasswordEncoder encoder;
+    private final Validator validator;
+    private final TransactionTemplate transactions;
+    private final int chunkSize;
+    private final int maxSize;
+
+    /**
+     * Конструктор
+     * @param persons хранилище пользователей
+     * @param users кэш пользователей, созданные логины отмечаются недавно записанными
+     * @param encoder шифровальщик паролей
+     * @param validator проверка полей
+     * @param transactions транзакции пачек
+     * @param chunkSize размер пачки вставки, совпадает с hibernate.jdbc.batch_size
+     * @param maxSize максимальное количество элементов в пакете
+     */
+    public PersonBatchService(PersonRepository persons,
+                              UserDetailsCache users,
+                              BoundedPasswordEncoder encoder,
+                              Validator validator,
+                              TransactionTemplate transactions,
+                              @Value("${spring.jpa.properties.hibernate.jdbc.batch_size:50}")
+                                      int chunkSize,
+                              @Value("${person.batch.max-size:10000}") int maxSize) {
+        this.persons = persons;
+        this.users = users;
+        this.encoder = encoder;
+        this.validator = validator;
+        this.transactions = transactions;
+        this.chunkSize = chunkSize;
+        this.maxSize = maxSize;
+    }
+
+    /**
+     * Создать пользователей пакетом
+     * @param source элементы пакета
+     * @return тип {@link ru.job4j.auth.model.PersonBatchResult} результат по каждому элементу
+     * @throws IllegalArgumentException если элементов больше person.batch.max-size
+     */
+    public PersonBatchResult createAll(Iterator<Person> source) {
+        List<Person> items = new ArrayList<>();
+        while (source.hasNext()) {
+            if (items.size() == maxSize) {
+                throw new IllegalArgumentException(
+                        "Batch must contain at most " + maxSize + " persons");
+            }
+            items.add(source.next());
+        }
+        Item[] results = new Item[items.size()];
+        List<Integer> accepted = validate(items, results);
+        rejectExisting(items, accepted, results);
+        List<String> hashes = encoder.encodeAll(accepted.stream()
+                .map(i -> items.get(i).getPassword())
+                .collect(Collectors.toList()));
+        for (int i = 0; i < accepted.size(); i++) {
+            Person person = items.get(accepted.get(i));
+            person.setId(0);
+            person.setVersion(null);
+            person.setPassword(hashes.get(i));
+        }
+        for (int from = 0; from < accepted.size(); from += chunkSize) {
+            insert(items, accepted.subList(from, Math.min(from + chunkSize, accepted.size())),
+                    results);
+        }
+        PersonBatchResult result = new PersonBatchResult();
+        for (Item item : results) {
+            result.add(item);
+        }
+        return result;
+    }
+
+    private List<Integer> validate(List<Person> items, Item[] results) {
+        List<Integer> accepted = new ArrayList<>(items.size());
+        Set<String> logins = new HashSet<>();
+        for (int i = 0; i < items.size(); i++) {
+            Person person = items.get(i);
+            if (person == null) {
+                results[i] = rejected(i, Status.INVALID, "person must be non null");
+                continue;
+            }
+            Set<ConstraintViolation<Person>> violations =
+                    validator.validate(person, Operation.OnCreate.class);
+            if (!violations.isEmpty()) {
+                results[i] = new Item(i, Status.INVALID, null, violations.stream()
+                        .map(v -> v.getPropertyPath() + ": " + v.getMessage())
+                        .sorted()
+                        .collect(Collectors.toList()));
+            } else if (!logins.add(person.getLogin())) {
+                results[i] = rejected(i, Status.CONFLICT, "login repeats in batch");
+            } else {
+                accepted.add(i);
+            }
+        }
+        return accepted;
+    }
+
+    private void rejectExisting(List<Person> items, List<Integer> accepted, Item[] results) {
+        Set<String> existing = new HashSet<>();
+        for (int from = 0; from < accepted.size(); from += MAX_IN_LIST) {
+            existing.addAll(persons.findExistingLogins(
+                    accepted.subList(from, Math.min(from + MAX_IN_LIST, accepted.size())).stream()
+                            .map(i -> items.get(i).getLogin())
+                            .collect(Collectors.toList())));
+        }
+        accepted.removeIf(i -> {
+            if (existing.contains(items.get(i).getLogin())) {
+                results[i] = rejected(i, Status.CONFLICT, "login already exists");
+                return true;
+            }
+            return false;
+        });
+    }
+
+    /**
+     * Вставить пачку в одной транзакции. Если пачка отклонена БД
+     * (логин заняли параллельно), элементы пачки вставляются по одному,
+     * чтобы получить результат каждого.
+     */
+    private void insert(List<Person> items, List<Integer> chunk, Item[] results) {
+        try {
+            save(items, chunk);
+            for (int i : chunk) {
+                results[i] = new Item(i, Status.CREATED, items.get(i).getId(), null);
+                users.invalidate(items.get(i).getLogin());
+            }
+        } catch (DataAccessException e) {
+            if (chunk.size() == 1) {
+                int i = chunk.get(0);
+                results[i] = e instanceof DataIntegrityViolationException
+                        ? rejected(i, Status.CONFLICT, "login already exists")
+                        : rejected(i, Status.FAILED, e.getMostSpecificCause().getMessage());
+                return;
+            }
+            chunk.forEach(i -> {
+                items.get(i).setId(0);
+                items.get(i).setVersion(null);
+            });
+            chunk.forEach(i -> insert(items, List.of(i), results));
+        }
+    }
+
+    private void save(List<Person> items, List<Integer> chunk) {
+        transactions.executeWithoutResult(status -> persons.persistAll(
+                chunk.stream().map(items::get).collect(Collectors.toList())));
+    }
+
+    private static Item rejected(int index, Status status, String error) {
+        return new Item(index, status, null, List.of(error));
+    }
+}
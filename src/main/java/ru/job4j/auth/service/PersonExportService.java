@@ -0,0 +1,117 @@
+package ru.job4j.auth.service;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SequenceWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.dataformat.csv.CsvMapper;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import ru.job4j.auth.model.Person;
+import ru.job4j.auth.repository.PersonRepository;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Iterator;
+import java.util.stream.Stream;
+
+/**
+ * Выгрузка всех {@link ru.job4j.auth.model.Person} в поток вывода.
+ * Строки читаются курсором JDBC и сразу пишутся потоковым генератором Jackson,
+ * весь список в памяти не собирается.
+ */
+@Service
+public class PersonExportService {
+    private final PersonRepository persons;
+    private final ObjectWriter jsonWriter;
+    private final ObjectWriter csvWriter;
+    private final int fetchSize;
+
+    /**
+     * Конструктор
+     * @param persons хранилище пользователей
+     * @param objectMapper общий {@link com.fasterxml.jackson.databind.ObjectMapper}
+     * @param fetchSize количество строк, получаемых из БД за один запрос курсора
+     */
+    public PersonExportService(PersonRepository persons,
+                               ObjectMapper objectMapper,
+                               @Value("${person.export.fetch-size:1000}") int fetchSize) {
+        this.persons = persons;
+        this.jsonWriter = objectMapper.writerFor(Person.class)
+                .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+        CsvMapper csvMapper = new CsvMapper();
+        this.csvWriter = csvMapper.writerFor(Person.class)
+                .with(csvMapper.schemaFor(Person.class).withHeader())
+                .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+        this.fetchSize = fetchSize;
+    }
+
+    /**
+     * Выгрузить всех пользователей по возрастанию id
+     * @param out поток вывода, не закрывается
+     * @param format формат выгрузки
+     * @return количество выгруженных пользователей
+     * @throws IOException в случае ошибки ввода/вывода
+     */
+    @Transactional(readOnly = true)
+    public long export(OutputStream out, Format format) throws IOException {
+        try (Stream<Person> rows = persons.streamAll(fetchSize)) {
+            return format == Format.CSV ? writeCsv(rows.iterator(), out)
+                    : writeNdjson(rows.iterator(), out);
+        }
+    }
+
+    private long writeNdjson(Iterator<Person> rows, OutputStream out) throws IOException {
+        long count = 0;
+        try (JsonGenerator generator = jsonWriter.createGenerator(out)) {
+            generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            generator.setRootValueSeparator(null);
+            while (rows.hasNext()) {
+                jsonWriter.writeValue(generator, rows.next());
+                generator.writeRaw('\n');
+                count++;
+            }
+        }
+        return count;
+    }
+
+    private long writeCsv(Iterator<Person> rows, OutputStream out) throws IOException {
+        long count = 0;
+        try (JsonGenerator generator = csvWriter.createGenerator(out);
+             SequenceWriter sequence = csvWriter.writeValues(generator)) {
+            generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            while (rows.hasNext()) {
+                sequence.write(rows.next());
+                count++;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Формат выгрузки
+     */
+    public enum Format {
+        /**
+         * Один JSON объект на строку, application/x-ndjson
+         */
+        NDJSON("application/x-ndjson"),
+
+        /**
+         * CSV с заголовком, text/csv
+         */
+        CSV("text/csv");
+
+        private final String contentType;
+
+        Format(String contentType) {
+            this.contentType = contentType;
+        }
+
+        public String getContentType() {
+            return contentType;
+        }
+    }
+}
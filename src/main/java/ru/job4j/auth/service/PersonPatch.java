@@ -0,0 +1,72 @@
+package ru.job4j.auth.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import lombok.RequiredArgsConstructor;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.stereotype.Component;
+import ru.job4j.auth.model.Person;
+import ru.job4j.auth.util.MergePatch;
+import ru.job4j.auth.util.Operation;
+
+import javax.validation.ConstraintViolation;
+import javax.validation.Validator;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Зеленский Н. aka Nike Z.
+ * Частичное обновление пользователя (JSON Merge Patch, RFC 7396) без обращения к БД:
+ * проверка id и версии из патча, слияние и валидация результата.
+ * Общее для {@link PersonService} и {@link ReactivePersonService}.
+ */
+@Component
+@RequiredArgsConstructor
+public class PersonPatch {
+    private final MergePatch mergePatch;
+    private final Validator validator;
+
+    /**
+     * Применить патч к прочитанному пользователю
+     * @param person пользователь из хранилища, изменяется на месте
+     * @param patch патч, поле id (если есть) должно совпадать с id пользователя,
+     *              поле version (если есть) - ожидаемая версия записи
+     * @return true - пользователь изменён, false - патч ничего не изменил
+     * @throws IllegalArgumentException - если патч не применим или результат не валиден
+     * @throws OptimisticLockingFailureException - если версия не совпала
+     */
+    public boolean apply(Person person, ObjectNode patch) {
+        int id = person.getId();
+        JsonNode patchId = patch.remove("id");
+        if (patchId != null && patchId.asInt() != id) {
+            throw new IllegalArgumentException("id can't be changed");
+        }
+        JsonNode version = patch.remove("version");
+        if (version != null && !version.isNull() && version.asInt() != person.getVersion()) {
+            throw new OptimisticLockingFailureException(
+                    "Пользователь {id=" + id + "; version=" + version.asInt()
+                            + "} не обновлён т.к. изменён, текущая версия " + person.getVersion());
+        }
+        if (mergePatch.apply(person, patch).isEmpty()) {
+            return false;
+        }
+        Set<ConstraintViolation<Person>> violations =
+                validator.validate(person, Operation.OnUpdate.class);
+        if (!violations.isEmpty()) {
+            throw new IllegalArgumentException(violations.stream()
+                    .map(ConstraintViolation::getMessage)
+                    .sorted()
+                    .collect(Collectors.joining(", ")));
+        }
+        return true;
+    }
+
+    /**
+     * Пользователь для ответа на PATCH - без пароля и его хеша
+     * @param person обновлённый пользователь
+     * @return тип {@link ru.job4j.auth.model.Person} копия с password = null
+     */
+    public static Person withoutPassword(Person person) {
+        return new Person(person.getId(), person.getLogin(), null, person.getVersion());
+    }
+}
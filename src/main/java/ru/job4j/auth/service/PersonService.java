@@ -1,39 +1,92 @@
 package ru.job4j.auth.service;
 
+import com.fasterxml.jackson.databind.node.ObjectNode;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.util.Streamable;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.bind.annotation.*;
+import ru.job4j.auth.cache.UserDetailsCache;
+import ru.job4j.auth.jfr.PersonEvent;
 import ru.job4j.auth.model.Person;
+import ru.job4j.auth.model.PersonPage;
 import ru.job4j.auth.repository.PersonRepository;
+import ru.job4j.auth.util.KeysetCursor;
 
 import java.util.List;
 import java.util.NoSuchElementException;
 import java.util.Optional;
+import java.util.function.BiConsumer;
+import java.util.function.Supplier;
 
 @Service
 @RequiredArgsConstructor
 public class PersonService {
     private final PersonRepository persons;
+    private final UserDetailsCache users;
+    private final PersonPatch personPatch;
+    private final RefreshTokenService refreshTokens;
+    private final PasswordEncoder encoder;
+
+    @Value("${person.page.max-limit:1000}")
+    private int maxLimit;
 
     /**
      * Получить список всех {@link ru.job4j.auth.model.Person}
      * @return тип {@link java.util.List<ru.job4j.auth.model.Person>}
      * список хранящихся Person в сервисе.
      */
+    @Transactional(readOnly = true)
     public List<Person> findAll() {
-        return Streamable.of(this.persons.findAll()).toList();
+        return recorded("findAll", 0, null,
+                () -> Streamable.of(this.persons.findAll()).toList(),
+                (event, result) -> event.end(0, null, result.size(), "success"));
+    }
+
+    /**
+     * Получить страницу {@link ru.job4j.auth.model.Person} по курсору.
+     * Читается limit + 1 строка по индексу id, лишняя строка только
+     * сообщает о наличии следующей страницы.
+     * @param cursor курсор из предыдущей страницы, null - первая страница
+     * @param limit размер страницы, не больше person.page.max-limit
+     * @return тип {@link ru.job4j.auth.model.PersonPage}
+     * @throws IllegalArgumentException если курсор повреждён или limit меньше 1
+     */
+    @Transactional(readOnly = true)
+    public PersonPage findPage(String cursor, int limit) {
+        if (limit < 1) {
+            throw new IllegalArgumentException("limit must be more than 0");
+        }
+        return recorded("findPage", 0, null, () -> {
+            int size = Math.min(limit, maxLimit);
+            List<Person> rows = this.persons.findByIdGreaterThanOrderByIdAsc(
+                    KeysetCursor.decode(cursor), PageRequest.of(0, size + 1));
+            boolean hasMore = rows.size() > size;
+            List<Person> items = hasMore ? rows.subList(0, size) : rows;
+            String next = hasMore ? KeysetCursor.encode(items.get(size - 1).getId()) : null;
+            return new PersonPage(items, next, hasMore);
+        }, (event, page) -> event.end(0, null, page.getItems().size(), "success"));
     }
 
     /**
      * Получить {@link ru.job4j.auth.model.Person} по {@param id}
      * @param id - идентификатор тип int.
+     * Сущность читается только для чтения: изменения её полей не попадут в БД
+     * при следующей транзакции запроса, записывать можно только через update.
      * @return тип {@link java.util.Optional<ru.job4j.auth.model.Person>}
      */
+    @Transactional(readOnly = true)
     public java.util.Optional<Person> findById(int id) {
-        return persons.findById(id);
+        return recorded("findById", id, null, () -> persons.findById(id),
+                (event, result) -> event.end(id, null, rows(result),
+                        result.isPresent() ? "success" : "not_found"));
     }
 
     /**
@@ -41,47 +94,143 @@ public class PersonService {
      * @param person - добавляемая сущность тип {@link ru.job4j.auth.model.Person}
      * @return тип {@link ru.job4j.auth.model.Person}
      * содержит результат попытки добавить сущность Person.
+     * @throws org.springframework.dao.DataIntegrityViolationException если логин уже занят
      */
     public Person create(Person person) {
-        return this.persons.save(person);
+        return recorded("create", 0, person.getLogin(), () -> {
+            person.setVersion(null);
+            Person saved = this.persons.save(person);
+            users.invalidate(saved.getLogin());
+            return saved;
+        }, (event, saved) -> event.end(saved.getId(), saved.getLogin(), 1, "success"));
     }
 
     /**
-     * Сервис обновляет сущность Person в хранилище сервера
-     * @param person - сохраняемая сущность тип {@link ru.job4j.auth.model.Person}
+     * Сервис обновляет сущность Person в хранилище сервера.
+     * Сущность читается из кэша второго уровня (SQL только при промахе) и изменяется,
+     * Hibernate при фиксации записывает её одним запросом с проверкой версии.
+     * Массовый HQL update здесь не подходит: он очищает весь регион Person в кэше.
+     * Токены обновления пользователя отзываются в той же транзакции.
+     * @param person - сохраняемая сущность тип {@link ru.job4j.auth.model.Person},
+     *               если указана версия - обновится только эта версия записи
      * @return тип boolean
      * true  - если пользователь обновлён
      * false - если без изменений
      * @throws NoSuchElementException - если пользователя нет в хранилище
+     * @throws OptimisticLockingFailureException - если запись изменена после чтения клиентом
+     * @throws org.springframework.dao.DataIntegrityViolationException если логин уже занят
      */
+    @Transactional
     public boolean update(Person person) {
-        Optional<Person> person1 = this.persons.findById(person.getId());
-        if (person1.isEmpty()) {
-            throw new NoSuchElementException(
-                    "Пользователь {id=" + person.getId()
-                            + "; login=" + person.getLogin()
-                            + "; password" + person.getPassword()
-                            + "} не обновлён т.к. не найден");
+        return recorded("update", person.getId(), person.getLogin(),
+                () -> updateIfChanged(person),
+                changed(person.getId(), person.getLogin(), "unchanged"));
+    }
+
+    private boolean updateIfChanged(Person person) {
+        Person stored = this.persons.findById(person.getId()).orElseThrow(() ->
+                new NoSuchElementException(
+                        "Пользователь {id=" + person.getId()
+                                + "; login=" + person.getLogin()
+                                + "} не обновлён т.к. не найден"));
+        if (person.getVersion() != null && !person.getVersion().equals(stored.getVersion())) {
+            throw new OptimisticLockingFailureException(
+                    "Пользователь {id=" + person.getId() + "; version=" + person.getVersion()
+                            + "} не обновлён т.к. изменён, текущая версия " + stored.getVersion());
         }
-        if (person1.get().getPassword().equals(person.getPassword())
-                && person1.get().getLogin().equals(person.getLogin())) {
+        if (stored.getLogin().equals(person.getLogin())
+                && stored.getPassword().equals(person.getPassword())) {
             return false;
         }
-        this.persons.save(person);
+        users.invalidate(stored.getLogin());
+        users.invalidate(person.getLogin());
+        refreshTokens.revokeAll(stored.getId());
+        stored.setLogin(person.getLogin());
+        stored.setPassword(person.getPassword());
         return true;
     }
 
     /**
-     * Сервис удаляет сущность Person в хранилище сервера по {@param id}
+     * Сервис частично обновляет сущность Person (JSON Merge Patch, RFC 7396).
+     * Патч применяется к сущности, прочитанной в этой же транзакции, поэтому
+     * Hibernate при фиксации записывает только изменённые колонки и проверяет версию.
+     * Если патч что-то изменил, токены обновления пользователя отзываются.
+     * Пароль из патча сохраняется хешем, как при регистрации.
+     * @param id идентификатор пользователя
+     * @param patch патч, поле id (если есть) должно совпадать с {@param id},
+     *              поле version (если есть) - ожидаемая версия записи
+     * @return тип {@link java.util.Optional<ru.job4j.auth.model.Person>}
+     * обновлённый пользователь, пусто - если патч ничего не изменил
+     * @throws NoSuchElementException - если пользователя нет в хранилище
+     * @throws IllegalArgumentException - если патч не применим или результат не валиден
+     * @throws OptimisticLockingFailureException - если версия не совпала
+     */
+    @Transactional
+    public Optional<Person> patch(int id, ObjectNode patch) {
+        return recorded("patch", id, null, () -> mergePatch(id, patch),
+                (event, patched) -> event.end(id, patched.map(Person::getLogin).orElse(null),
+                        rows(patched), patched.isPresent() ? "success" : "unchanged"));
+    }
+
+    private Optional<Person> mergePatch(int id, ObjectNode patch) {
+        Person person = this.persons.findById(id).orElseThrow(() ->
+                new NoSuchElementException("Пользователь {id=" + id + "} не найден"));
+        String login = person.getLogin();
+        String password = person.getPassword();
+        if (!personPatch.apply(person, patch)) {
+            return Optional.empty();
+        }
+        if (!password.equals(person.getPassword())) {
+            person.setPassword(encoder.encode(person.getPassword()));
+        }
+        users.invalidate(login);
+        users.invalidate(person.getLogin());
+        refreshTokens.revokeAll(id);
+        return Optional.of(person);
+    }
+
+    /**
+     * Сервис удаляет сущность Person в хранилище сервера по {@param id}.
+     * Удаляется прочитанная сущность, поэтому из кэша второго уровня уходит
+     * только этот пользователь и его логин. Токены обновления удаляются вместе с ним.
      * @param id - удаляемая сущность тип int.
      * @return тип boolean
      * true  - пользователь c ID удален
      * false - пользователь c ID не найден
      */
+    @Transactional
     public boolean delete(int id) {
-        Optional<Person> person = this.persons.findById(id);
-        person.ifPresent(p -> this.persons.deleteById(id));
-        return person.isPresent();
+        return recorded("delete", id, null, () -> {
+            Optional<Person> person = this.persons.findById(id);
+            person.ifPresent(stored -> {
+                this.persons.delete(stored);
+                users.invalidate(stored.getLogin());
+                refreshTokens.revokeAll(id);
+            });
+            return person.isPresent();
+        }, changed(id, null, "not_found"));
+    }
+
+    /**
+     * Заменить хеш пароля пользователя (перехеширование с новыми параметрами).
+     * Замена выполняется, только если хеш не изменился с момента чтения:
+     * сущность берётся из кэша второго уровня, версия проверяется при фиксации.
+     * @param login логин пользователя
+     * @param oldPassword прочитанный ранее хеш пароля
+     * @param newPassword новый хеш пароля
+     * @return true - хеш заменён, false - пользователь удалён или пароль уже изменён
+     */
+    @Transactional
+    public boolean updatePassword(String login, String oldPassword, String newPassword) {
+        return recorded("updatePassword", 0, login, () -> {
+            Optional<Person> person = this.persons.findByNaturalId(login)
+                    .filter(stored -> stored.getPassword().equals(oldPassword));
+            person.ifPresent(stored -> {
+                stored.setPassword(newPassword);
+                users.invalidate(login);
+            });
+            return person.isPresent();
+        }, changed(0, login, "unchanged"));
     }
 
     /**
@@ -90,7 +239,77 @@ public class PersonService {
      *              тип {@link java.lang.String}
      * @return тип {@link java.util.Optional<ru.job4j.auth.model.Person>}
      */
+    @Transactional(readOnly = true)
     public Optional<Person> findByLogin(String login) {
-        return persons.findByLogin(login);
+        return find(login);
+    }
+
+    /**
+     * Поиск пользователя по логину на основной БД, минуя реплики чтения.
+     * Вход сразу после регистрации не ждёт, пока реплика получит нового пользователя.
+     * @param login строка с логином пользователя
+     * @return тип {@link java.util.Optional<ru.job4j.auth.model.Person>}
+     */
+    @Transactional
+    public Optional<Person> findByLoginOnPrimary(String login) {
+        return find(login);
+    }
+
+    private Optional<Person> find(String login) {
+        return recorded("findByLogin", 0, login, () -> persons.findByNaturalId(login),
+                (event, result) -> event.end(result.map(Person::getId).orElse(0), login,
+                        rows(result), result.isPresent() ? "success" : "not_found"));
+    }
+
+    /**
+     * Выполнить операцию с событием JFR {@link PersonEvent}
+     * @param operation имя операции в событии
+     * @param id идентификатор пользователя для события при ошибке, 0 - не известен
+     * @param login логин пользователя для события при ошибке, null - не известен
+     * @param call операция
+     * @param success завершение события по результату операции
+     * @return результат операции
+     */
+    private static <T> T recorded(String operation, int id, String login, Supplier<T> call,
+                                  BiConsumer<PersonEvent, T> success) {
+        PersonEvent event = PersonEvent.start(operation);
+        T result;
+        try {
+            result = call.get();
+        } catch (RuntimeException e) {
+            event.end(id, login, 0, outcome(e));
+            throw e;
+        }
+        success.accept(event, result);
+        return result;
+    }
+
+    /**
+     * Завершение события записи: true - одна строка и success, false - {@param none}
+     */
+    private static BiConsumer<PersonEvent, Boolean> changed(int id, String login, String none) {
+        return (event, changed) -> event.end(id, login, changed ? 1 : 0,
+                changed ? "success" : none);
+    }
+
+    private static int rows(Optional<Person> result) {
+        return result.isPresent() ? 1 : 0;
+    }
+
+    /**
+     * Результат операции для события JFR по исключению
+     */
+    private static String outcome(RuntimeException e) {
+        if (e instanceof NoSuchElementException) {
+            return "not_found";
+        }
+        if (e instanceof OptimisticLockingFailureException
+                || e instanceof DataIntegrityViolationException) {
+            return "conflict";
+        }
+        if (e instanceof IllegalArgumentException) {
+            return "invalid";
+        }
+        return "error";
     }
 }
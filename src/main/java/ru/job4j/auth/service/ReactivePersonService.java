@@ -0,0 +1,220 @@
+package ru.job4j.auth.service;
+
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+import ru.job4j.auth.model.Person;
+import ru.job4j.auth.model.PersonPage;
+import ru.job4j.auth.repository.ReactivePersonRepository;
+import ru.job4j.auth.util.KeysetCursor;
+
+import java.util.List;
+import java.util.NoSuchElementException;
+
+/**
+ * Зеленский Н. aka Nike Z.
+ * Неблокирующий вариант {@link PersonService} для профиля reactive.
+ * Каждая запись - один условный запрос с проверкой версии, поэтому транзакции не нужны:
+ * PATCH читает запись и обновляет её, только если версия не изменилась.
+ * Хеширование пароля блокирует поток и выполняется на Schedulers.boundedElastic(),
+ * там же после записи отзываются токены обновления (таблица refresh_token доступна через JPA).
+ */
+@Service
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+public class ReactivePersonService {
+    private final ReactivePersonRepository persons;
+    private final PersonPatch personPatch;
+    private final PasswordEncoder encoder;
+    private final RefreshTokenService refreshTokens;
+
+    @Value("${person.page.max-limit:1000}")
+    private int maxLimit;
+
+    public ReactivePersonService(ReactivePersonRepository persons,
+                                 PersonPatch personPatch,
+                                 PasswordEncoder encoder,
+                                 RefreshTokenService refreshTokens) {
+        this.persons = persons;
+        this.personPatch = personPatch;
+        this.encoder = encoder;
+        this.refreshTokens = refreshTokens;
+    }
+
+    /**
+     * Получить страницу {@link ru.job4j.auth.model.Person} по курсору,
+     * как {@link PersonService#findPage(String, int)}
+     * @param cursor курсор из предыдущей страницы, null - первая страница
+     * @param limit размер страницы, не больше person.page.max-limit
+     * @return тип {@link ru.job4j.auth.model.PersonPage}
+     * ошибка IllegalArgumentException - если курсор повреждён или limit меньше 1
+     */
+    public Mono<PersonPage> findPage(String cursor, int limit) {
+        return Mono.fromCallable(() -> {
+            if (limit < 1) {
+                throw new IllegalArgumentException("limit must be more than 0");
+            }
+            return KeysetCursor.decode(cursor);
+        }).flatMap(lastId -> {
+            int size = Math.min(limit, maxLimit);
+            return persons.findByIdGreaterThan(lastId, size + 1)
+                    .collectList()
+                    .map(rows -> {
+                        boolean hasMore = rows.size() > size;
+                        List<Person> items = hasMore ? rows.subList(0, size) : rows;
+                        String next = hasMore
+                                ? KeysetCursor.encode(items.get(size - 1).getId()) : null;
+                        return new PersonPage(items, next, hasMore);
+                    });
+        });
+    }
+
+    /**
+     * Получить {@link ru.job4j.auth.model.Person} по {@param id}
+     * @param id - идентификатор тип int.
+     * @return пользователь, пусто - не найден
+     */
+    public Mono<Person> findById(int id) {
+        return persons.findById(id);
+    }
+
+    /**
+     * Поиск пользователя в хранилище по логину
+     * @param login строка с логином пользователя
+     * @return пользователь, пусто - не найден
+     */
+    public Mono<Person> findByLogin(String login) {
+        return persons.findByLogin(login);
+    }
+
+    /**
+     * Добавить пользователя в хранилище, пароль сохраняется как передан
+     * @param person - добавляемая сущность тип {@link ru.job4j.auth.model.Person}
+     * @return сохранённый пользователь,
+     * ошибка DataIntegrityViolationException - если логин уже занят
+     */
+    public Mono<Person> create(Person person) {
+        return persons.save(person);
+    }
+
+    /**
+     * Регистрация: пароль хешируется в пуле хеширования, затем пользователь сохраняется
+     * @param person новый пользователь с паролем в открытом виде
+     * @return сохранённый пользователь, ошибка PasswordHashingRejectedException -
+     * если пул хеширования перегружен, DataIntegrityViolationException - логин занят
+     */
+    public Mono<Person> signUp(Person person) {
+        return Mono.fromCallable(() -> encoder.encode(person.getPassword()))
+                .subscribeOn(Schedulers.boundedElastic())
+                .flatMap(hash -> persons.save(
+                        new Person(0, person.getLogin(), hash, null)));
+    }
+
+    /**
+     * Обновить пользователя, как {@link PersonService#update(Person)}
+     * @param person - сохраняемая сущность тип {@link ru.job4j.auth.model.Person},
+     *               если указана версия - обновится только эта версия записи
+     * @return true - обновлён, false - без изменений; ошибка NoSuchElementException -
+     * не найден, OptimisticLockingFailureException - запись изменена после чтения клиентом
+     */
+    public Mono<Boolean> update(Person person) {
+        return persons.updateIfChanged(person.getId(), person.getLogin(),
+                        person.getPassword(), person.getVersion())
+                .flatMap(rows -> rows > 0 ? revokeRefreshTokens(person.getId()).thenReturn(true)
+                        : persons.findVersionById(person.getId())
+                        .switchIfEmpty(Mono.error(() -> new NoSuchElementException(
+                                "Пользователь {id=" + person.getId()
+                                        + "; login=" + person.getLogin()
+                                        + "} не обновлён т.к. не найден")))
+                        .flatMap(version -> {
+                            if (person.getVersion() != null
+                                    && !person.getVersion().equals(version)) {
+                                return Mono.error(stale(person.getId(),
+                                        person.getVersion(), version));
+                            }
+                            return Mono.just(false);
+                        }));
+    }
+
+    /**
+     * Частичное обновление (JSON Merge Patch, RFC 7396), как
+     * {@link PersonService#patch(int, ObjectNode)}. Запись обновляется,
+     * только если версия не изменилась с момента чтения.
+     * Новый пароль хешируется на Schedulers.boundedElastic().
+     * @param id идентификатор пользователя
+     * @param patch патч, поле version (если есть) - ожидаемая версия записи
+     * @return обновлённый пользователь, пусто - патч ничего не изменил;
+     * ошибка NoSuchElementException - не найден, IllegalArgumentException - патч не применим,
+     * OptimisticLockingFailureException - версия не совпала
+     */
+    public Mono<Person> patch(int id, ObjectNode patch) {
+        return persons.findById(id)
+                .switchIfEmpty(Mono.error(() ->
+                        new NoSuchElementException("Пользователь {id=" + id + "} не найден")))
+                .flatMap(person -> {
+                    int version = person.getVersion();
+                    String password = person.getPassword();
+                    if (!personPatch.apply(person, patch)) {
+                        return Mono.empty();
+                    }
+                    Mono<String> hash = password.equals(person.getPassword())
+                            ? Mono.just(password)
+                            : Mono.fromCallable(() -> encoder.encode(person.getPassword()))
+                                    .subscribeOn(Schedulers.boundedElastic());
+                    return hash.flatMap(stored -> {
+                                person.setPassword(stored);
+                                return persons.updateIfChanged(id, person.getLogin(),
+                                        stored, version);
+                            })
+                            .flatMap(rows -> {
+                                if (rows == 0) {
+                                    return Mono.error(stale(id, version, null));
+                                }
+                                person.setVersion(version + 1);
+                                return revokeRefreshTokens(id).thenReturn(person);
+                            });
+                });
+    }
+
+    /**
+     * Удалить пользователя по {@param id}
+     * @param id - идентификатор пользователя
+     * @return true - удалён, false - не найден
+     */
+    public Mono<Boolean> delete(int id) {
+        return persons.removeById(id)
+                .flatMap(rows -> rows > 0 ? revokeRefreshTokens(id).thenReturn(true)
+                        : Mono.just(false));
+    }
+
+    /**
+     * Заменить хеш пароля, если он не изменился с момента чтения
+     * @param login логин пользователя
+     * @param oldPassword прочитанный ранее хеш пароля
+     * @param newPassword новый хеш пароля
+     * @return true - хеш заменён, false - пользователь удалён или пароль уже изменён
+     */
+    public Mono<Boolean> updatePassword(String login, String oldPassword, String newPassword) {
+        return persons.updatePassword(login, oldPassword, newPassword).map(rows -> rows > 0);
+    }
+
+    /**
+     * Отозвать токены обновления пользователя после смены логина или пароля и удаления
+     */
+    private Mono<Integer> revokeRefreshTokens(int id) {
+        return Mono.fromCallable(() -> refreshTokens.revokeAll(id))
+                .subscribeOn(Schedulers.boundedElastic());
+    }
+
+    private static OptimisticLockingFailureException stale(int id, Integer expected,
+                                                           Integer current) {
+        return new OptimisticLockingFailureException(
+                "Пользователь {id=" + id + "; version=" + expected
+                        + "} не обновлён т.к. изменён"
+                        + (current == null ? "" : ", текущая версия " + current));
+    }
+}
@@ -0,0 +1,192 @@
+package ru.job4j.auth.service;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import ru.job4j.auth.model.Person;
+import ru.job4j.auth.model.RefreshToken;
+import ru.job4j.auth.repository.PersonRepository;
+import ru.job4j.auth.repository.RefreshTokenRepository;
+import ru.job4j.auth.util.ResultTimers;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.HexFormat;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * Зеленский Н. aka Nike Z.
+ * Токены обновления: короткоживущий JWT продлевается по непрозрачному токену
+ * без повторной проверки пароля (BCrypt). Токен - 32 случайных байта в base64url,
+ * в таблице refresh_token хранится только его SHA-256, поиск - по первичному ключу.
+ * Каждый обмен выдаёт новый токен той же цепочки (family), старый становится
+ * использованным. Повторное предъявление использованного токена значит, что токен
+ * украден: удаляется вся цепочка, и обоим владельцам придётся войти заново.
+ * Токен принадлежит id пользователя: смена пароля или логина и удаление пользователя
+ * отзывают все его токены ({@link #revokeAll}), обмен проверяет, что владелец
+ * существует под тем же логином.
+ * Метрика auth.refresh (result=success|reused|expired|unknown|user_deleted).
+ */
+@Service
+public class RefreshTokenService {
+    private static final Logger LOGGER =
+            LoggerFactory.getLogger(RefreshTokenService.class.getSimpleName());
+    private static final int TOKEN_BYTES = 32;
+
+    private final SecureRandom random = new SecureRandom();
+    private final RefreshTokenRepository refreshTokens;
+    private final PersonRepository persons;
+    private final Duration ttl;
+    private final ResultTimers timers;
+
+    /**
+     * Конструктор
+     * @param refreshTokens хранилище токенов обновления
+     * @param persons хранилище пользователей, удалённый или переименованный
+     *                пользователь не получает токен
+     * @param ttl время жизни токена обновления
+     * @param registry реестр метрик, таймер auth.refresh
+     */
+    public RefreshTokenService(RefreshTokenRepository refreshTokens,
+                               PersonRepository persons,
+                               @Value("${jwt.refresh-token.ttl:P30D}") Duration ttl,
+                               MeterRegistry registry) {
+        this.refreshTokens = refreshTokens;
+        this.persons = persons;
+        this.ttl = ttl;
+        this.timers = new ResultTimers(registry, "auth.refresh", "Refresh token rotation",
+                Tags.empty(), "success", "reused", "expired", "unknown", "user_deleted");
+    }
+
+    /**
+     * Результат обмена токена обновления
+     * @param login владелец токена
+     * @param refreshToken новый токен обновления
+     */
+    public record Rotated(String login, String refreshToken) {
+    }
+
+    /**
+     * Выдать токен обновления после входа по паролю, начинается новая цепочка
+     * @param login логин пользователя
+     * @return токен обновления, передаётся клиенту один раз
+     * @throws UsernameNotFoundException если пользователь удалён после входа
+     */
+    @Transactional
+    public String issue(String login) {
+        Person person = persons.findByNaturalId(login)
+                .orElseThrow(() -> new UsernameNotFoundException(login));
+        return save(UUID.randomUUID().toString(), person.getId(), login);
+    }
+
+    /**
+     * Обменять токен обновления на новый. Из одновременных обменов одного токена
+     * успешен только один.
+     * @param token токен обновления от клиента
+     * @return логин и новый токен; пусто - токен неизвестен, истёк, уже использован
+     * (цепочка при этом удаляется), пользователь удалён или сменил логин
+     */
+    @Transactional
+    public Optional<Rotated> rotate(String token) {
+        long start = timers.start();
+        String result = "unknown";
+        try {
+            String hash = hash(token);
+            Instant now = Instant.now();
+            if (refreshTokens.markUsed(hash, now) == 0) {
+                result = refreshTokens.findById(hash)
+                        .map(stored -> stored.isUsed() ? reused(stored) : "expired")
+                        .orElse("unknown");
+                return Optional.empty();
+            }
+            RefreshToken used = refreshTokens.findById(hash).orElseThrow();
+            if (persons.findById(used.getPersonId())
+                    .filter(owner -> owner.getLogin().equals(used.getLogin())).isEmpty()) {
+                refreshTokens.deleteByFamily(used.getFamily());
+                result = "user_deleted";
+                return Optional.empty();
+            }
+            result = "success";
+            return Optional.of(new Rotated(used.getLogin(),
+                    save(used.getFamily(), used.getPersonId(), used.getLogin())));
+        } finally {
+            timers.stop(start, result);
+        }
+    }
+
+    /**
+     * Отозвать цепочку токена обновления, например при выходе
+     * @param token токен обновления от клиента
+     * @return true - цепочка удалена, false - токен неизвестен
+     */
+    @Transactional
+    public boolean revoke(String token) {
+        return refreshTokens.findById(hash(token))
+                .map(stored -> refreshTokens.deleteByFamily(stored.getFamily()) > 0)
+                .orElse(false);
+    }
+
+    /**
+     * Отозвать все токены обновления пользователя: изменён пароль или логин,
+     * пользователь удалён. Иначе украденный токен пережил бы смену пароля.
+     * Перехеширование того же пароля токены не отзывает.
+     * @param personId идентификатор пользователя
+     * @return количество удалённых токенов
+     */
+    @Transactional
+    public int revokeAll(int personId) {
+        return refreshTokens.deleteByPersonId(personId);
+    }
+
+    /**
+     * Удалить истёкшие токены
+     */
+    @Scheduled(fixedDelayString = "${jwt.refresh-token.prune-period:PT1H}",
+            initialDelayString = "${jwt.refresh-token.prune-period:PT1H}")
+    public void prune() {
+        int pruned = refreshTokens.deleteExpired(Instant.now());
+        if (pruned > 0) {
+            LOGGER.info("Pruned {} expired refresh tokens", pruned);
+        }
+    }
+
+    private String reused(RefreshToken stored) {
+        int deleted = refreshTokens.deleteByFamily(stored.getFamily());
+        LOGGER.warn("Refresh token reuse for login {}, revoked {} tokens of family {}",
+                stored.getLogin(), deleted, stored.getFamily());
+        return "reused";
+    }
+
+    private String save(String family, int personId, String login) {
+        byte[] bytes = new byte[TOKEN_BYTES];
+        random.nextBytes(bytes);
+        String token = Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+        refreshTokens.save(new RefreshToken(hash(token), family, personId, login,
+                Instant.now().plus(ttl), false));
+        return token;
+    }
+
+    /**
+     * SHA-256 в hex. Соль не нужна: токен случайный и длинный, перебор невозможен
+     */
+    private static String hash(String token) {
+        try {
+            return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256")
+                    .digest(token.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,155 @@
+package ru.job4j.auth.service;
+
+import com.auth0.jwt.interfaces.DecodedJWT;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import ru.job4j.auth.model.RevokedToken;
+import ru.job4j.auth.repository.RevokedTokenRepository;
+import ru.job4j.auth.util.BloomFilter;
+
+import javax.annotation.PostConstruct;
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * Зеленский Н. aka Nike Z.
+ * Отзыв JWT по claim jti. Отозванные токены хранятся в таблице revoked_token
+ * до своего exp, в памяти - фильтр Блума по их jti. Проверка токена, которого нет
+ * в фильтре, не обращается к БД; в БД проверяются только совпадения фильтра.
+ * Раз в jwt.revocation.refresh-period истёкшие записи удаляются, а фильтр
+ * перестраивается из таблицы: так он не растёт и видит отзывы других экземпляров
+ * сервиса (с задержкой не больше периода).
+ * Метрика auth.jwt.revocation.lookups (result=revoked|false_positive) - обращения к БД.
+ */
+@Service
+public class TokenRevocationService {
+    private static final Logger LOGGER =
+            LoggerFactory.getLogger(TokenRevocationService.class.getSimpleName());
+
+    private final RevokedTokenRepository revoked;
+    private final long expectedInsertions;
+    private final double falsePositiveRate;
+    private final Counter revokedLookups;
+    private final Counter falsePositives;
+
+    private volatile BloomFilter filter;
+    private volatile BloomFilter building;
+
+    /**
+     * Конструктор
+     * @param revoked хранилище отозванных токенов
+     * @param expectedInsertions на сколько отозванных токенов рассчитан фильтр
+     * @param falsePositiveRate доля проверок, которые зря идут в БД
+     * @param registry реестр метрик
+     */
+    public TokenRevocationService(
+            RevokedTokenRepository revoked,
+            @Value("${jwt.revocation.bloom.expected-insertions:1000000}") long expectedInsertions,
+            @Value("${jwt.revocation.bloom.false-positive-rate:0.01}") double falsePositiveRate,
+            MeterRegistry registry) {
+        this.revoked = revoked;
+        this.expectedInsertions = expectedInsertions;
+        this.falsePositiveRate = falsePositiveRate;
+        this.filter = new BloomFilter(expectedInsertions, falsePositiveRate);
+        this.revokedLookups = lookups(registry, "revoked");
+        this.falsePositives = lookups(registry, "false_positive");
+    }
+
+    /**
+     * Заполнить фильтр отозванными токенами из БД при старте
+     */
+    @PostConstruct
+    public void load() {
+        rebuild();
+    }
+
+    /**
+     * Удалить истёкшие записи и перестроить фильтр
+     */
+    @Scheduled(fixedDelayString = "${jwt.revocation.refresh-period:PT1M}",
+            initialDelayString = "${jwt.revocation.refresh-period:PT1M}")
+    public void refresh() {
+        int pruned = revoked.deleteExpired(Instant.now());
+        if (pruned > 0) {
+            LOGGER.info("Pruned {} expired revoked tokens", pruned);
+        }
+        rebuild();
+    }
+
+    /**
+     * Отозвать токен до его истечения
+     * @param jwt проверенный токен
+     * @return true - отозван, false - в токене нет jti (выпущен до появления отзыва)
+     */
+    public boolean revoke(DecodedJWT jwt) {
+        String jti = jwt.getId();
+        if (jti == null) {
+            return false;
+        }
+        revoked.save(new RevokedToken(jti, jwt.getExpiresAt().toInstant()));
+        /* read building before filter: rebuild swaps filter before clearing building */
+        BloomFilter next = building;
+        if (next != null) {
+            next.put(jti);
+        }
+        filter.put(jti);
+        return true;
+    }
+
+    /**
+     * Быстрая проверка в памяти
+     * @param jti идентификатор токена, null - токен без jti
+     * @return false - токен точно не отозван, true - нужна точная проверка {@link #isRevoked}
+     */
+    public boolean mightBeRevoked(String jti) {
+        return jti != null && filter.mightContain(jti);
+    }
+
+    /**
+     * Точная проверка: фильтр, затем при совпадении - БД (блокирующий вызов).
+     * Транзакция не только для чтения: проверка идёт на основную БД,
+     * реплика может ещё не знать о только что отозванном токене.
+     * @param jti идентификатор токена, null - токен без jti
+     * @return true - токен отозван
+     */
+    @Transactional
+    public boolean isRevoked(String jti) {
+        if (!mightBeRevoked(jti)) {
+            return false;
+        }
+        boolean result = revoked.existsById(jti);
+        (result ? revokedLookups : falsePositives).increment();
+        return result;
+    }
+
+    /**
+     * Новый фильтр заполняется из таблицы, отзывы во время заполнения попадают
+     * в оба фильтра, затем новый фильтр заменяет старый. Порядок записей
+     * building - filter - building согласован с {@link #revoke}
+     */
+    private synchronized void rebuild() {
+        BloomFilter next = new BloomFilter(expectedInsertions, falsePositiveRate);
+        building = next;
+        List<String> all = revoked.findAllJti();
+        all.forEach(next::put);
+        filter = next;
+        building = null;
+        if (all.size() > expectedInsertions) {
+            LOGGER.warn("{} revoked tokens exceed jwt.revocation.bloom.expected-insertions={},"
+                    + " false positive rate grows", all.size(), expectedInsertions);
+        }
+    }
+
+    private static Counter lookups(MeterRegistry registry, String result) {
+        return Counter.builder("auth.jwt.revocation.lookups")
+                .description("Revocation lookups in the database after a Bloom filter match")
+                .tag("result", result)
+                .register(registry);
+    }
+}
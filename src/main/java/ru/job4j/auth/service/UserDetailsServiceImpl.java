@@ -1,26 +1,30 @@
 package ru.job4j.auth.service;
 
-import org.springframework.security.core.userdetails.User;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.stereotype.Service;
+import ru.job4j.auth.cache.UserDetailsCache;
+import ru.job4j.auth.jfr.UserLookupEvent;
 import ru.job4j.auth.model.Person;
 
 import java.util.List;
 
-import static java.util.Collections.emptyList;
-
 @Service
 public class UserDetailsServiceImpl implements UserDetailsService {
     private PersonService persons;
+    private UserDetailsCache cache;
 
-    public UserDetailsServiceImpl(PersonService personService) {
+    public UserDetailsServiceImpl(PersonService personService, UserDetailsCache cache) {
         this.persons = personService;
+        this.cache = cache;
     }
 
     /**
-     * Поиск пользователя в хранилище по логину
+     * Поиск пользователя в хранилище по логину через кэш, с событием JFR.
+     * Недавно записанный на этом экземпляре логин (регистрация, смена пароля или логина)
+     * читается с основной БД: реплика могла ещё не получить изменение. Остальные логины
+     * читаются только с реплики, неизвестный логин стоит одного запроса к ней.
      * @param username - строка с логином пользователя
      * @return тип {@link org.springframework.security.core.userdetails.User}
      *  детальная информация о пользователе для авторизации
@@ -28,11 +32,27 @@ public class UserDetailsServiceImpl implements UserDetailsService {
      */
     @Override
     public UserDetails loadUserByUsername(String username) throws UsernameNotFoundException {
-        Person user = persons.findByLogin(username).orElse(null);
+        UserLookupEvent event = new UserLookupEvent();
+        event.begin();
+        boolean[] miss = new boolean[1];
+        UserDetails user;
+        try {
+            user = cache.get(username, login -> {
+                miss[0] = true;
+                if (cache.isRecentlyWritten(login)) {
+                    return persons.findByLoginOnPrimary(login).orElse(null);
+                }
+                return persons.findByLogin(login).orElse(null);
+            });
+        } catch (RuntimeException e) {
+            event.end(username, !miss[0], "error");
+            throw e;
+        }
+        event.end(username, !miss[0], user == null ? "not_found" : "found");
         if (user == null) {
             throw new UsernameNotFoundException(username);
         }
-        return new User(user.getLogin(), user.getPassword(), emptyList());
+        return user;
     }
 
     /**
@@ -0,0 +1,99 @@
+package ru.job4j.auth.util;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Зеленский Н. aka Nike Z.
+ * Фильтр Блума для строк: ответ "точно нет" или "возможно есть".
+ * Биты хранятся в {@link AtomicLongArray}, добавление и проверка не блокируют друг друга.
+ * Удалять значения нельзя - фильтр перестраивается целиком.
+ */
+public class BloomFilter {
+    private static final long FNV_OFFSET = 0xcbf29ce484222325L;
+    private static final long FNV_PRIME = 0x100000001b3L;
+    private static final long GOLDEN = 0x9e3779b97f4a7c15L;
+
+    private final AtomicLongArray words;
+    private final long bits;
+    private final int hashes;
+
+    /**
+     * Конструктор, размер и число хеш-функций считаются по ожидаемому числу значений
+     * @param expectedInsertions сколько значений ожидается
+     * @param falsePositiveRate допустимая доля ложных "возможно есть", от 0 до 1
+     */
+    public BloomFilter(long expectedInsertions, double falsePositiveRate) {
+        if (expectedInsertions < 1 || falsePositiveRate <= 0 || falsePositiveRate >= 1) {
+            throw new IllegalArgumentException(
+                    "expected insertions must be positive and false positive rate in (0, 1)");
+        }
+        double ln2 = Math.log(2);
+        long optimal = (long) Math.ceil(
+                -expectedInsertions * Math.log(falsePositiveRate) / (ln2 * ln2));
+        int length = (int) Math.min(Integer.MAX_VALUE - 8, (optimal + Long.SIZE - 1) / Long.SIZE);
+        this.words = new AtomicLongArray(length);
+        this.bits = (long) length * Long.SIZE;
+        this.hashes = Math.max(1, (int) Math.round((double) bits / expectedInsertions * ln2));
+    }
+
+    /**
+     * Добавить значение
+     * @param value значение
+     */
+    public void put(String value) {
+        long hash = fnv(value);
+        long h1 = mix(hash);
+        long h2 = mix(hash + GOLDEN) | 1;
+        for (int i = 0; i < hashes; i++) {
+            long index = Math.floorMod(h1 + i * h2, bits);
+            int word = (int) (index >>> 6);
+            long mask = 1L << index;
+            if ((words.get(word) & mask) == 0) {
+                words.getAndAccumulate(word, mask, (current, bit) -> current | bit);
+            }
+        }
+    }
+
+    /**
+     * Проверить значение
+     * @param value значение
+     * @return false - значение точно не добавлялось, true - возможно добавлялось
+     */
+    public boolean mightContain(String value) {
+        long hash = fnv(value);
+        long h1 = mix(hash);
+        long h2 = mix(hash + GOLDEN) | 1;
+        for (int i = 0; i < hashes; i++) {
+            long index = Math.floorMod(h1 + i * h2, bits);
+            if ((words.get((int) (index >>> 6)) & (1L << index)) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Размер фильтра
+     * @return количество бит
+     */
+    public long bitSize() {
+        return bits;
+    }
+
+    private static long fnv(String value) {
+        long hash = FNV_OFFSET;
+        for (int i = 0; i < value.length(); i++) {
+            hash = (hash ^ value.charAt(i)) * FNV_PRIME;
+        }
+        return hash;
+    }
+
+    /**
+     * Перемешивание MurmurHash3 (fmix64): каждый бит результата зависит от всех бит входа
+     */
+    private static long mix(long hash) {
+        hash = (hash ^ (hash >>> 33)) * 0xff51afd7ed558ccdL;
+        hash = (hash ^ (hash >>> 33)) * 0xc4ceb9fe1a85ec53L;
+        return hash ^ (hash >>> 33);
+    }
+}
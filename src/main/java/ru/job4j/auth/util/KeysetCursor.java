@@ -0,0 +1,43 @@
+package ru.job4j.auth.util;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * Зеленский Н. aka Nike Z.
+ * Непрозрачный курсор для постраничного вывода по ключу id.
+ * Клиент получает курсор в ответе и передаёт его без изменений.
+ */
+public class KeysetCursor {
+    private static final String PREFIX = "id:";
+
+    private KeysetCursor() {
+    }
+
+    /**
+     * Закодировать последний id страницы в курсор
+     * @param lastId id последней записи страницы
+     * @return строка курсора (base64url)
+     */
+    public static String encode(int lastId) {
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString((PREFIX + lastId).getBytes(StandardCharsets.US_ASCII));
+    }
+
+    /**
+     * Раскодировать курсор
+     * @param cursor строка курсора, null или пустая строка - первая страница
+     * @return id последней записи предыдущей страницы, 0 - для первой страницы
+     * @throws IllegalArgumentException если курсор повреждён
+     */
+    public static int decode(String cursor) {
+        if (cursor == null || cursor.isEmpty()) {
+            return 0;
+        }
+        String value = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.US_ASCII);
+        if (!value.startsWith(PREFIX)) {
+            throw new IllegalArgumentException("Invalid cursor: " + cursor);
+        }
+        return Integer.parseInt(value.substring(PREFIX.length()));
+    }
+}
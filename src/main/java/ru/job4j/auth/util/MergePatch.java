@@ -0,0 +1,182 @@
+package ru.job4j.auth.util;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import org.springframework.stereotype.Component;
+
+import java.beans.IntrospectionException;
+import java.beans.Introspector;
+import java.beans.PropertyDescriptor;
+import java.io.IOException;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * Зеленский Н. aka Nike Z.
+ * Применение JSON Merge Patch (RFC 7396) к объекту.
+ * Свойства класса (геттеры и сеттеры) находятся один раз на класс
+ * и хранятся как {@link java.lang.invoke.MethodHandle}, на каждый запрос
+ * остаются только вызовы дескрипторов и разбор значений.
+ */
+@Component
+public class MergePatch {
+    private static final MethodType GETTER = MethodType.methodType(Object.class, Object.class);
+    private static final MethodType SETTER =
+            MethodType.methodType(void.class, Object.class, Object.class);
+
+    private final ObjectMapper mapper;
+
+    private final ClassValue<Map<String, Property>> properties = new ClassValue<>() {
+        @Override
+        protected Map<String, Property> computeValue(Class<?> type) {
+            return resolve(type);
+        }
+    };
+
+    public MergePatch(ObjectMapper mapper) {
+        this.mapper = mapper;
+    }
+
+    /**
+     * Применить патч к объекту.
+     * null в патче обнуляет свойство, вложенный объект сливается рекурсивно,
+     * остальные значения заменяют текущие.
+     * @param target изменяемый объект
+     * @param patch JSON объект патча
+     * @param <T> тип объекта
+     * @return имена изменённых свойств верхнего уровня, пусто - объект не изменился
+     * @throws IllegalArgumentException если свойства нет, оно только для чтения
+     * или значение не подходит по типу
+     */
+    public <T> Set<String> apply(T target, ObjectNode patch) {
+        Map<String, Property> byName = properties.get(target.getClass());
+        Set<String> changed = new LinkedHashSet<>();
+        Iterator<Map.Entry<String, JsonNode>> fields = patch.fields();
+        while (fields.hasNext()) {
+            Map.Entry<String, JsonNode> field = fields.next();
+            Property property = byName.get(field.getKey());
+            if (property == null || property.setter == null) {
+                throw new IllegalArgumentException(
+                        "Property " + field.getKey() + " can't be patched");
+            }
+            if (merge(target, property, field.getValue())) {
+                changed.add(property.name);
+            }
+        }
+        return changed;
+    }
+
+    private boolean merge(Object target, Property property, JsonNode value) {
+        Object current = property.get(target);
+        if (value.isObject() && current != null && !property.scalar) {
+            return !apply(current, (ObjectNode) value).isEmpty();
+        }
+        Object next = property.read(value);
+        if (Objects.equals(current, next)) {
+            return false;
+        }
+        property.set(target, next);
+        return true;
+    }
+
+    private Map<String, Property> resolve(Class<?> type) {
+        PropertyDescriptor[] descriptors;
+        try {
+            descriptors = Introspector.getBeanInfo(type, Object.class).getPropertyDescriptors();
+        } catch (IntrospectionException e) {
+            throw new IllegalStateException("Can't resolve properties of " + type, e);
+        }
+        MethodHandles.Lookup lookup = MethodHandles.publicLookup();
+        Map<String, Property> result = new HashMap<>();
+        for (PropertyDescriptor descriptor : descriptors) {
+            if (descriptor.getReadMethod() == null) {
+                continue;
+            }
+            try {
+                MethodHandle getter = lookup.unreflect(descriptor.getReadMethod()).asType(GETTER);
+                MethodHandle setter = descriptor.getWriteMethod() == null ? null
+                        : lookup.unreflect(descriptor.getWriteMethod()).asType(SETTER);
+                Class<?> propertyType = descriptor.getPropertyType();
+                result.put(descriptor.getName(), new Property(descriptor.getName(),
+                        propertyType.isPrimitive(), isScalar(propertyType), getter, setter,
+                        mapper.readerFor(propertyType)));
+            } catch (IllegalAccessException e) {
+                throw new IllegalStateException("Can't access property "
+                        + descriptor.getName() + " of " + type, e);
+            }
+        }
+        return Collections.unmodifiableMap(result);
+    }
+
+    private static boolean isScalar(Class<?> type) {
+        return type.isPrimitive() || type.isEnum() || type.isArray()
+                || type.getName().startsWith("java.");
+    }
+
+    /**
+     * Свойство класса: дескрипторы доступа и разборщик значения
+     */
+    private static final class Property {
+        private final String name;
+        private final boolean primitive;
+        private final boolean scalar;
+        private final MethodHandle getter;
+        private final MethodHandle setter;
+        private final ObjectReader reader;
+
+        private Property(String name, boolean primitive, boolean scalar,
+                         MethodHandle getter, MethodHandle setter, ObjectReader reader) {
+            this.name = name;
+            this.primitive = primitive;
+            this.scalar = scalar;
+            this.getter = getter;
+            this.setter = setter;
+            this.reader = reader;
+        }
+
+        private Object get(Object target) {
+            try {
+                return (Object) getter.invokeExact(target);
+            } catch (RuntimeException | Error e) {
+                throw e;
+            } catch (Throwable e) {
+                throw new IllegalStateException(e);
+            }
+        }
+
+        private void set(Object target, Object value) {
+            try {
+                setter.invokeExact(target, value);
+            } catch (RuntimeException | Error e) {
+                throw e;
+            } catch (Throwable e) {
+                throw new IllegalStateException(e);
+            }
+        }
+
+        private Object read(JsonNode value) {
+            if (value.isNull()) {
+                if (primitive) {
+                    throw new IllegalArgumentException("Property " + name + " can't be null");
+                }
+                return null;
+            }
+            try {
+                return reader.readValue(value);
+            } catch (IOException e) {
+                throw new IllegalArgumentException(
+                        "Invalid value of property " + name + ": " + e.getMessage(), e);
+            }
+        }
+    }
+}
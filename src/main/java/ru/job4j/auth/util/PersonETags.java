@@ -0,0 +1,61 @@
+package ru.job4j.auth.util;
+
+import ru.job4j.auth.model.Person;
+import ru.job4j.auth.model.PersonPage;
+
+/**
+ * Зеленский Н. aka Nike Z.
+ * ETag ответов GET /person/{id} и GET /person/.
+ * Любое изменение строки person увеличивает её version, поэтому пара id и version
+ * однозначно определяет тело ответа пользователя, а набор таких пар страницы вместе
+ * с признаком hasMore (водяной знак страницы) - тело ответа страницы.
+ * ETag вычисляется без сериализации, по совпадению с If-None-Match
+ * Spring отвечает 304 до записи тела.
+ * ETag пользователя сильный. ETag страницы слабый: большие страницы сжимаются gzip,
+ * а сжатое тело с тем же сильным ETag нарушало бы его смысл (Tomcat такие ответы
+ * не сжимает); If-None-Match сравнивается слабо, поэтому 304 работает и для него.
+ */
+public class PersonETags {
+    private static final long FNV_OFFSET = 0xcbf29ce484222325L;
+    private static final long FNV_PRIME = 0x100000001b3L;
+
+    private PersonETags() {
+    }
+
+    /**
+     * ETag пользователя
+     * @param person пользователь
+     * @return "id-version"
+     */
+    public static String of(Person person) {
+        return "\"" + person.getId() + "-" + version(person) + "\"";
+    }
+
+    /**
+     * ETag страницы: 64-битный хэш FNV-1a пар id и version пользователей страницы
+     * и признака hasMore; курсор и размер страницы входят в URL запроса
+     * @param page страница
+     * @return W/"p-хэш в hex"
+     */
+    public static String of(PersonPage page) {
+        long hash = FNV_OFFSET;
+        for (Person person : page.getItems()) {
+            hash = mix(hash, person.getId());
+            hash = mix(hash, version(person));
+        }
+        hash = mix(hash, page.isHasMore() ? 1 : 0);
+        return "W/\"p-" + Long.toHexString(hash) + "\"";
+    }
+
+    private static int version(Person person) {
+        return person.getVersion() == null ? 0 : person.getVersion();
+    }
+
+    private static long mix(long hash, int value) {
+        long result = hash;
+        for (int shift = 0; shift < Integer.SIZE; shift += Byte.SIZE) {
+            result = (result ^ (value >>> shift & 0xff)) * FNV_PRIME;
+        }
+        return result;
+    }
+}
@@ -0,0 +1,64 @@
+package ru.job4j.auth.util;
+
+import io.micrometer.core.instrument.Clock;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Зеленский Н. aka Nike Z.
+ * Таймеры одной метрики с тегом result, зарегистрированные при создании для всех
+ * возможных результатов. Замер - чтение часов реестра и поиск в неизменяемой карте,
+ * без построителя таймера, тегов и поиска в реестре на каждый запрос.
+ */
+public class ResultTimers {
+    private final Clock clock;
+    private final Map<String, Timer> timers;
+
+    /**
+     * Конструктор
+     * @param registry реестр метрик
+     * @param name имя метрики
+     * @param description описание метрики
+     * @param tags общие теги всех таймеров, кроме result
+     * @param results все значения тега result
+     */
+    public ResultTimers(MeterRegistry registry, String name, String description, Tags tags,
+                        String... results) {
+        this.clock = registry.config().clock();
+        this.timers = Arrays.stream(results).collect(Collectors.toUnmodifiableMap(
+                Function.identity(), result -> Timer.builder(name)
+                        .description(description)
+                        .tags(tags)
+                        .tag("result", result)
+                        .register(registry)));
+    }
+
+    /**
+     * Начало замера
+     * @return показание монотонных часов реестра
+     */
+    public long start() {
+        return clock.monotonicTime();
+    }
+
+    /**
+     * Записать время с начала замера
+     * @param start значение {@link #start()}
+     * @param result значение тега result, одно из переданных в конструктор
+     * @throws IllegalArgumentException если результат не зарегистрирован
+     */
+    public void stop(long start, String result) {
+        Timer timer = timers.get(result);
+        if (timer == null) {
+            throw new IllegalArgumentException("Unknown result " + result);
+        }
+        timer.record(clock.monotonicTime() - start, TimeUnit.NANOSECONDS);
+    }
+}
@@ -0,0 +1,30 @@
+package ru.job4j.auth.websecurity;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.core.Authentication;
+import org.springframework.stereotype.Component;
+
+import java.util.Set;
+
+/**
+ * Зеленский Н. aka Nike Z.
+ * Администраторы сервиса - логины из свойства admin.logins через запятую.
+ * Используется в правилах доступа WebSecurity для /admin/**.
+ */
+@Component
+public class AdminLogins {
+    private final Set<String> logins;
+
+    public AdminLogins(@Value("${admin.logins:}") Set<String> logins) {
+        this.logins = Set.copyOf(logins);
+    }
+
+    /**
+     * Проверка прав администратора
+     * @param authentication аутентификация запроса
+     * @return true - пользователь администратор
+     */
+    public boolean isAdmin(Authentication authentication) {
+        return authentication != null && logins.contains(authentication.getName());
+    }
+}
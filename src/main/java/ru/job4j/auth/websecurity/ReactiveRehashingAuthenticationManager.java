@@ -0,0 +1,76 @@
+package ru.job4j.auth.websecurity;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.security.authentication.BadCredentialsException;
+import org.springframework.security.authentication.ReactiveAuthenticationManager;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+import ru.job4j.auth.crypto.BoundedPasswordEncoder;
+import ru.job4j.auth.model.Person;
+import ru.job4j.auth.service.ReactivePersonService;
+
+import java.util.ArrayList;
+
+/**
+ * Зеленский Н. aka Nike Z.
+ * Проверка логина и пароля для WebFlux (профиль reactive), вариант
+ * {@link RehashingAuthenticationProvider}. Пользователь читается через R2DBC,
+ * сравнение хеша ждёт пул хеширования и поэтому идёт на Schedulers.boundedElastic(),
+ * а не в event loop. Устаревший хеш перехешируется в фоне.
+ */
+public class ReactiveRehashingAuthenticationManager implements ReactiveAuthenticationManager {
+    private static final Logger LOGGER =
+            LoggerFactory.getLogger(ReactiveRehashingAuthenticationManager.class.getSimpleName());
+
+    private final ReactivePersonService persons;
+    private final BoundedPasswordEncoder encoder;
+
+    /**
+     * Конструктор
+     * @param persons сервис пользователей: чтение и сохранение нового хеша
+     * @param encoder шифровальщик паролей
+     */
+    public ReactiveRehashingAuthenticationManager(ReactivePersonService persons,
+                                                  BoundedPasswordEncoder encoder) {
+        this.persons = persons;
+        this.encoder = encoder;
+    }
+
+    @Override
+    public Mono<Authentication> authenticate(Authentication authentication) {
+        String login = authentication.getName();
+        Object credentials = authentication.getCredentials();
+        CharSequence password = credentials instanceof CharSequence
+                ? (CharSequence) credentials : String.valueOf(credentials);
+        return persons.findByLogin(login)
+                .publishOn(Schedulers.boundedElastic())
+                .filter(person -> encoder.matches(password, person.getPassword()))
+                .switchIfEmpty(Mono.error(() -> new BadCredentialsException("Bad credentials")))
+                .map(person -> {
+                    upgrade(person, password);
+                    return new UsernamePasswordAuthenticationToken(
+                            login, null, new ArrayList<>());
+                });
+    }
+
+    /**
+     * Пароль копируется в строку: перехеширование идёт в фоне, когда фильтр входа
+     * уже стёр исходный пароль
+     */
+    private void upgrade(Person person, CharSequence password) {
+        String encoded = person.getPassword();
+        if (!encoder.upgradeEncoding(encoded)) {
+            return;
+        }
+        String login = person.getLogin();
+        boolean accepted = encoder.upgradeAsync(password.toString(), upgraded ->
+                persons.updatePassword(login, encoded, upgraded).subscribe(null, e ->
+                        LOGGER.error("Password rehash for {} failed: {}", login, e.getMessage())));
+        if (!accepted) {
+            LOGGER.debug("Password rehash for {} skipped, hashing pool is busy", login);
+        }
+    }
+}
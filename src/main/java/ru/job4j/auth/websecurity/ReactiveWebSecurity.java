@@ -0,0 +1,110 @@
+package ru.job4j.auth.websecurity;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.context.annotation.Bean;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.security.authorization.AuthorizationDecision;
+import org.springframework.security.authorization.ReactiveAuthorizationManager;
+import org.springframework.security.config.annotation.web.reactive.EnableWebFluxSecurity;
+import org.springframework.security.config.web.server.SecurityWebFiltersOrder;
+import org.springframework.security.config.web.server.ServerHttpSecurity;
+import org.springframework.security.web.server.SecurityWebFilterChain;
+import org.springframework.security.web.server.authentication.HttpStatusServerEntryPoint;
+import org.springframework.security.web.server.authorization.AuthorizationContext;
+import org.springframework.security.web.server.context.NoOpServerSecurityContextRepository;
+import org.springframework.security.web.server.util.matcher.ServerWebExchangeMatcher.MatchResult;
+import org.springframework.web.cors.CorsConfiguration;
+import org.springframework.web.cors.reactive.CorsConfigurationSource;
+import org.springframework.web.cors.reactive.UrlBasedCorsConfigurationSource;
+import ru.job4j.auth.crypto.BoundedPasswordEncoder;
+import ru.job4j.auth.filter.CredentialsParser;
+import ru.job4j.auth.filter.JWTAuthenticationWebFilter;
+import ru.job4j.auth.filter.JWTAuthorizationWebFilter;
+import ru.job4j.auth.filter.JwtTokens;
+import ru.job4j.auth.ratelimit.LoginRateLimiter;
+import ru.job4j.auth.service.ReactivePersonService;
+import ru.job4j.auth.service.RefreshTokenService;
+import ru.job4j.auth.service.TokenRevocationService;
+
+import java.net.InetSocketAddress;
+
+import static ru.job4j.auth.controller.JwksController.JWKS_URL;
+import static ru.job4j.auth.filter.JWTAuthenticationFilter.REFRESH_URL;
+import static ru.job4j.auth.filter.JWTAuthenticationFilter.SIGN_UP_URL;
+
+/**
+ * Зеленский Н. aka Nike Z.
+ * Правила доступа WebFlux (профиль reactive), те же, что в {@link WebSecurity}:
+ * без сессий, вход по POST /login, остальные запросы - с JWT в заголовке Authorization.
+ */
+@EnableWebFluxSecurity
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+@RequiredArgsConstructor
+public class ReactiveWebSecurity {
+    private final ReactivePersonService personService;
+    private final BoundedPasswordEncoder passwordEncoder;
+    private final JwtTokens jwtTokens;
+    private final RefreshTokenService refreshTokens;
+    private final TokenRevocationService tokenRevocations;
+    private final LoginRateLimiter loginRateLimiter;
+    private final CredentialsParser credentialsParser;
+    private final MeterRegistry meterRegistry;
+
+    @Value("${management.server.port:-1}")
+    private int managementPort;
+
+    @Bean
+    SecurityWebFilterChain securityWebFilterChain(ServerHttpSecurity http,
+                                                  AdminLogins adminLogins) {
+        ReactiveAuthorizationManager<AuthorizationContext> admin =
+                (authentication, context) -> authentication
+                        .map(auth -> new AuthorizationDecision(adminLogins.isAdmin(auth)))
+                        .defaultIfEmpty(new AuthorizationDecision(false));
+        return http.cors().and().csrf().disable()
+                .httpBasic().disable()
+                .formLogin().disable()
+                .logout().disable()
+                /* stateless: the security context lives only within the request */
+                .securityContextRepository(NoOpServerSecurityContextRepository.getInstance())
+                .exceptionHandling()
+                .authenticationEntryPoint(new HttpStatusServerEntryPoint(HttpStatus.FORBIDDEN))
+                .and()
+                .authorizeExchange()
+                .pathMatchers(HttpMethod.POST, SIGN_UP_URL, REFRESH_URL).permitAll()
+                .pathMatchers(HttpMethod.GET, "/actuator/health").permitAll()
+                .matchers(exchange -> isManagementPort(exchange.getRequest().getLocalAddress())
+                        ? MatchResult.match() : MatchResult.notMatch()).permitAll()
+                .pathMatchers("/actuator/**").access(admin)
+                .pathMatchers(HttpMethod.GET, JWKS_URL).permitAll()
+                .pathMatchers("/admin/**").access(admin)
+                .anyExchange().authenticated()
+                .and()
+                .addFilterAt(new JWTAuthenticationWebFilter(
+                        new ReactiveRehashingAuthenticationManager(personService, passwordEncoder),
+                        credentialsParser, jwtTokens, refreshTokens, loginRateLimiter,
+                        meterRegistry),
+                        SecurityWebFiltersOrder.AUTHENTICATION)
+                .addFilterAt(new JWTAuthorizationWebFilter(jwtTokens, tokenRevocations),
+                        SecurityWebFiltersOrder.HTTP_BASIC)
+                .build();
+    }
+
+    /**
+     * Как в {@link WebSecurity}: без токена метрики читаются только
+     * на отдельном порту actuator
+     */
+    private boolean isManagementPort(InetSocketAddress local) {
+        return managementPort > 0 && local != null && local.getPort() == managementPort;
+    }
+
+    @Bean
+    CorsConfigurationSource corsConfigurationSource() {
+        final UrlBasedCorsConfigurationSource source = new UrlBasedCorsConfigurationSource();
+        source.registerCorsConfiguration("/**", new CorsConfiguration().applyPermitDefaultValues());
+        return source;
+    }
+}
@@ -0,0 +1,73 @@
+package ru.job4j.auth.websecurity;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.security.authentication.BadCredentialsException;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.authentication.dao.DaoAuthenticationProvider;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsService;
+import ru.job4j.auth.crypto.BoundedPasswordEncoder;
+import ru.job4j.auth.service.PersonService;
+
+/**
+ * Провайдер аутентификации по логину и паролю.
+ * После успешного входа хеш пароля с устаревшими параметрами
+ * (без префикса {id} или с меньшей стоимостью BCrypt) перехешируется
+ * в фоне, ответ на вход этого не ждёт.
+ */
+public class RehashingAuthenticationProvider extends DaoAuthenticationProvider {
+    private static final Logger LOGGER =
+            LoggerFactory.getLogger(RehashingAuthenticationProvider.class.getSimpleName());
+
+    private final BoundedPasswordEncoder encoder;
+    private final PersonService persons;
+
+    /**
+     * Конструктор
+     * @param userDetailsService сервис загрузки пользователя
+     * @param encoder шифровальщик паролей
+     * @param persons сервис пользователей для сохранения нового хеша
+     */
+    public RehashingAuthenticationProvider(UserDetailsService userDetailsService,
+                                           BoundedPasswordEncoder encoder,
+                                           PersonService persons) {
+        this.encoder = encoder;
+        this.persons = persons;
+        setUserDetailsService(userDetailsService);
+        setPasswordEncoder(encoder);
+    }
+
+    /**
+     * Как в {@link DaoAuthenticationProvider}, но пароль {@link ru.job4j.auth.crypto.RawPassword}
+     * передаётся шифровальщику как есть, без копирования в строку
+     */
+    @Override
+    protected void additionalAuthenticationChecks(
+            UserDetails user, UsernamePasswordAuthenticationToken authentication) {
+        Object credentials = authentication.getCredentials();
+        CharSequence presented = credentials instanceof CharSequence
+                ? (CharSequence) credentials : null;
+        if (presented == null || !encoder.matches(presented, user.getPassword())) {
+            throw new BadCredentialsException(messages.getMessage(
+                    "AbstractUserDetailsAuthenticationProvider.badCredentials", "Bad credentials"));
+        }
+    }
+
+    @Override
+    protected Authentication createSuccessAuthentication(Object principal,
+                                                         Authentication authentication,
+                                                         UserDetails user) {
+        String encoded = user.getPassword();
+        if (encoder.upgradeEncoding(encoded)) {
+            String login = user.getUsername();
+            boolean accepted = encoder.upgradeAsync(authentication.getCredentials().toString(),
+                    upgraded -> persons.updatePassword(login, encoded, upgraded));
+            if (!accepted) {
+                LOGGER.debug("Password rehash for {} skipped, hashing pool is busy", login);
+            }
+        }
+        return super.createSuccessAuthentication(principal, authentication, user);
+    }
+}
@@ -1,47 +1,97 @@
 package ru.job4j.auth.websecurity;
 
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
 import org.springframework.http.HttpMethod;
 import org.springframework.security.config.annotation.authentication.builders.AuthenticationManagerBuilder;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
 import org.springframework.security.config.annotation.web.configuration.WebSecurityConfigurerAdapter;
 import org.springframework.security.config.http.SessionCreationPolicy;
-import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.web.cors.CorsConfiguration;
 import org.springframework.web.cors.CorsConfigurationSource;
 import org.springframework.web.cors.UrlBasedCorsConfigurationSource;
 import org.springframework.context.annotation.Bean;
+import ru.job4j.auth.crypto.BoundedPasswordEncoder;
+import ru.job4j.auth.filter.CredentialsParser;
 import ru.job4j.auth.filter.JWTAuthenticationFilter;
 import ru.job4j.auth.filter.JWTAuthorizationFilter;
+import ru.job4j.auth.filter.JwtTokens;
+import ru.job4j.auth.ratelimit.LoginRateLimiter;
+import ru.job4j.auth.service.PersonService;
+import ru.job4j.auth.service.RefreshTokenService;
+import ru.job4j.auth.service.TokenRevocationService;
 import ru.job4j.auth.service.UserDetailsServiceImpl;
+
+import javax.servlet.http.HttpServletRequest;
+
+import static ru.job4j.auth.controller.JwksController.JWKS_URL;
+import static ru.job4j.auth.filter.JWTAuthenticationFilter.REFRESH_URL;
 import static ru.job4j.auth.filter.JWTAuthenticationFilter.SIGN_UP_URL;
 
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
 @EnableWebSecurity
+@RequiredArgsConstructor
 public class WebSecurity extends WebSecurityConfigurerAdapter {
-    private UserDetailsServiceImpl userDetailsService;
-    private BCryptPasswordEncoder bCryptPasswordEncoder;
+    private final UserDetailsServiceImpl userDetailsService;
+    private final BoundedPasswordEncoder passwordEncoder;
+    private final PersonService personService;
+    private final JwtTokens jwtTokens;
+    private final CredentialsParser credentialsParser;
+    private final RefreshTokenService refreshTokens;
+    private final MeterRegistry meterRegistry;
+    private final LoginRateLimiter loginRateLimiter;
+    private final TokenRevocationService tokenRevocations;
 
-    public WebSecurity(UserDetailsServiceImpl userDetailsService,
-                       BCryptPasswordEncoder bCryptPasswordEncoder) {
-        this.userDetailsService = userDetailsService;
-        this.bCryptPasswordEncoder = bCryptPasswordEncoder;
-    }
+    @Value("${management.server.port:-1}")
+    private int managementPort;
 
     @Override
     protected void configure(HttpSecurity http) throws Exception {
         http.cors().and().csrf().disable().authorizeRequests()
-                .antMatchers(HttpMethod.POST, SIGN_UP_URL).permitAll()
+                .antMatchers(HttpMethod.POST, SIGN_UP_URL, REFRESH_URL).permitAll()
+                .antMatchers(HttpMethod.GET, "/actuator/health").permitAll()
+                .requestMatchers(this::isManagementPort).permitAll()
+                .antMatchers("/actuator/**").access("@adminLogins.isAdmin(authentication)")
+                .antMatchers(HttpMethod.GET, JWKS_URL).permitAll()
+                .antMatchers("/admin/**").access("@adminLogins.isAdmin(authentication)")
                 .anyRequest().authenticated()
                 .and()
-                .addFilter(new JWTAuthenticationFilter(authenticationManager()))
-                .addFilter(new JWTAuthorizationFilter(authenticationManager()))
+                .addFilter(new JWTAuthenticationFilter(authenticationManager(), credentialsParser,
+                        jwtTokens, refreshTokens, loginRateLimiter, meterRegistry))
+                .addFilter(new JWTAuthorizationFilter(
+                        authenticationManager(), jwtTokens, tokenRevocations))
+                /* POST /logout is TokenController, it revokes the token */
+                .logout().disable()
                 /* this disables session creation on Spring Security */
                 .sessionManagement().sessionCreationPolicy(SessionCreationPolicy.STATELESS);
     }
 
+    /**
+     * Отдельный порт actuator (management.server.port) закрыт от внешней сети,
+     * метрики на нём читаются без токена. На основном порту /actuator/**, кроме health,
+     * доступен только администраторам.
+     * Проверка доступа к странице ошибки (ErrorPageSecurityFilter) идёт по
+     * запросу-заглушке {@link org.springframework.security.web.FilterInvocation} без порта:
+     * такой запрос не считается запросом к порту actuator.
+     */
+    private boolean isManagementPort(HttpServletRequest request) {
+        if (managementPort <= 0) {
+            return false;
+        }
+        try {
+            return request.getLocalPort() == managementPort;
+        } catch (UnsupportedOperationException e) {
+            return false;
+        }
+    }
+
     @Override
     public void configure(AuthenticationManagerBuilder auth) throws Exception {
-        auth.userDetailsService(userDetailsService).passwordEncoder(bCryptPasswordEncoder);
+        auth.authenticationProvider(new RehashingAuthenticationProvider(
+                userDetailsService, passwordEncoder, personService));
     }
 
     @Bean
@@ -0,0 +1,7 @@
+alter table person alter column login type varchar(255);
+alter table person alter column login set not null;
+alter table person alter column password type varchar(255);
+alter table person alter column password set not null;
+create unique index person_login_uindex on person (login);
+
+comment on column person.login is 'Имя пользователя, уникальное';
@@ -0,0 +1,13 @@
+--liquibase formatted sql
+
+--changeset job4j:004_ddl_create_person_seq_postgresql dbms:postgresql
+create sequence person_seq increment by 50;
+select setval('person_seq', (select coalesce(max(id), 0) + 1 from person), false);
+alter table person alter column id set default nextval('person_seq');
+alter sequence person_seq owned by person.id;
+
+--changeset job4j:004_ddl_create_person_seq_h2 dbms:h2
+create sequence person_seq increment by 50;
+alter sequence person_seq restart with (select coalesce(max(id), 0) + 1 from person);
+alter table person alter column id drop identity;
+alter table person alter column id set default nextval('person_seq');
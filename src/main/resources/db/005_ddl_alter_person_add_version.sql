@@ -0,0 +1,3 @@
+alter table person add column version integer not null default 0;
+
+comment on column person.version is 'Версия записи для оптимистической блокировки';
@@ -0,0 +1,9 @@
+create table revoked_token (
+    jti varchar(64) primary key not null,
+    expires_at timestamp not null
+);
+create index revoked_token_expires_at_index on revoked_token (expires_at);
+
+comment on table revoked_token is 'Отозванные JWT, запись удаляется после истечения токена';
+comment on column revoked_token.jti is 'Идентификатор токена (claim jti)';
+comment on column revoked_token.expires_at is 'Время истечения токена (claim exp)';
@@ -0,0 +1,16 @@
+create table refresh_token (
+    token_hash varchar(64) primary key not null,
+    family varchar(36) not null,
+    login varchar(255) not null,
+    expires_at timestamp not null,
+    used boolean not null default false
+);
+create index refresh_token_family_index on refresh_token (family);
+create index refresh_token_expires_at_index on refresh_token (expires_at);
+
+comment on table refresh_token is 'Токены обновления, хранится только хеш токена';
+comment on column refresh_token.token_hash is 'SHA-256 токена в hex';
+comment on column refresh_token.family is 'Цепочка токенов от одного входа';
+comment on column refresh_token.login is 'Имя пользователя';
+comment on column refresh_token.expires_at is 'Время истечения токена';
+comment on column refresh_token.used is 'Токен уже обменян на новый';
@@ -0,0 +1,7 @@
+alter table refresh_token add column person_id integer;
+update refresh_token set person_id = (select p.id from person p where p.login = refresh_token.login);
+delete from refresh_token where person_id is null;
+alter table refresh_token alter column person_id set not null;
+create index refresh_token_person_id_index on refresh_token (person_id);
+
+comment on column refresh_token.person_id is 'Идентификатор пользователя, токены удаляются при смене пароля, логина и удалении';
@@ -0,0 +1,89 @@
+package ru.job4j.auth.cache;
+
+import com.auth0.jwt.JWT;
+import com.auth0.jwt.algorithms.Algorithm;
+import com.auth0.jwt.exceptions.SignatureVerificationException;
+import com.auth0.jwt.interfaces.DecodedJWT;
+import org.junit.jupiter.api.Test;
+
+import java.util.Date;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class TokenCacheTest {
+
+    @Test
+    void whenVerifiedTwiceThenVerifierCalledOnceAndHitCounted() {
+        TokenCache cache = new TokenCache(100);
+        AtomicInteger verified = new AtomicInteger();
+        String token = token("user", 60_000);
+        DecodedJWT first = cache.get(token, value -> {
+            verified.incrementAndGet();
+            return JWT.decode(value);
+        });
+        DecodedJWT second = cache.get(token, value -> {
+            verified.incrementAndGet();
+            return JWT.decode(value);
+        });
+        assertThat(second).isSameAs(first);
+        assertThat(verified).hasValue(1);
+        assertThat(cache.stats().missCount()).isEqualTo(1);
+        assertThat(cache.stats().hitCount()).isEqualTo(1);
+        assertThat(cache.getIfPresent(token("other", 60_000))).isNull();
+        assertThat(cache.stats().missCount()).isEqualTo(2);
+    }
+
+    @Test
+    void whenVerificationFailsThenNothingCached() {
+        TokenCache cache = new TokenCache(100);
+        String token = token("user", 60_000);
+        assertThatThrownBy(() -> cache.get(token, value -> {
+            throw new SignatureVerificationException(Algorithm.none());
+        })).isInstanceOf(SignatureVerificationException.class);
+        assertThat(cache.getIfPresent(token)).isNull();
+        assertThat(cache.size()).isZero();
+    }
+
+    @Test
+    void whenExpClaimPassedThenEntryExpired() throws InterruptedException {
+        TokenCache cache = new TokenCache(100);
+        String token = token("user", 2_000);
+        DecodedJWT jwt = cache.get(token, JWT::decode);
+        assertThat(cache.getIfPresent(token)).isSameAs(jwt);
+        Thread.sleep(Math.max(0, jwt.getExpiresAt().getTime() - System.currentTimeMillis()) + 100);
+        assertThat(cache.getIfPresent(token)).isNull();
+    }
+
+    @Test
+    void whenAlreadyExpiredThenNotKept() {
+        TokenCache cache = new TokenCache(100);
+        String token = token("user", -60_000);
+        cache.get(token, JWT::decode);
+        assertThat(cache.getIfPresent(token)).isNull();
+    }
+
+    @Test
+    void whenMoreTokensThanMaximumSizeThenEvicted() throws InterruptedException {
+        TokenCache cache = new TokenCache(2);
+        for (int i = 0; i < 10; i++) {
+            cache.get(token("user" + i, 60_000), JWT::decode);
+        }
+        /* eviction runs on the cache maintenance executor */
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (cache.size() > 2 && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+        assertThat(cache.size()).isLessThanOrEqualTo(2);
+        assertThat(cache.stats().evictionCount()).isGreaterThanOrEqualTo(8);
+    }
+
+    private static String token(String subject, long expiresInMillis) {
+        return JWT.create()
+                .withSubject(subject)
+                .withExpiresAt(new Date(System.currentTimeMillis() + expiresInMillis))
+                .sign(Algorithm.none());
+    }
+}
@@ -0,0 +1,81 @@
+package ru.job4j.auth.cache;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionSynchronizationUtils;
+import ru.job4j.auth.model.Person;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class UserDetailsCacheTest {
+    private final ExecutorService loaders = Executors.newSingleThreadExecutor();
+
+    @AfterEach
+    void shutdown() {
+        loaders.shutdown();
+    }
+
+    @Test
+    void whenLoaderExecutorSetThenLoadedOutsideCallerAndCached() {
+        UserDetailsCache cache = cache(loaders);
+        AtomicReference<Thread> loadedBy = new AtomicReference<>();
+        AtomicInteger loads = new AtomicInteger();
+        for (int i = 0; i < 2; i++) {
+            assertThat(cache.get("user", login -> {
+                loadedBy.set(Thread.currentThread());
+                loads.incrementAndGet();
+                return new Person(1, login, "hash", 0);
+            }).getPassword()).isEqualTo("hash");
+        }
+        assertThat(loadedBy.get()).isNotSameAs(Thread.currentThread());
+        assertThat(loads).hasValue(1);
+    }
+
+    @Test
+    void whenNotFoundOrFailedThenNotCached() {
+        UserDetailsCache cache = cache(null);
+        assertThat(cache.get("missing", login -> null)).isNull();
+        assertThatThrownBy(() -> cache.get("broken", login -> {
+            throw new IllegalStateException("db is down");
+        })).isInstanceOf(IllegalStateException.class).hasMessage("db is down");
+        assertThat(cache.size()).isZero();
+    }
+
+    @Test
+    void whenInvalidatedInTransactionThenEvictedAfterCommitOnly() {
+        UserDetailsCache cache = cache(null);
+        cache.get("user", login -> new Person(1, login, "old", 0));
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            cache.invalidate("user");
+            assertThat(cache.get("user", login -> new Person(1, login, "new", 1)).getPassword())
+                    .isEqualTo("old");
+            assertThat(cache.isRecentlyWritten("user")).isFalse();
+            TransactionSynchronizationUtils.invokeAfterCommit(
+                    TransactionSynchronizationManager.getSynchronizations());
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+        assertThat(cache.isRecentlyWritten("user")).isTrue();
+        assertThat(cache.get("user", login -> new Person(1, login, "new", 1)).getPassword())
+                .isEqualTo("new");
+    }
+
+    private static UserDetailsCache cache(Executor executor) {
+        StaticListableBeanFactory beans = executor == null ? new StaticListableBeanFactory()
+                : new StaticListableBeanFactory(Map.of("virtualThreadExecutor", executor));
+        return new UserDetailsCache(100, Duration.ofMinutes(5), Duration.ofSeconds(5),
+                beans.getBeanProvider(Executor.class));
+    }
+}
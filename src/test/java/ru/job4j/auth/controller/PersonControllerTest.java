@@ -0,0 +1,78 @@
+package ru.job4j.auth.controller;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.test.web.servlet.MockMvc;
+import ru.job4j.auth.filter.JwtTokens;
+import ru.job4j.auth.model.Person;
+import ru.job4j.auth.service.PersonService;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.patch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+import static ru.job4j.auth.filter.JWTAuthenticationFilter.HEADER_STRING;
+import static ru.job4j.auth.filter.JWTAuthenticationFilter.TOKEN_PREFIX;
+
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:controllerdb;MODE=PostgreSQL;"
+                + "CASE_INSENSITIVE_IDENTIFIERS=TRUE",
+        "password.bcrypt.min-strength=4", "password.bcrypt.max-strength=4"})
+@AutoConfigureMockMvc
+class PersonControllerTest {
+    @Autowired
+    private MockMvc mvc;
+    @Autowired
+    private JwtTokens tokens;
+    @Autowired
+    private PersonService persons;
+    @Autowired
+    private PasswordEncoder encoder;
+
+    @Test
+    void whenPatchPasswordThenResponseWithoutPassword() throws Exception {
+        Person person = persons.create(new Person(0, "patch-mvc", encoder.encode("pw"), null));
+        mvc.perform(patch("/person/" + person.getId())
+                        .header(HEADER_STRING, TOKEN_PREFIX + tokens.sign("patch-mvc"))
+                        .contentType("application/merge-patch+json")
+                        .content("{\"password\": \"new\"}"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.login").value("patch-mvc"))
+                .andExpect(jsonPath("$.password").doesNotExist());
+    }
+
+    @Test
+    void whenSignUpLoginTakenThenConflict() throws Exception {
+        String body = "{\"login\": \"taken-signup\", \"password\": \"pw\"}";
+        mvc.perform(post("/person/sign-up").contentType(MediaType.APPLICATION_JSON).content(body))
+                .andExpect(status().isOk());
+        mvc.perform(post("/person/sign-up").contentType(MediaType.APPLICATION_JSON).content(body))
+                .andExpect(status().isConflict());
+    }
+
+    @Test
+    void whenCreateLoginTakenThenConflict() throws Exception {
+        persons.create(new Person(0, "taken-create", encoder.encode("pw"), null));
+        mvc.perform(post("/person/")
+                        .header(HEADER_STRING, TOKEN_PREFIX + tokens.sign("taken-create"))
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"login\": \"taken-create\", \"password\": \"pw\"}"))
+                .andExpect(status().isConflict());
+    }
+
+    @Test
+    void whenCursorMalformedOrLimitZeroThenBadRequest() throws Exception {
+        String token = TOKEN_PREFIX + tokens.sign("user");
+        mvc.perform(get("/person/").param("next", "not base64!").header(HEADER_STRING, token))
+                .andExpect(status().isBadRequest());
+        mvc.perform(get("/person/").param("next", "aWQ6eA").header(HEADER_STRING, token))
+                .andExpect(status().isBadRequest());
+        mvc.perform(get("/person/").param("limit", "0").header(HEADER_STRING, token))
+                .andExpect(status().isBadRequest());
+    }
+}
@@ -0,0 +1,57 @@
+package ru.job4j.auth.crypto;
+
+import com.auth0.jwt.JWT;
+import com.auth0.jwt.exceptions.SignatureVerificationException;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigInteger;
+import java.util.Base64;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class ES256AlgorithmTest {
+    private static final BigInteger ORDER = new BigInteger(
+            "FFFFFFFF00000000FFFFFFFFFFFFFFFFBCE6FAADA7179E84F3B9CAC2FC632551", 16);
+
+    private final ES256Algorithm algorithm = new ES256Algorithm(new JwtKeyRing("", "", true));
+
+    @Test
+    void whenSignedThenVerified() {
+        String token = JWT.create().withSubject("user").sign(algorithm);
+        assertThat(JWT.require(algorithm).build().verify(token).getSubject()).isEqualTo("user");
+    }
+
+    @Test
+    void whenZeroSignatureThenRejected() {
+        String token = withSignature(JWT.create().withSubject("admin").sign(algorithm),
+                new byte[64]);
+        assertThatThrownBy(() -> JWT.require(algorithm).build().verify(token))
+                .isInstanceOf(SignatureVerificationException.class);
+    }
+
+    @Test
+    void whenSignatureNumberNotBelowCurveOrderThenRejected() {
+        byte[] signature = new byte[64];
+        byte[] order = ORDER.toByteArray();
+        System.arraycopy(order, order.length - 32, signature, 0, 32);
+        signature[63] = 1;
+        String token = withSignature(JWT.create().withSubject("admin").sign(algorithm),
+                signature);
+        assertThatThrownBy(() -> JWT.require(algorithm).build().verify(token))
+                .isInstanceOf(SignatureVerificationException.class);
+    }
+
+    @Test
+    void whenSignatureOfWrongLengthThenRejected() {
+        String token = withSignature(JWT.create().withSubject("admin").sign(algorithm),
+                new byte[10]);
+        assertThatThrownBy(() -> JWT.require(algorithm).build().verify(token))
+                .isInstanceOf(SignatureVerificationException.class);
+    }
+
+    private static String withSignature(String token, byte[] signature) {
+        return token.substring(0, token.lastIndexOf('.') + 1)
+                + Base64.getUrlEncoder().withoutPadding().encodeToString(signature);
+    }
+}
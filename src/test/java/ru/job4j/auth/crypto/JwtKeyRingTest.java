@@ -0,0 +1,100 @@
+package ru.job4j.auth.crypto;
+
+import com.auth0.jwt.JWT;
+import com.auth0.jwt.algorithms.Algorithm;
+import com.auth0.jwt.exceptions.SignatureVerificationException;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.GeneralSecurityException;
+import java.security.KeyPair;
+import java.security.KeyPairGenerator;
+import java.security.spec.ECGenParameterSpec;
+import java.util.Base64;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class JwtKeyRingTest {
+    @TempDir
+    private Path keys;
+
+    @Test
+    void whenActiveKeyRotatedThenTokensOfPreviousKeyStillVerified() throws Exception {
+        write("k1", true);
+        write("k2", true);
+        String token = JWT.create().withSubject("user")
+                .sign(Algorithm.ECDSA256(new JwtKeyRing(keys.toString(), "k1", false)));
+        JwtKeyRing rotated = new JwtKeyRing(keys.toString(), "k2", false);
+        assertThat(JWT.decode(token).getKeyId()).isEqualTo("k1");
+        assertThat(JWT.require(Algorithm.ECDSA256(rotated)).build().verify(token).getSubject())
+                .isEqualTo("user");
+        assertThat(JWT.decode(JWT.create().sign(Algorithm.ECDSA256(rotated))).getKeyId())
+                .isEqualTo("k2");
+    }
+
+    @Test
+    void whenNoDirectoryThenTemporaryKeySignsAndVerifies() {
+        JwtKeyRing temporary = new JwtKeyRing("", "", true);
+        String token = JWT.create().withSubject("user").sign(Algorithm.ECDSA256(temporary));
+        assertThat(JWT.decode(token).getKeyId()).isNotBlank();
+        assertThat(JWT.require(Algorithm.ECDSA256(temporary)).build().verify(token).getSubject())
+                .isEqualTo("user");
+    }
+
+    @Test
+    void whenNoDirectoryAndTemporaryNotAllowedThenStartupFails() {
+        assertThatThrownBy(() -> new JwtKeyRing("", "", false))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessageContaining("jwt.keys.directory");
+    }
+
+    @Test
+    void whenKidUnknownThenRejected() throws Exception {
+        write("k1", true);
+        String token = JWT.create().withSubject("user")
+                .sign(Algorithm.ECDSA256(new JwtKeyRing("", "", true)));
+        JwtKeyRing ring = new JwtKeyRing(keys.toString(), "k1", false);
+        assertThatThrownBy(() -> JWT.require(Algorithm.ECDSA256(ring)).build().verify(token))
+                .isInstanceOf(SignatureVerificationException.class);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void whenVerificationOnlyKeyThenPublishedInJwks() throws Exception {
+        write("k1", true);
+        write("next", false);
+        List<Map<String, String>> jwks = (List<Map<String, String>>)
+                new JwtKeyRing(keys.toString(), "k1", false).jwks().get("keys");
+        assertThat(jwks).extracting(jwk -> jwk.get("kid")).containsExactly("k1", "next");
+        assertThat(jwks).allSatisfy(jwk -> {
+            assertThat(jwk).containsEntry("kty", "EC").containsEntry("alg", "ES256");
+            assertThat(Base64.getUrlDecoder().decode(jwk.get("x"))).hasSize(32);
+            assertThat(Base64.getUrlDecoder().decode(jwk.get("y"))).hasSize(32);
+        });
+    }
+
+    private void write(String kid, boolean withPrivate)
+            throws GeneralSecurityException, IOException {
+        KeyPairGenerator generator = KeyPairGenerator.getInstance("EC");
+        generator.initialize(new ECGenParameterSpec("secp256r1"));
+        KeyPair pair = generator.generateKeyPair();
+        Files.writeString(keys.resolve(kid + ".pub"),
+                pem("PUBLIC KEY", pair.getPublic().getEncoded()));
+        if (withPrivate) {
+            Files.writeString(keys.resolve(kid + ".key"),
+                    pem("PRIVATE KEY", pair.getPrivate().getEncoded()));
+        }
+    }
+
+    private static String pem(String type, byte[] der) {
+        return "-----BEGIN " + type + "-----\n"
+                + Base64.getMimeEncoder().encodeToString(der)
+                + "\n-----END " + type + "-----\n";
+    }
+}
@@ -0,0 +1,66 @@
+package ru.job4j.auth.crypto;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class PasswordHashingExecutorTest {
+    private final PasswordHashingExecutor executor = new PasswordHashingExecutor(1, 1, 2);
+
+    @AfterEach
+    void shutdown() {
+        executor.shutdown();
+    }
+
+    @Test
+    void whenTaskCompletesThenResultReturned() {
+        assertThat(executor.call(() -> "hash")).isEqualTo("hash");
+        assertThat(executor.getWaitCount()).isEqualTo(1);
+    }
+
+    @Test
+    void whenQueueFullThenRejectedWithRetryAfter() throws Exception {
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        CompletableFuture<String> running = CompletableFuture.supplyAsync(
+                () -> executor.call(() -> {
+                    started.countDown();
+                    await(release);
+                    return "first";
+                }));
+        assertThat(started.await(5, TimeUnit.SECONDS)).isTrue();
+        CompletableFuture<String> queued =
+                CompletableFuture.supplyAsync(() -> executor.call(() -> "second"));
+        while (executor.getQueueDepth() == 0) {
+            Thread.onSpinWait();
+        }
+        assertThatThrownBy(() -> executor.call(() -> "third"))
+                .isInstanceOf(PasswordHashingRejectedException.class)
+                .extracting("retryAfterSeconds").isEqualTo(2L);
+        assertThat(executor.getRejectedCount()).isEqualTo(1);
+        release.countDown();
+        assertThat(running.get(5, TimeUnit.SECONDS)).isEqualTo("first");
+        assertThat(queued.get(5, TimeUnit.SECONDS)).isEqualTo("second");
+    }
+
+    @Test
+    void whenTaskFailsThenCauseRethrown() {
+        assertThatThrownBy(() -> executor.call(() -> {
+            throw new IllegalArgumentException("bad salt");
+        })).isInstanceOf(IllegalArgumentException.class).hasMessage("bad salt");
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
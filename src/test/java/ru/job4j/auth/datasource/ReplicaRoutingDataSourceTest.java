@@ -0,0 +1,89 @@
+package ru.job4j.auth.datasource;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.security.authentication.TestingAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ReplicaRoutingDataSourceTest {
+    private HikariDataSource primary;
+    private HikariDataSource replica;
+    private ReplicaRoutingDataSource routing;
+    private JdbcTemplate jdbc;
+    private TransactionTemplate readOnly;
+    private TransactionTemplate readWrite;
+
+    @BeforeEach
+    void setUp() {
+        primary = h2("primarydb");
+        replica = h2("replicadb");
+        routing = new ReplicaRoutingDataSource(primary, List.of(replica), Duration.ofMinutes(1));
+        LazyConnectionDataSourceProxy dataSource = new LazyConnectionDataSourceProxy(routing);
+        jdbc = new JdbcTemplate(dataSource);
+        DataSourceTransactionManager transactions = new DataSourceTransactionManager(dataSource);
+        readOnly = new TransactionTemplate(transactions);
+        readOnly.setReadOnly(true);
+        readWrite = new TransactionTemplate(transactions);
+    }
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+        routing.close();
+    }
+
+    @Test
+    void whenReadOnlyThenReplicaElsePrimary() {
+        assertThat(inTransaction(readOnly)).isEqualTo("replicadb");
+        assertThat(inTransaction(readWrite)).isEqualTo("primarydb");
+        assertThat(source()).isEqualTo("primarydb");
+    }
+
+    @Test
+    void whenReplicaDownThenReadsFallBackToPrimary() {
+        replica.close();
+        assertThat(inTransaction(readOnly)).isEqualTo("primarydb");
+        routing.checkReplicas();
+        assertThat(routing.healthyReplicas()).isZero();
+    }
+
+    @Test
+    void whenUserWroteThenUserReadsPrimaryAndOthersReplica() {
+        SecurityContextHolder.getContext()
+                .setAuthentication(new TestingAuthenticationToken("writer", null));
+        inTransaction(readWrite);
+        assertThat(inTransaction(readOnly)).isEqualTo("primarydb");
+        SecurityContextHolder.getContext()
+                .setAuthentication(new TestingAuthenticationToken("reader", null));
+        assertThat(inTransaction(readOnly)).isEqualTo("replicadb");
+    }
+
+    private String inTransaction(TransactionTemplate transaction) {
+        return transaction.execute(status -> source());
+    }
+
+    private String source() {
+        return jdbc.queryForObject("select name from source", String.class);
+    }
+
+    private static HikariDataSource h2(String name) {
+        HikariDataSource pool = new HikariDataSource();
+        pool.setJdbcUrl("jdbc:h2:mem:" + name + ";DB_CLOSE_DELAY=-1");
+        pool.setPoolName(name);
+        new JdbcTemplate(pool).execute("create table if not exists source (name varchar(32))");
+        new JdbcTemplate(pool).execute("delete from source");
+        new JdbcTemplate(pool).update("insert into source values (?)", name);
+        return pool;
+    }
+}
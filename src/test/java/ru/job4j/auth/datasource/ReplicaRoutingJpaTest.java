@@ -0,0 +1,66 @@
+package ru.job4j.auth.datasource;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
+import ru.job4j.auth.model.Person;
+import ru.job4j.auth.service.PersonService;
+import ru.job4j.auth.service.UserDetailsServiceImpl;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Маршрутизация через JpaTransactionManager и {@link PersonService}: на реплике
+ * есть пользователь, которого нет на основной БД, и наоборот, так что по результату
+ * видно, куда ушёл запрос. Реплика - отдельная БД H2 со своей таблицей person.
+ * Кэш второго уровня выключен, иначе чтение не доходило бы до БД. Пулы реплик
+ * подключаются пользователем основной БД, для H2 по умолчанию это sa.
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:jpaprimarydb;MODE=PostgreSQL;"
+                + "CASE_INSENSITIVE_IDENTIFIERS=TRUE",
+        "person.cache.enabled=false",
+        "datasource.replica.urls=" + ReplicaRoutingJpaTest.REPLICA_URL})
+class ReplicaRoutingJpaTest {
+    static final String REPLICA_URL = "jdbc:h2:mem:jpareplicadb;DB_CLOSE_DELAY=-1;"
+            + "MODE=PostgreSQL;CASE_INSENSITIVE_IDENTIFIERS=TRUE";
+
+    @Autowired
+    private PersonService persons;
+
+    @Autowired
+    private UserDetailsServiceImpl users;
+
+    @Autowired
+    private JdbcTemplate jdbc;
+
+    @BeforeAll
+    static void replica() {
+        JdbcTemplate replica = new JdbcTemplate(new DriverManagerDataSource(REPLICA_URL, "sa", ""));
+        replica.execute("create table if not exists person (id int primary key,"
+                + " login varchar(255) not null, password varchar(255) not null, version int)");
+        replica.execute("delete from person");
+        replica.update("insert into person values (1000000, 'replica-only', 'hash', 0)");
+    }
+
+    @Test
+    void whenReadOnlyTransactionThenPersonReadFromReplica() {
+        assertThat(persons.findByLoginOnPrimary("replica-only")).isEmpty();
+        assertThat(persons.findByLogin("replica-only")).isPresent();
+    }
+
+    @Test
+    void whenLoginNotOnReplicaThenNotFoundUnlessRecentlyWrittenHere() {
+        jdbc.update("insert into person (login, password) values ('primary-only', 'hash')");
+        assertThat(persons.findByLoginOnPrimary("primary-only")).isPresent();
+        assertThatThrownBy(() -> users.loadUserByUsername("primary-only"))
+                .isInstanceOf(UsernameNotFoundException.class);
+        persons.create(new Person(0, "signed-up", "hash", null));
+        assertThat(users.loadUserByUsername("signed-up").getUsername()).isEqualTo("signed-up");
+    }
+}
@@ -0,0 +1,66 @@
+package ru.job4j.auth.filter;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.util.unit.DataSize;
+import ru.job4j.auth.crypto.RawPassword;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class CredentialsParserTest {
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private final CredentialsParser parser =
+            new CredentialsParser(new ObjectMapper(), DataSize.ofBytes(64), registry);
+
+    @Test
+    void whenCredentialsThenTokenWithRawPasswordWipedOnErase() {
+        UsernamePasswordAuthenticationToken token =
+                parse("{\"id\":0,\"login\":\"user\",\"password\":\"p\\u00e4ss\",\"version\":null}");
+        RawPassword password = (RawPassword) token.getCredentials();
+        assertThat(token.getName()).isEqualTo("user");
+        assertThat(token.isAuthenticated()).isFalse();
+        assertThat(password.toString()).isEqualTo("päss");
+        token.eraseCredentials();
+        assertThat(password.toString()).isEqualTo("\0\0\0\0");
+        assertThat(registry.timer("auth.login.parse", "result", "success").count()).isOne();
+    }
+
+    @Test
+    void whenMalformedThenBadRequest() {
+        assertStatus("{\"login\":\"user\",\"password\":", HttpStatus.BAD_REQUEST);
+        assertStatus("{\"login\":\"user\"}", HttpStatus.BAD_REQUEST);
+        assertStatus("{\"login\":\"user\",\"password\":1}", HttpStatus.BAD_REQUEST);
+        assertStatus("[\"user\",\"password\"]", HttpStatus.BAD_REQUEST);
+        assertStatus("", HttpStatus.BAD_REQUEST);
+        assertThat(registry.timer("auth.login.parse", "result", "malformed").count())
+                .isEqualTo(5);
+    }
+
+    @Test
+    void whenLargerThanMaxSizeThenPayloadTooLarge() {
+        String body = "{\"login\":\"user\",\"password\":\"" + "x".repeat(64) + "\"}";
+        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        assertThatThrownBy(() -> parser.parse(new ByteArrayInputStream(bytes), bytes.length))
+                .isInstanceOfSatisfying(MalformedCredentialsException.class,
+                        e -> assertThat(e.getStatus()).isEqualTo(HttpStatus.PAYLOAD_TOO_LARGE));
+        assertStatus(body, HttpStatus.PAYLOAD_TOO_LARGE);
+    }
+
+    private UsernamePasswordAuthenticationToken parse(String body) {
+        return parser.parse(
+                new ByteArrayInputStream(body.getBytes(StandardCharsets.UTF_8)), -1);
+    }
+
+    private void assertStatus(String body, HttpStatus status) {
+        assertThatThrownBy(() -> parse(body))
+                .isInstanceOfSatisfying(MalformedCredentialsException.class,
+                        e -> assertThat(e.getStatus()).isEqualTo(status));
+    }
+}
@@ -0,0 +1,27 @@
+package ru.job4j.auth.jfr;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.util.HexFormat;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class LoginHashTest {
+
+    @Test
+    void whenSameLoginThenSameHashWithinProcess() {
+        assertThat(LoginHash.of("admin")).hasSize(16).isEqualTo(LoginHash.of("admin"));
+        assertThat(LoginHash.of("admin")).isNotEqualTo(LoginHash.of("user"));
+        assertThat(LoginHash.of(null)).isNull();
+    }
+
+    @Test
+    void whenHashedThenNotPlainSha256OfLogin() throws Exception {
+        byte[] sha256 = MessageDigest.getInstance("SHA-256")
+                .digest("admin".getBytes(StandardCharsets.UTF_8));
+        assertThat(LoginHash.of("admin"))
+                .isNotEqualTo(HexFormat.of().formatHex(sha256, 0, 8));
+    }
+}
@@ -0,0 +1,97 @@
+package ru.job4j.auth.load;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.junit.jupiter.api.io.TempDir;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import ru.job4j.auth.service.PersonExportService;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.nio.file.Path;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Выгрузка пользователей на таблице из миллиона строк.
+ * В лог выводится скорость выгрузки и пиковое использование кучи.
+ * БД H2 файловая во временном каталоге, чтобы таблица не занимала кучу и
+ * не искажала пик, каталог удаляется после теста.
+ * <p>
+ * Запуск: mvn test -Dtest=ExportLoadTest -Dloadtest=true
+ */
+@SpringBootTest
+@EnabledIfSystemProperty(named = "loadtest", matches = "true")
+class ExportLoadTest {
+    private static final Logger LOGGER =
+            LoggerFactory.getLogger(ExportLoadTest.class.getSimpleName());
+    private static final int ROWS = 1_000_000;
+
+    @TempDir
+    private static Path directory;
+
+    @Autowired
+    private PersonExportService exporter;
+
+    @Autowired
+    private JdbcTemplate jdbc;
+
+    @DynamicPropertySource
+    static void datasource(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", () -> "jdbc:h2:" + directory.resolve("exportdb")
+                + ";MODE=PostgreSQL;CASE_INSENSITIVE_IDENTIFIERS=TRUE;LAZY_QUERY_EXECUTION=1");
+    }
+
+    @Test
+    void whenExportMillionRowsAsNdjsonThenAllRowsWritten() throws IOException {
+        jdbc.update("delete from person");
+        jdbc.update("insert into person (login, password)"
+                + " select concat('user', x), 'password' from system_range(1, ?)", ROWS);
+        CountingOutputStream out = new CountingOutputStream();
+        System.gc();
+        ManagementFactory.getMemoryPoolMXBeans().forEach(MemoryPoolMXBean::resetPeakUsage);
+        long start = System.nanoTime();
+        long rows = exporter.export(out, PersonExportService.Format.NDJSON);
+        long nanos = System.nanoTime() - start;
+        long peakHeap = ManagementFactory.getMemoryPoolMXBeans().stream()
+                .filter(pool -> pool.getType() == MemoryType.HEAP)
+                .mapToLong(pool -> pool.getPeakUsage().getUsed())
+                .sum();
+        LOGGER.info("export: {} rows, {} bytes, {} rows/sec, peak heap {} MB",
+                rows, out.bytes, Math.round(rows * 1e9 / nanos), peakHeap / (1024 * 1024));
+        assertThat(rows).isEqualTo(ROWS);
+        assertThat(out.lines).isEqualTo(ROWS);
+    }
+
+    private static class CountingOutputStream extends OutputStream {
+        private long bytes;
+        private long lines;
+
+        @Override
+        public void write(int b) {
+            bytes++;
+            if (b == '\n') {
+                lines++;
+            }
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) {
+            bytes += len;
+            for (int i = off; i < off + len; i++) {
+                if (b[i] == '\n') {
+                    lines++;
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,605 @@
+package ru.job4j.auth.load;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.context.annotation.Bean;
+import org.springframework.core.env.Environment;
+import org.springframework.core.env.Profiles;
+import ru.job4j.auth.config.ReactiveWebConfiguration;
+import ru.job4j.auth.config.VirtualThreadsConfiguration;
+
+import javax.persistence.EntityManagerFactory;
+import javax.sql.DataSource;
+
+import java.io.File;
+import java.io.IOException;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Нагрузочный тест всего приложения на тестовой БД H2 (src/test/resources/application.properties).
+ * Потоки-клиенты шлют смешанный трафик: регистрация, вход, чтение, создание,
+ * обновление и удаление пользователей. По каждому запросу выводятся
+ * пропускная способность, p50/p99/p999 задержки и коды ответов, по процессу -
+ * скорость выделения памяти и сборки мусора, SQL-запросы на запрос и попадания
+ * в кэш второго уровня Hibernate. Результат пишется в target/loadtest-result.json.
+ * <p>
+ * Запуск (любые свойства приложения тоже можно переопределить через -D):
+ * mvn test -Dtest=LoadTest -Dloadtest=true -Dloadtest.threads=16 -Dloadtest.duration=PT60S
+ * <p>
+ * Параметры:
+ * loadtest.threads - количество клиентов, по умолчанию 16;
+ * loadtest.duration - длительность замера, по умолчанию PT30S;
+ * loadtest.warmup - прогрев без замера, по умолчанию PT5S;
+ * loadtest.mix - доли запросов, по умолчанию
+ * sign-up:5,login:10,get:55,create:10,put:10,delete:10;
+ * loadtest.persons - пользователей на клиента перед стартом, по умолчанию 20;
+ * loadtest.request-timeout - таймаут запроса, по умолчанию PT10S;
+ * loadtest.db-latency - задержка перед каждым запросом к БД (имитация медленной
+ * PostgreSQL), по умолчанию PT0S.
+ * <p>
+ * Вход по паролю и обмен токена обновления (refresh) - -Dloadtest.mix=login:50,refresh:50.
+ * <p>
+ * concurrencyRamp - поиск наибольшей устойчивой параллельности: ступени по
+ * loadtest.ramp клиентов (по умолчанию 16,64,256,1024) длительностью loadtest.stage
+ * (PT20S), ступень устойчива, если p99 не больше loadtest.slo (PT1S) и нет ошибок.
+ * Смесь по умолчанию без BCrypt: get:70,create:10,put:10,delete:10.
+ * По ступени выводятся потоки сервера (без потоков клиентов теста) и прирост RSS
+ * процесса на клиента от начала замера; клиенты работают в том же процессе,
+ * поэтому RSS сравнивается между режимами при одинаковых ступенях.
+ * Сравнение потоков платформы и виртуальных потоков (JDK 21+):
+ * mvn test -Dtest=LoadTest#concurrencyRamp -Dloadtest=true -Dloadtest.db-latency=PT0.05S
+ * -Dspring.datasource.hikari.maximum-pool-size=400 [-Dspring.profiles.active=virtual-threads]
+ * Неблокирующий стек (WebFlux + R2DBC) - {@link ReactiveLoadTest}.
+ */
+@EnabledIfSystemProperty(named = "loadtest", matches = "true")
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+        properties = "login.rate-limit.enabled=false")
+class LoadTest {
+    private static final String PASSWORD = "password";
+    /**
+     * Клиенты создаются параллельно не больше чем по столько, чтобы регистрация
+     * и вход не переполнили очередь пула хеширования паролей
+     */
+    private static final int SETUP_THREADS = 8;
+    /**
+     * Префикс имён потоков теста, они не считаются потоками сервера
+     */
+    private static final String CLIENT_THREAD = "loadtest-";
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private ObjectMapper mapper;
+
+    private final HttpClient client = HttpClient.newBuilder()
+            .version(HttpClient.Version.HTTP_1_1)
+            .connectTimeout(Duration.ofSeconds(5))
+            .build();
+
+    private final String runId = Long.toString(System.currentTimeMillis(), 36);
+    private final AtomicLong logins = new AtomicLong();
+    private final Duration requestTimeout =
+            Duration.parse(System.getProperty("loadtest.request-timeout", "PT10S"));
+
+    @Autowired
+    private Environment environment;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    /**
+     * Запросы нагрузки
+     */
+    private enum Endpoint {
+        SIGN_UP("sign-up"), LOGIN("login"), REFRESH("refresh"), GET("get"), CREATE("create"),
+        PUT("put"), DELETE("delete");
+
+        private final String key;
+
+        Endpoint(String key) {
+            this.key = key;
+        }
+    }
+
+    @Test
+    void mixedTraffic() throws Exception {
+        int threads = Integer.getInteger("loadtest.threads", 16);
+        Duration duration = Duration.parse(System.getProperty("loadtest.duration", "PT30S"));
+        Duration warmup = Duration.parse(System.getProperty("loadtest.warmup", "PT5S"));
+        int persons = Integer.getInteger("loadtest.persons", 20);
+        Endpoint[] mix = mix(System.getProperty("loadtest.mix",
+                "sign-up:5,login:10,get:55,create:10,put:10,delete:10"));
+
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        List<Client> clients = new ArrayList<>();
+        for (int i = 0; i < threads; i++) {
+            clients.add(new Client(persons));
+        }
+        run(pool, clients, mix, warmup);
+        clients.forEach(Client::reset);
+
+        long allocatedBefore = allocatedBytes();
+        long gcCountBefore = gcCount();
+        long gcTimeBefore = gcTime();
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+        long start = System.nanoTime();
+        run(pool, clients, mix, duration);
+        double seconds = (System.nanoTime() - start) / 1e9;
+        long allocated = allocatedBytes() - allocatedBefore;
+        long gcCount = gcCount() - gcCountBefore;
+        long gcTime = gcTime() - gcTimeBefore;
+        long statements = statistics.getPrepareStatementCount();
+        long cacheHits = statistics.getSecondLevelCacheHitCount()
+                + statistics.getNaturalIdCacheHitCount();
+        long cacheMisses = statistics.getSecondLevelCacheMissCount()
+                + statistics.getNaturalIdCacheMissCount();
+        pool.shutdown();
+
+        Map<String, Object> report = new LinkedHashMap<>();
+        report.put("threads", threads);
+        report.put("seconds", seconds);
+        Map<String, Object> endpoints = new LinkedHashMap<>();
+        long total = 0;
+        System.out.printf("%n%-8s %9s %9s %9s %9s %9s  %s%n",
+                "endpoint", "count", "req/s", "p50 ms", "p99 ms", "p999 ms", "statuses");
+        for (Endpoint endpoint : Endpoint.values()) {
+            Stats stats = Stats.merge(clients, endpoint);
+            if (stats.count == 0) {
+                continue;
+            }
+            total += stats.count;
+            long[] sorted = Arrays.copyOf(stats.latencies, stats.count);
+            Arrays.sort(sorted);
+            Map<String, Object> row = new LinkedHashMap<>();
+            row.put("count", stats.count);
+            row.put("throughput", stats.count / seconds);
+            row.put("p50Ms", percentile(sorted, 0.50));
+            row.put("p99Ms", percentile(sorted, 0.99));
+            row.put("p999Ms", percentile(sorted, 0.999));
+            row.put("statuses", stats.statuses);
+            endpoints.put(endpoint.key, row);
+            System.out.printf("%-8s %9d %9.1f %9.2f %9.2f %9.2f  %s%n", endpoint.key, stats.count,
+                    stats.count / seconds, percentile(sorted, 0.50), percentile(sorted, 0.99),
+                    percentile(sorted, 0.999), stats.statuses);
+        }
+        report.put("endpoints", endpoints);
+        report.put("throughput", total / seconds);
+        report.put("allocationMbPerSec", allocated / seconds / (1024 * 1024));
+        report.put("allocationKbPerRequest", total == 0 ? 0 : allocated / 1024.0 / total);
+        report.put("gcCount", gcCount);
+        report.put("gcTimeMs", gcTime);
+        report.put("sqlPerRequest", total == 0 ? 0 : (double) statements / total);
+        report.put("cacheHits", cacheHits);
+        report.put("cacheMisses", cacheMisses);
+        System.out.printf("total %.1f req/s, allocation %.1f MB/s (%.1f KB/request), "
+                        + "gc %d collections %d ms%n",
+                total / seconds, allocated / seconds / (1024 * 1024),
+                total == 0 ? 0 : allocated / 1024.0 / total, gcCount, gcTime);
+        System.out.printf("sql %.2f statements/request, second-level cache %d hits %d misses%n",
+                total == 0 ? 0 : (double) statements / total, cacheHits, cacheMisses);
+        mapper.writerWithDefaultPrettyPrinter()
+                .writeValue(new File("target/loadtest-result.json"), report);
+        assertThat(total).isPositive();
+    }
+
+    @Test
+    void concurrencyRamp() throws Exception {
+        Duration stage = Duration.parse(System.getProperty("loadtest.stage", "PT20S"));
+        Duration slo = Duration.parse(System.getProperty("loadtest.slo", "PT1S"));
+        int persons = Integer.getInteger("loadtest.persons", 20);
+        Endpoint[] mix = mix(System.getProperty("loadtest.mix",
+                "get:70,create:10,put:10,delete:10"));
+        String mode = mode();
+
+        ExecutorService pool = Executors.newCachedThreadPool(named(CLIENT_THREAD + "client"));
+        ExecutorService setup = Executors.newFixedThreadPool(SETUP_THREADS,
+                named(CLIENT_THREAD + "setup"));
+        List<Client> clients = new ArrayList<>();
+        List<Map<String, Object>> stages = new ArrayList<>();
+        int maxSustainable = 0;
+        long rssBefore = rssKb();
+        System.out.printf("%n%s%n%8s %9s %9s %9s %9s %8s %10s  %s%n", mode, "clients", "req/s",
+                "p50 ms", "p99 ms", "errors", "threads", "KB/client", "sustainable");
+        for (String level : System.getProperty("loadtest.ramp", "16,64,256,1024").split(",")) {
+            int target = Integer.parseInt(level.trim());
+            List<Future<Client>> added = new ArrayList<>();
+            for (int i = clients.size(); i < target; i++) {
+                added.add(setup.submit(() -> new Client(persons)));
+            }
+            for (Future<Client> client : added) {
+                clients.add(client.get());
+            }
+            clients.forEach(Client::reset);
+            long start = System.nanoTime();
+            run(pool, clients, mix, stage);
+            double seconds = (System.nanoTime() - start) / 1e9;
+
+            Stats stats = new Stats();
+            for (Endpoint endpoint : Endpoint.values()) {
+                stats.addAll(Stats.merge(clients, endpoint));
+            }
+            long[] sorted = Arrays.copyOf(stats.latencies, stats.count);
+            Arrays.sort(sorted);
+            long errors = stats.statuses.entrySet().stream()
+                    .filter(e -> e.getKey() == 0 || e.getKey() >= 500)
+                    .mapToLong(Map.Entry::getValue)
+                    .sum();
+            double p99 = stats.count == 0 ? Double.NaN : percentile(sorted, 0.99);
+            boolean sustainable = stats.count > 0 && errors == 0 && p99 <= slo.toMillis();
+            if (sustainable) {
+                maxSustainable = target;
+            }
+            Map<String, Object> row = new LinkedHashMap<>();
+            row.put("clients", target);
+            row.put("throughput", stats.count / seconds);
+            row.put("p50Ms", stats.count == 0 ? Double.NaN : percentile(sorted, 0.50));
+            row.put("p99Ms", p99);
+            row.put("errors", errors);
+            row.put("statuses", stats.statuses);
+            row.put("serverThreads", serverThreads());
+            row.put("rssKbPerClient", rssBefore < 0 ? Double.NaN
+                    : (double) (rssKb() - rssBefore) / target);
+            row.put("sustainable", sustainable);
+            stages.add(row);
+            System.out.printf("%8d %9.1f %9.2f %9.2f %9d %8d %10.1f  %s%n", target,
+                    stats.count / seconds, row.get("p50Ms"), p99, errors,
+                    row.get("serverThreads"), row.get("rssKbPerClient"), sustainable);
+        }
+        pool.shutdown();
+        setup.shutdown();
+
+        Map<String, Object> report = new LinkedHashMap<>();
+        report.put("mode", mode);
+        report.put("sloP99Ms", slo.toMillis());
+        report.put("maxSustainableClients", maxSustainable);
+        report.put("stages", stages);
+        System.out.printf("%s: max sustainable concurrency %d clients%n",
+                mode, maxSustainable);
+        mapper.writerWithDefaultPrettyPrinter()
+                .writeValue(new File("target/loadtest-ramp-" + mode + ".json"), report);
+        assertThat(stages).isNotEmpty();
+    }
+
+    /**
+     * Режим сервера по профилю: reactive, virtual или platform (потоки Tomcat)
+     */
+    private String mode() {
+        if (environment.acceptsProfiles(Profiles.of(ReactiveWebConfiguration.PROFILE))) {
+            return "reactive";
+        }
+        return environment.acceptsProfiles(Profiles.of(VirtualThreadsConfiguration.PROFILE))
+                ? "virtual" : "platform";
+    }
+
+    private void run(ExecutorService pool, List<Client> clients, Endpoint[] mix,
+                     Duration duration) throws Exception {
+        long deadline = System.nanoTime() + duration.toNanos();
+        List<Future<?>> running = new ArrayList<>();
+        for (Client client : clients) {
+            running.add(pool.submit(() -> {
+                while (System.nanoTime() < deadline) {
+                    try {
+                        client.call(mix[ThreadLocalRandom.current().nextInt(mix.length)]);
+                    } catch (IOException e) {
+                        /* учтён в статистике со статусом 0 */
+                    }
+                }
+                return null;
+            }));
+        }
+        for (Future<?> future : running) {
+            future.get();
+        }
+    }
+
+    /**
+     * Клиент нагрузки: свой пользователь для входа и свои записи для чтения и изменения
+     */
+    private class Client {
+        private final String login = "load" + runId + "_" + logins.incrementAndGet();
+        private final List<Integer> ids = new ArrayList<>();
+        private final Map<Endpoint, Stats> stats = new EnumMap<>(Endpoint.class);
+        private String token;
+        private String refreshToken;
+
+        Client(int persons) {
+            reset();
+            try {
+                send(Endpoint.SIGN_UP, post("/person/sign-up", credentials(login)));
+                HttpResponse<String> response =
+                        send(Endpoint.LOGIN, post("/login", credentials(login)));
+                token = response.headers().firstValue("Authorization").orElseThrow();
+                refreshToken = response.headers().firstValue("Refresh-Token").orElseThrow();
+                for (int i = 0; i < persons; i++) {
+                    create();
+                }
+            } catch (IOException | InterruptedException e) {
+                throw new IllegalStateException("Client setup failed", e);
+            }
+        }
+
+        void reset() {
+            stats.clear();
+            for (Endpoint endpoint : Endpoint.values()) {
+                stats.put(endpoint, new Stats());
+            }
+        }
+
+        void call(Endpoint endpoint) throws IOException, InterruptedException {
+            if (ids.isEmpty() && endpoint != Endpoint.SIGN_UP && endpoint != Endpoint.LOGIN
+                    && endpoint != Endpoint.REFRESH) {
+                endpoint = Endpoint.CREATE;
+            }
+            int id = ids.isEmpty() ? 0 : ids.get(ThreadLocalRandom.current().nextInt(ids.size()));
+            switch (endpoint) {
+                case SIGN_UP -> send(endpoint, post("/person/sign-up", credentials(nextLogin())));
+                case LOGIN -> send(endpoint, post("/login", credentials(login)));
+                case REFRESH -> refresh();
+                case GET -> send(endpoint, authorized("/person/" + id).GET());
+                case CREATE -> create();
+                case PUT -> send(endpoint, authorized("/person/").PUT(body(Map.of(
+                        "id", id, "login", "upd" + runId + "_" + id,
+                        "password", Long.toString(System.nanoTime())))));
+                default -> {
+                    ids.remove(Integer.valueOf(id));
+                    send(endpoint, authorized("/person/" + id).DELETE());
+                }
+            }
+        }
+
+        /**
+         * Обмен токена обновления, клиент продолжает с новыми токенами
+         */
+        private void refresh() throws IOException, InterruptedException {
+            HttpResponse<String> response = send(Endpoint.REFRESH,
+                    HttpRequest.newBuilder(uri("/person/token/refresh"))
+                            .header("Refresh-Token", refreshToken)
+                            .POST(HttpRequest.BodyPublishers.noBody()));
+            if (response.statusCode() == 200) {
+                token = response.headers().firstValue("Authorization").orElseThrow();
+                refreshToken = response.headers().firstValue("Refresh-Token").orElseThrow();
+            }
+        }
+
+        private void create() throws IOException, InterruptedException {
+            HttpResponse<String> response = send(Endpoint.CREATE,
+                    authorized("/person/").POST(body(credentials(nextLogin()))));
+            if (response.statusCode() == 201) {
+                JsonNode created = mapper.readTree(response.body());
+                ids.add(created.get("id").asInt());
+            }
+        }
+
+        private HttpResponse<String> send(Endpoint endpoint, HttpRequest.Builder request)
+                throws IOException, InterruptedException {
+            long start = System.nanoTime();
+            HttpResponse<String> response;
+            try {
+                response = client.send(request.header("Content-Type", "application/json")
+                                .timeout(requestTimeout)
+                                .build(),
+                        HttpResponse.BodyHandlers.ofString());
+            } catch (IOException e) {
+                stats.get(endpoint).add(System.nanoTime() - start, 0);
+                throw e;
+            }
+            stats.get(endpoint).add(System.nanoTime() - start, response.statusCode());
+            return response;
+        }
+
+        private HttpRequest.Builder post(String path, Map<String, ?> body) throws IOException {
+            return HttpRequest.newBuilder(uri(path)).POST(body(body));
+        }
+
+        private HttpRequest.Builder authorized(String path) {
+            return HttpRequest.newBuilder(uri(path)).header("Authorization", token);
+        }
+    }
+
+    private String nextLogin() {
+        return "load" + runId + "_" + logins.incrementAndGet();
+    }
+
+    private static Map<String, String> credentials(String login) {
+        return Map.of("login", login, "password", PASSWORD);
+    }
+
+    private HttpRequest.BodyPublisher body(Map<String, ?> body) throws IOException {
+        return HttpRequest.BodyPublishers.ofByteArray(mapper.writeValueAsBytes(body));
+    }
+
+    private URI uri(String path) {
+        return URI.create("http://localhost:" + port + path);
+    }
+
+    private static Endpoint[] mix(String spec) {
+        List<Endpoint> result = new ArrayList<>();
+        for (String part : spec.split(",")) {
+            String[] pair = part.trim().split(":");
+            Endpoint endpoint = Arrays.stream(Endpoint.values())
+                    .filter(e -> e.key.equals(pair[0]))
+                    .findFirst()
+                    .orElseThrow(() -> new IllegalArgumentException("Unknown endpoint " + pair[0]));
+            for (int i = 0; i < Integer.parseInt(pair[1]); i++) {
+                result.add(endpoint);
+            }
+        }
+        return result.toArray(new Endpoint[0]);
+    }
+
+    private static double percentile(long[] sorted, double quantile) {
+        int index = (int) Math.ceil(quantile * sorted.length) - 1;
+        return sorted[Math.max(0, index)] / 1e6;
+    }
+
+    /**
+     * Байты, выделенные живыми потоками JVM (потоки пулов Tomcat и клиентов живут весь тест)
+     */
+    private static long allocatedBytes() {
+        com.sun.management.ThreadMXBean threads =
+                (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        return Arrays.stream(threads.getThreadAllocatedBytes(threads.getAllThreadIds()))
+                .filter(bytes -> bytes > 0)
+                .sum();
+    }
+
+    private static ThreadFactory named(String prefix) {
+        AtomicInteger next = new AtomicInteger();
+        return task -> new Thread(task, prefix + "-" + next.incrementAndGet());
+    }
+
+    /**
+     * Живые потоки процесса без потоков клиентов теста и HttpClient
+     */
+    private static long serverThreads() {
+        return Thread.getAllStackTraces().keySet().stream()
+                .map(Thread::getName)
+                .filter(name -> !name.startsWith(CLIENT_THREAD) && !name.startsWith("HttpClient-"))
+                .count();
+    }
+
+    /**
+     * Резидентная память процесса (VmRSS из /proc/self/status), -1 - не Linux
+     */
+    private static long rssKb() {
+        try {
+            return Files.readAllLines(Path.of("/proc/self/status")).stream()
+                    .filter(line -> line.startsWith("VmRSS:"))
+                    .mapToLong(line -> Long.parseLong(line.replaceAll("\\D", "")))
+                    .findFirst()
+                    .orElse(-1);
+        } catch (IOException e) {
+            return -1;
+        }
+    }
+
+    private static long gcCount() {
+        return ManagementFactory.getGarbageCollectorMXBeans().stream()
+                .mapToLong(GarbageCollectorMXBean::getCollectionCount)
+                .sum();
+    }
+
+    private static long gcTime() {
+        return ManagementFactory.getGarbageCollectorMXBeans().stream()
+                .mapToLong(GarbageCollectorMXBean::getCollectionTime)
+                .sum();
+    }
+
+    /**
+     * Имитация медленной БД: при loadtest.db-latency каждое создание запроса JDBC
+     * ждёт заданное время, удерживая соединение из пула
+     */
+    @TestConfiguration
+    static class DatabaseLatency {
+        @Bean
+        static BeanPostProcessor databaseLatency() {
+            Duration latency = Duration.parse(System.getProperty("loadtest.db-latency", "PT0S"));
+            return new BeanPostProcessor() {
+                @Override
+                public Object postProcessAfterInitialization(Object bean, String name) {
+                    if (latency.isZero() || !(bean instanceof DataSource)) {
+                        return bean;
+                    }
+                    return proxy(DataSource.class, bean, (method, result) ->
+                            method.equals("getConnection")
+                                    ? proxy(Connection.class, result, (statement, created) -> {
+                                        if (statement.startsWith("prepare")
+                                                || statement.equals("createStatement")) {
+                                            Thread.sleep(latency.toMillis());
+                                        }
+                                        return created;
+                                    })
+                                    : result);
+                }
+            };
+        }
+
+        /**
+         * Обёртка интерфейса: after получает имя метода и результат вызова
+         */
+        private static <T> T proxy(Class<T> type, Object target, After after) {
+            return type.cast(Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[] {type},
+                    (proxy, method, args) -> {
+                        try {
+                            return after.apply(method.getName(), method.invoke(target, args));
+                        } catch (InvocationTargetException e) {
+                            throw e.getCause();
+                        }
+                    }));
+        }
+
+        private interface After {
+            Object apply(String method, Object result) throws Exception;
+        }
+    }
+
+    /**
+     * Задержки (нс) и коды ответов одного запроса одного клиента
+     */
+    private static class Stats {
+        private long[] latencies = new long[1024];
+        private int count;
+        private final Map<Integer, Integer> statuses = new TreeMap<>();
+
+        void add(long nanos, int status) {
+            if (count == latencies.length) {
+                latencies = Arrays.copyOf(latencies, count * 2);
+            }
+            latencies[count++] = nanos;
+            statuses.merge(status, 1, Integer::sum);
+        }
+
+        void addAll(Stats other) {
+            if (count + other.count > latencies.length) {
+                latencies = Arrays.copyOf(latencies, count + other.count);
+            }
+            System.arraycopy(other.latencies, 0, latencies, count, other.count);
+            count += other.count;
+            other.statuses.forEach((status, n) -> statuses.merge(status, n, Integer::sum));
+        }
+
+        static Stats merge(List<Client> clients, Endpoint endpoint) {
+            Stats result = new Stats();
+            clients.forEach(client -> result.addAll(client.stats.get(endpoint)));
+            return result;
+        }
+    }
+}
@@ -0,0 +1,97 @@
+package ru.job4j.auth.load;
+
+import io.r2dbc.spi.Connection;
+import io.r2dbc.spi.ConnectionFactory;
+import io.r2dbc.spi.Statement;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.reactivestreams.Publisher;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.test.context.ActiveProfiles;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import ru.job4j.auth.config.ReactiveWebConfiguration;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.time.Duration;
+
+/**
+ * Нагрузочный тест неблокирующего стека (профиль reactive: WebFlux на Netty, R2DBC)
+ * на H2 в памяти (src/test/resources/application-reactive.properties).
+ * Сценарии и параметры те же, что у {@link LoadTest}, отчёт ступеней -
+ * target/loadtest-ramp-reactive.json.
+ * <p>
+ * Сравнение с сервлетным стеком на той же БД в памяти:
+ * mvn test -Dtest=LoadTest#concurrencyRamp,ReactiveLoadTest#concurrencyRamp -Dloadtest=true
+ * -Dloadtest.db-latency=PT0.02S -Dpassword.bcrypt.min-strength=4
+ * -Dpassword.bcrypt.max-strength=4 "-Dspring.datasource.url=jdbc:h2:mem:authdb;
+ * DB_CLOSE_DELAY=-1;MODE=PostgreSQL;CASE_INSENSITIVE_IDENTIFIERS=TRUE"
+ * -Dspring.datasource.username=sa
+ * <p>
+ * loadtest.db-latency здесь задерживает выполнение каждого запроса R2DBC
+ * без блокировки потока, как медленная сеть до PostgreSQL.
+ */
+@EnabledIfSystemProperty(named = "loadtest", matches = "true")
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+        properties = {"spring.main.web-application-type=reactive",
+                "login.rate-limit.enabled=false"})
+@ActiveProfiles(ReactiveWebConfiguration.PROFILE)
+class ReactiveLoadTest extends LoadTest {
+
+    /**
+     * Имитация медленной БД для R2DBC: выполнение запроса начинается
+     * через loadtest.db-latency, соединение из пула на это время занято
+     */
+    @TestConfiguration
+    static class R2dbcLatency {
+        @Bean
+        static BeanPostProcessor r2dbcLatency() {
+            Duration latency = Duration.parse(System.getProperty("loadtest.db-latency", "PT0S"));
+            return new BeanPostProcessor() {
+                @Override
+                public Object postProcessAfterInitialization(Object bean, String name) {
+                    if (latency.isZero() || !(bean instanceof ConnectionFactory)) {
+                        return bean;
+                    }
+                    return proxy(ConnectionFactory.class, bean, (method, created) ->
+                            method.equals("create")
+                                    ? Mono.from((Publisher<?>) created).map(connection ->
+                                    proxy(Connection.class, connection, (call, result) ->
+                                            call.equals("createStatement")
+                                                    ? delayed(result, latency) : result))
+                                    : created);
+                }
+            };
+        }
+
+        private static Statement delayed(Object statement, Duration latency) {
+            return proxy(Statement.class, statement, (method, result) ->
+                    method.equals("execute")
+                            ? Flux.from((Publisher<?>) result).delaySubscription(latency)
+                            : result);
+        }
+
+        /**
+         * Обёртка интерфейса: after получает имя метода и результат вызова,
+         * методы, возвращающие сам объект (bind, add), возвращают обёртку
+         */
+        private static <T> T proxy(Class<T> type, Object target, After after) {
+            return type.cast(Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[] {type},
+                    (proxy, method, args) -> {
+                        try {
+                            Object result = method.invoke(target, args);
+                            return result == target ? proxy : after.apply(method.getName(), result);
+                        } catch (InvocationTargetException e) {
+                            throw e.getCause();
+                        }
+                    }));
+        }
+
+        private interface After {
+            Object apply(String method, Object result) throws Exception;
+        }
+    }
+}
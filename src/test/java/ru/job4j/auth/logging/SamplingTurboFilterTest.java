@@ -0,0 +1,66 @@
+package ru.job4j.auth.logging;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import ch.qos.logback.classic.LoggerContext;
+import ch.qos.logback.core.spi.FilterReply;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SamplingTurboFilterTest {
+    private final LoggerContext context = new LoggerContext();
+
+    @Test
+    void whenLoggerSampledOutThenBelowWarnDeniedAndOthersPass() {
+        SamplingTurboFilter filter = filter("org.hibernate.SQL:0,RefreshTokenService:1");
+        Logger sql = logger("org.hibernate.SQL", Level.DEBUG);
+        Logger child = logger("org.hibernate.SQL.batch", Level.DEBUG);
+        assertThat(decide(filter, sql, Level.DEBUG)).isEqualTo(FilterReply.DENY);
+        assertThat(decide(filter, child, Level.INFO)).isEqualTo(FilterReply.DENY);
+        assertThat(decide(filter, sql, Level.WARN)).isEqualTo(FilterReply.NEUTRAL);
+        assertThat(decide(filter, logger("RefreshTokenService", Level.INFO), Level.INFO))
+                .isEqualTo(FilterReply.NEUTRAL);
+        assertThat(decide(filter, logger("org.hibernate", Level.INFO), Level.INFO))
+                .isEqualTo(FilterReply.NEUTRAL);
+    }
+
+    @Test
+    void whenLevelDisabledOrNoSamplingThenNeutral() {
+        Logger sql = logger("org.hibernate.SQL", Level.INFO);
+        assertThat(decide(filter("org.hibernate.SQL:0"), sql, Level.DEBUG))
+                .isEqualTo(FilterReply.NEUTRAL);
+        assertThat(decide(filter(""), sql, Level.INFO)).isEqualTo(FilterReply.NEUTRAL);
+    }
+
+    @Test
+    void whenHalfSampledThenAboutHalfPass() {
+        SamplingTurboFilter filter = filter("PersonController:0.5");
+        Logger logger = logger("PersonController", Level.INFO);
+        int passed = 0;
+        for (int i = 0; i < 10_000; i++) {
+            if (decide(filter, logger, Level.INFO) == FilterReply.NEUTRAL) {
+                passed++;
+            }
+        }
+        assertThat(passed).isBetween(4_000, 6_000);
+    }
+
+    private SamplingTurboFilter filter(String sampling) {
+        SamplingTurboFilter filter = new SamplingTurboFilter();
+        filter.setContext(context);
+        filter.setSampling(sampling);
+        filter.start();
+        return filter;
+    }
+
+    private Logger logger(String name, Level level) {
+        Logger logger = context.getLogger(name);
+        logger.setLevel(level);
+        return logger;
+    }
+
+    private static FilterReply decide(SamplingTurboFilter filter, Logger logger, Level level) {
+        return filter.decide(null, logger, level, "message {}", new Object[] {1}, null);
+    }
+}
@@ -0,0 +1,40 @@
+package ru.job4j.auth.ratelimit;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class RateLimiterTest {
+    private final AtomicLong now = new AtomicLong(-5_000_000_000L);
+    private final RateLimiter limiter =
+            new RateLimiter(3, Duration.ofSeconds(2), 100, now::get);
+
+    @Test
+    void whenBurstSpentThenRejectedUntilRefill() {
+        assertThat(limiter.tryAcquire("login")).isZero();
+        assertThat(limiter.tryAcquire("login")).isZero();
+        assertThat(limiter.tryAcquire("login")).isZero();
+        assertThat(limiter.tryAcquire("login")).isEqualTo(Duration.ofSeconds(2).toNanos());
+        assertThat(limiter.tryAcquire("other")).isZero();
+        now.addAndGet(Duration.ofMillis(1500).toNanos());
+        assertThat(limiter.tryAcquire("login")).isEqualTo(Duration.ofMillis(500).toNanos());
+        now.addAndGet(Duration.ofMillis(500).toNanos());
+        assertThat(limiter.tryAcquire("login")).isZero();
+        assertThat(limiter.tryAcquire("login")).isPositive();
+    }
+
+    @Test
+    void whenIdleThenBucketFullAgain() {
+        for (int i = 0; i < 3; i++) {
+            assertThat(limiter.tryAcquire("login")).isZero();
+        }
+        now.addAndGet(Duration.ofSeconds(60).toNanos());
+        for (int i = 0; i < 3; i++) {
+            assertThat(limiter.tryAcquire("login")).isZero();
+        }
+        assertThat(limiter.tryAcquire("login")).isPositive();
+    }
+}
@@ -0,0 +1,66 @@
+package ru.job4j.auth.service;
+
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.util.unit.DataSize;
+import ru.job4j.auth.jfr.LoginEvent;
+import ru.job4j.auth.jfr.LoginHash;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class FlightRecorderServiceTest {
+    @TempDir
+    private Path directory;
+
+    private FlightRecorderService recorder;
+
+    @AfterEach
+    void close() {
+        if (recorder != null) {
+            recorder.close();
+        }
+    }
+
+    @Test
+    void whenStoppedThenEventsWrittenWithHashedLogin() throws Exception {
+        recorder = new FlightRecorderService("default", Duration.ofMinutes(1),
+                Duration.ofMinutes(1), DataSize.ofMegabytes(10), directory);
+        recorder.start(null);
+        LoginEvent event = new LoginEvent();
+        event.begin();
+        event.end("admin", "success");
+        Map<String, Object> stopped = recorder.stop();
+
+        List<RecordedEvent> logins = RecordingFile.readAllEvents(
+                Path.of((String) stopped.get("file"))).stream()
+                .filter(e -> e.getEventType().getName().equals("ru.job4j.auth.Login"))
+                .collect(Collectors.toList());
+        assertThat(logins).hasSize(1);
+        assertThat(logins.get(0).getString("login"))
+                .isEqualTo(LoginHash.of("admin"))
+                .doesNotContain("admin");
+        assertThat(logins.get(0).getString("outcome")).isEqualTo("success");
+    }
+
+    @Test
+    void whenAlreadyRunningThenStartRejected() {
+        recorder = new FlightRecorderService("default", Duration.ofMinutes(1),
+                Duration.ofMinutes(1), DataSize.ofMegabytes(10), directory);
+        assertThat(recorder.start(Duration.ofHours(1))).containsEntry("duration",
+                Duration.ofMinutes(1));
+        assertThatThrownBy(() -> recorder.start(null)).isInstanceOf(IllegalStateException.class);
+        recorder.stop();
+        assertThatThrownBy(() -> recorder.stop()).isInstanceOf(NoSuchElementException.class);
+    }
+}
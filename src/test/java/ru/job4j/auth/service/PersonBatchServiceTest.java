@@ -0,0 +1,65 @@
+package ru.job4j.auth.service;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import ru.job4j.auth.model.Person;
+import ru.job4j.auth.model.PersonBatchResult;
+import ru.job4j.auth.model.PersonBatchResult.Item;
+import ru.job4j.auth.model.PersonBatchResult.Status;
+import ru.job4j.auth.repository.PersonRepository;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:batchdb;MODE=PostgreSQL;"
+                + "CASE_INSENSITIVE_IDENTIFIERS=TRUE",
+        "password.bcrypt.min-strength=4", "password.bcrypt.max-strength=4",
+        "person.batch.max-size=200"})
+class PersonBatchServiceTest {
+    @Autowired
+    private PersonBatchService batches;
+
+    @Autowired
+    private PersonRepository persons;
+
+    @Test
+    void whenBatchHasInvalidAndRepeatedLoginsThenOnlyValidCreated() {
+        List<Person> items = List.of(
+                new Person(0, "batch1", "pw", null),
+                new Person(0, "batch1", "pw", null),
+                new Person(0, "ban", "pw", null),
+                new Person(0, "", "pw", null),
+                new Person(0, "batch2", "pw", null));
+        PersonBatchResult result = batches.createAll(items.iterator());
+        assertThat(result.getCreated()).isEqualTo(2);
+        assertThat(result.getRejected()).isEqualTo(3);
+        assertThat(result.getItems()).extracting(Item::getStatus).containsExactly(
+                Status.CREATED, Status.CONFLICT, Status.CONFLICT, Status.INVALID, Status.CREATED);
+        Person created = persons.findByLogin("batch2").orElseThrow();
+        assertThat(created.getId()).isEqualTo(result.getItems().get(4).getId());
+        assertThat(created.getPassword()).startsWith("{bcrypt}");
+    }
+
+    @Test
+    void whenBatchSpansSeveralChunksThenAllCreatedWithDistinctIds() {
+        List<Person> items = new ArrayList<>();
+        IntStream.range(0, 120).forEach(i -> items.add(new Person(0, "chunk" + i, "pw", null)));
+        PersonBatchResult result = batches.createAll(items.iterator());
+        assertThat(result.getCreated()).isEqualTo(120);
+        assertThat(result.getItems()).extracting(Item::getId).doesNotHaveDuplicates();
+    }
+
+    @Test
+    void whenBatchTooLargeThenIllegalArgument() {
+        List<Person> items = new ArrayList<>();
+        IntStream.range(0, 201).forEach(i -> items.add(new Person(0, "big" + i, "pw", null)));
+        assertThatThrownBy(() -> batches.createAll(items.iterator()))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+}
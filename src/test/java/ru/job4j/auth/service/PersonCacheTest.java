@@ -0,0 +1,105 @@
+package ru.job4j.auth.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import ru.job4j.auth.model.Person;
+
+import javax.persistence.EntityManagerFactory;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:cachedb;MODE=PostgreSQL;"
+                + "CASE_INSENSITIVE_IDENTIFIERS=TRUE",
+        "password.bcrypt.min-strength=4", "password.bcrypt.max-strength=4"})
+class PersonCacheTest {
+    @Autowired
+    private PersonService persons;
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+    @Autowired
+    private ObjectMapper mapper;
+    private Statistics statistics;
+
+    @BeforeEach
+    void setUp() {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    }
+
+    @Test
+    void whenWarmThenFindByLoginAndByIdWithoutSql() {
+        Person person = persons.create(new Person(0, "cached1", "pw", null));
+        persons.findByLogin("cached1");
+        long naturalIdQueries = naturalIdQueries();
+        long entityLoads = entityLoads();
+        assertThat(persons.findByLogin("cached1")).contains(person);
+        assertThat(persons.findById(person.getId())).contains(person);
+        assertThat(naturalIdQueries()).isEqualTo(naturalIdQueries);
+        assertThat(entityLoads()).isEqualTo(entityLoads);
+    }
+
+    @Test
+    void whenUpdateThenCachedPersonReplaced() {
+        Person person = persons.create(new Person(0, "cached2", "pw", null));
+        persons.findByLogin("cached2");
+        persons.update(new Person(person.getId(), "cached2-renamed", "pw2", null));
+        assertThat(persons.findByLogin("cached2")).isEmpty();
+        assertThat(persons.findByLogin("cached2-renamed").orElseThrow().getPassword())
+                .isEqualTo("pw2");
+        assertThat(persons.updatePassword("cached2-renamed", "pw2", "pw3")).isTrue();
+        assertThat(persons.findById(person.getId()).orElseThrow().getPassword())
+                .isEqualTo("pw3");
+    }
+
+    @Test
+    void whenPatchLoginThenNaturalIdMovesToNewLogin() {
+        Person person = persons.create(new Person(0, "cached3", "pw", null));
+        persons.findByLogin("cached3");
+        ObjectNode patch = mapper.createObjectNode().put("login", "cached3-patched");
+        persons.patch(person.getId(), patch);
+        assertThat(persons.findByLogin("cached3")).isEmpty();
+        assertThat(persons.findByLogin("cached3-patched").map(Person::getId))
+                .contains(person.getId());
+    }
+
+    @Test
+    void whenDeleteThenNotFoundFromCache() {
+        Person person = persons.create(new Person(0, "cached4", "pw", null));
+        persons.findByLogin("cached4");
+        persons.findById(person.getId());
+        assertThat(persons.delete(person.getId())).isTrue();
+        assertThat(persons.findByLogin("cached4")).isEmpty();
+        assertThat(persons.findById(person.getId())).isEmpty();
+    }
+
+    @Test
+    void whenWriteOnePersonThenOtherPersonStaysCached() {
+        Person written = persons.create(new Person(0, "cached5", "pw", null));
+        Person other = persons.create(new Person(0, "cached6", "pw", null));
+        persons.findByLogin("cached6");
+        persons.findById(other.getId());
+        long naturalIdQueries = naturalIdQueries();
+        long entityLoads = entityLoads();
+        persons.update(new Person(written.getId(), "cached5", "pw2", null));
+        persons.updatePassword("cached5", "pw2", "pw3");
+        persons.delete(written.getId());
+        assertThat(persons.findByLogin("cached6")).contains(other);
+        assertThat(persons.findById(other.getId())).contains(other);
+        assertThat(naturalIdQueries()).isEqualTo(naturalIdQueries);
+        assertThat(entityLoads()).isEqualTo(entityLoads);
+    }
+
+    private long naturalIdQueries() {
+        return statistics.getNaturalIdStatistics(Person.class.getName()).getExecutionCount();
+    }
+
+    private long entityLoads() {
+        return statistics.getEntityStatistics(Person.class.getName()).getLoadCount();
+    }
+}
@@ -0,0 +1,53 @@
+package ru.job4j.auth.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Форматы выгрузки пользователей на двух строках.
+ * Выгрузка миллиона строк - {@link ru.job4j.auth.load.ExportLoadTest}.
+ */
+@SpringBootTest(properties = "spring.datasource.url=jdbc:h2:mem:exportdb;MODE=PostgreSQL;"
+        + "CASE_INSENSITIVE_IDENTIFIERS=TRUE;LAZY_QUERY_EXECUTION=1")
+class PersonExportServiceTest {
+    @Autowired
+    private PersonExportService exporter;
+
+    @Autowired
+    private JdbcTemplate jdbc;
+
+    @BeforeEach
+    void fillTable() {
+        jdbc.update("delete from person");
+        jdbc.update("insert into person (login, password)"
+                + " select concat('user', x), 'password' from system_range(1, 2)");
+    }
+
+    @Test
+    void whenExportAsCsvThenHeaderAndRows() throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        long rows = exporter.export(out, PersonExportService.Format.CSV);
+        String[] lines = out.toString().split("\n");
+        assertThat(rows).isEqualTo(2);
+        assertThat(lines).hasSize(3);
+        assertThat(lines[0]).isEqualTo("id,login,password,version");
+        assertThat(lines[1]).endsWith(",user1,password,0");
+    }
+
+    @Test
+    void whenExportAsNdjsonThenOneObjectPerLine() throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        exporter.export(out, PersonExportService.Format.NDJSON);
+        assertThat(out.toString())
+                .matches("(\\{\"id\":\\d+,\"login\":\"user\\d\","
+                        + "\"password\":\"password\",\"version\":0}\n){2}");
+    }
+}
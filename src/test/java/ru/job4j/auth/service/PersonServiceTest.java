@@ -0,0 +1,122 @@
+package ru.job4j.auth.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import ru.job4j.auth.model.Person;
+import ru.job4j.auth.model.PersonPage;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:servicedb;MODE=PostgreSQL;"
+                + "CASE_INSENSITIVE_IDENTIFIERS=TRUE",
+        "password.bcrypt.min-strength=4", "password.bcrypt.max-strength=4",
+        "person.page.max-limit=5"})
+class PersonServiceTest {
+    @Autowired
+    private PersonService persons;
+    @Autowired
+    private PasswordEncoder encoder;
+    @Autowired
+    private ObjectMapper mapper;
+
+    @Test
+    void whenUpdateChangedThenVersionIncrementedAndSameUpdateNotModified() {
+        Person person = persons.create(new Person(0, "update1", "pw", null));
+        Person changed = new Person(person.getId(), "update1", "pw2", null);
+        assertThat(persons.update(changed)).isTrue();
+        assertThat(persons.update(changed)).isFalse();
+        assertThat(persons.findById(person.getId()).orElseThrow().getVersion()).isEqualTo(1);
+    }
+
+    @Test
+    void whenUpdateWithStaleVersionThenOptimisticLockingFailure() {
+        Person person = persons.create(new Person(0, "update2", "pw", null));
+        assertThat(persons.update(new Person(person.getId(), "update2", "pw2", 0))).isTrue();
+        assertThatThrownBy(() -> persons.update(new Person(person.getId(), "update2", "pw3", 0)))
+                .isInstanceOf(OptimisticLockingFailureException.class);
+    }
+
+    @Test
+    void whenUpdateMissingThenNoSuchElement() {
+        assertThatThrownBy(() -> persons.update(new Person(Integer.MAX_VALUE, "none", "pw", null)))
+                .isInstanceOf(NoSuchElementException.class);
+    }
+
+    @Test
+    void whenDeleteTwiceThenSecondNotDeleted() {
+        Person person = persons.create(new Person(0, "delete1", "pw", null));
+        assertThat(persons.delete(person.getId())).isTrue();
+        assertThat(persons.delete(person.getId())).isFalse();
+        assertThat(persons.findById(person.getId())).isEmpty();
+    }
+
+    @Test
+    void whenPatchPasswordThenStoredHashed() {
+        Person person = persons.create(new Person(0, "patch1", encoder.encode("pw"), null));
+        persons.patch(person.getId(), mapper.createObjectNode().put("password", "new"));
+        String stored = persons.findById(person.getId()).orElseThrow().getPassword();
+        assertThat(stored).isNotEqualTo("new");
+        assertThat(encoder.matches("new", stored)).isTrue();
+    }
+
+    @Test
+    void whenPatchLoginOnlyThenPasswordHashKept() {
+        String hash = encoder.encode("pw");
+        Person person = persons.create(new Person(0, "patch2", hash, null));
+        persons.patch(person.getId(), mapper.createObjectNode().put("login", "patch2-renamed"));
+        assertThat(persons.findById(person.getId()).orElseThrow().getPassword()).isEqualTo(hash);
+    }
+
+    @Test
+    void whenPagedThenEveryPersonOnceInIdOrderAndLastPageWithoutCursor() {
+        for (int i = 0; i < 7; i++) {
+            persons.create(new Person(0, "page" + i, "pw", null));
+        }
+        List<Integer> ids = new ArrayList<>();
+        PersonPage page = persons.findPage(null, 3);
+        while (page.isHasMore()) {
+            assertThat(page.getItems()).hasSize(3);
+            assertThat(page.getNext()).isNotNull();
+            page.getItems().forEach(person -> ids.add(person.getId()));
+            page = persons.findPage(page.getNext(), 3);
+        }
+        page.getItems().forEach(person -> ids.add(person.getId()));
+        assertThat(page.getItems()).hasSizeBetween(1, 3);
+        assertThat(page.getNext()).isNull();
+        assertThat(ids).isSorted().doesNotHaveDuplicates()
+                .containsExactlyElementsOf(persons.findAll().stream()
+                        .map(Person::getId).sorted().toList());
+    }
+
+    @Test
+    void whenLimitAboveMaxThenCappedAtMaxLimit() {
+        for (int i = 0; i < 6; i++) {
+            persons.create(new Person(0, "limit" + i, "pw", null));
+        }
+        PersonPage page = persons.findPage(null, 1000);
+        assertThat(page.getItems()).hasSize(5);
+        assertThat(page.isHasMore()).isTrue();
+    }
+
+    @Test
+    void whenLimitLessThanOneThenIllegalArgument() {
+        assertThatThrownBy(() -> persons.findPage(null, 0))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void whenCursorMalformedThenIllegalArgument() {
+        assertThatThrownBy(() -> persons.findPage("aWQ6eA", 3))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+}
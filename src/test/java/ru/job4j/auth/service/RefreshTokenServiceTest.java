@@ -0,0 +1,85 @@
+package ru.job4j.auth.service;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import ru.job4j.auth.model.Person;
+import ru.job4j.auth.repository.PersonRepository;
+
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(properties =
+        "spring.datasource.url=jdbc:h2:mem:refreshdb;MODE=PostgreSQL;"
+                + "CASE_INSENSITIVE_IDENTIFIERS=TRUE")
+class RefreshTokenServiceTest {
+    @Autowired
+    private RefreshTokenService refreshTokens;
+
+    @Autowired
+    private PersonRepository persons;
+
+    @Autowired
+    private PersonService personService;
+
+    @Test
+    void whenRotatedThenNewTokenWorksAndOldNot() {
+        persons.save(new Person(0, "refresh1", "password", null));
+        String first = refreshTokens.issue("refresh1");
+        Optional<RefreshTokenService.Rotated> rotated = refreshTokens.rotate(first);
+        assertThat(rotated).isPresent();
+        assertThat(rotated.get().login()).isEqualTo("refresh1");
+        assertThat(rotated.get().refreshToken()).isNotEqualTo(first);
+        assertThat(refreshTokens.rotate(rotated.get().refreshToken())).isPresent();
+    }
+
+    @Test
+    void whenUsedTokenReusedThenWholeFamilyRevoked() {
+        persons.save(new Person(0, "refresh2", "password", null));
+        String stolen = refreshTokens.issue("refresh2");
+        String next = refreshTokens.rotate(stolen).orElseThrow().refreshToken();
+        String other = refreshTokens.issue("refresh2");
+        assertThat(refreshTokens.rotate(stolen)).isEmpty();
+        assertThat(refreshTokens.rotate(next)).isEmpty();
+        assertThat(refreshTokens.rotate(other)).isPresent();
+    }
+
+    @Test
+    void whenUnknownTokenOrUserDeletedThenEmpty() {
+        assertThat(refreshTokens.rotate("unknown")).isEmpty();
+        Person person = persons.save(new Person(0, "deleted", "password", null));
+        String token = refreshTokens.issue("deleted");
+        persons.delete(person);
+        assertThat(refreshTokens.rotate(token)).isEmpty();
+    }
+
+    @Test
+    void whenPasswordChangedThenTokensRevokedButRehashKeepsThem() {
+        Person person = personService.create(new Person(0, "refresh4", "password", null));
+        String token = refreshTokens.issue("refresh4");
+        assertThat(personService.updatePassword("refresh4", "password", "rehashed")).isTrue();
+        String next = refreshTokens.rotate(token).orElseThrow().refreshToken();
+        assertThat(personService.update(
+                new Person(person.getId(), "refresh4", "changed", null))).isTrue();
+        assertThat(refreshTokens.rotate(next)).isEmpty();
+    }
+
+    @Test
+    void whenDeletedAndLoginRegisteredAgainThenOldTokenRejected() {
+        Person person = personService.create(new Person(0, "refresh5", "password", null));
+        String token = refreshTokens.issue("refresh5");
+        assertThat(personService.delete(person.getId())).isTrue();
+        personService.create(new Person(0, "refresh5", "password", null));
+        assertThat(refreshTokens.rotate(token)).isEmpty();
+    }
+
+    @Test
+    void whenRevokedThenFamilyCannotRotate() {
+        persons.save(new Person(0, "refresh3", "password", null));
+        String token = refreshTokens.issue("refresh3");
+        assertThat(refreshTokens.revoke(token)).isTrue();
+        assertThat(refreshTokens.rotate(token)).isEmpty();
+        assertThat(refreshTokens.revoke(token)).isFalse();
+    }
+}
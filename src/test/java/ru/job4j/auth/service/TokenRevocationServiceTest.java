@@ -0,0 +1,75 @@
+package ru.job4j.auth.service;
+
+import com.auth0.jwt.JWT;
+import com.auth0.jwt.interfaces.DecodedJWT;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import ru.job4j.auth.filter.JwtTokens;
+import ru.job4j.auth.model.RevokedToken;
+import ru.job4j.auth.repository.RevokedTokenRepository;
+
+import java.lang.reflect.Proxy;
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(properties =
+        "spring.datasource.url=jdbc:h2:mem:revocationdb;MODE=PostgreSQL;"
+                + "CASE_INSENSITIVE_IDENTIFIERS=TRUE")
+class TokenRevocationServiceTest {
+    @Autowired
+    private TokenRevocationService revocations;
+
+    @Autowired
+    private RevokedTokenRepository revoked;
+
+    @Autowired
+    private JwtTokens tokens;
+
+    @Test
+    void whenRevokedThenRevokedAndOtherTokensNot() {
+        DecodedJWT jwt = JWT.decode(tokens.sign("revoke1"));
+        DecodedJWT other = JWT.decode(tokens.sign("revoke1"));
+        assertThat(jwt.getId()).isNotEqualTo(other.getId());
+        assertThat(revocations.revoke(jwt)).isTrue();
+        assertThat(revocations.isRevoked(jwt.getId())).isTrue();
+        assertThat(revocations.isRevoked(other.getId())).isFalse();
+        assertThat(revocations.isRevoked(null)).isFalse();
+    }
+
+    @Test
+    void whenRefreshThenExpiredPrunedAndActiveKept() {
+        DecodedJWT jwt = JWT.decode(tokens.sign("revoke2"));
+        revocations.revoke(jwt);
+        revoked.save(new RevokedToken("expired-jti", Instant.now().minusSeconds(1)));
+        revocations.refresh();
+        assertThat(revoked.existsById("expired-jti")).isFalse();
+        assertThat(revocations.mightBeRevoked("expired-jti")).isFalse();
+        assertThat(revocations.isRevoked(jwt.getId())).isTrue();
+    }
+
+    @Test
+    void whenRevokedWhileRebuildingThenNewFilterHasIt() {
+        DecodedJWT jwt = JWT.decode(tokens.sign("revoke3"));
+        AtomicReference<TokenRevocationService> service = new AtomicReference<>();
+        /* the scan does not see the row saved by a revoke that runs during it */
+        RevokedTokenRepository repository = (RevokedTokenRepository) Proxy.newProxyInstance(
+                getClass().getClassLoader(), new Class<?>[] {RevokedTokenRepository.class},
+                (proxy, method, args) -> {
+                    if ("findAllJti".equals(method.getName())) {
+                        if (service.get() != null) {
+                            service.get().revoke(jwt);
+                        }
+                        return List.of();
+                    }
+                    return "deleteExpired".equals(method.getName()) ? 0 : null;
+                });
+        service.set(new TokenRevocationService(repository, 1000, 0.01, new SimpleMeterRegistry()));
+        service.get().refresh();
+        assertThat(service.get().mightBeRevoked(jwt.getId())).isTrue();
+    }
+}
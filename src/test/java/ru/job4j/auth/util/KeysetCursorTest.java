@@ -0,0 +1,40 @@
+package ru.job4j.auth.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class KeysetCursorTest {
+
+    @Test
+    void whenEncodedThenDecodedToSameId() {
+        assertThat(KeysetCursor.encode(2)).isEqualTo("aWQ6Mg");
+        assertThat(KeysetCursor.decode(KeysetCursor.encode(Integer.MAX_VALUE)))
+                .isEqualTo(Integer.MAX_VALUE);
+    }
+
+    @Test
+    void whenNoCursorThenFirstPage() {
+        assertThat(KeysetCursor.decode(null)).isZero();
+        assertThat(KeysetCursor.decode("")).isZero();
+    }
+
+    @Test
+    void whenCursorMalformedThenIllegalArgument() {
+        assertThatThrownBy(() -> KeysetCursor.decode("not base64!"))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> KeysetCursor.decode(cursor("page:2")))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> KeysetCursor.decode(cursor("id:two")))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    private static String cursor(String value) {
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString(value.getBytes(StandardCharsets.US_ASCII));
+    }
+}
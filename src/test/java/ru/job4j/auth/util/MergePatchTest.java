@@ -0,0 +1,47 @@
+package ru.job4j.auth.util;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import org.junit.jupiter.api.Test;
+import ru.job4j.auth.model.Person;
+
+import java.io.IOException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class MergePatchTest {
+    private final ObjectMapper mapper = new ObjectMapper();
+    private final MergePatch mergePatch = new MergePatch(mapper);
+
+    private ObjectNode patch(String json) throws IOException {
+        return (ObjectNode) mapper.readTree(json);
+    }
+
+    @Test
+    void whenPatchThenOnlyChangedPropertiesReported() throws IOException {
+        Person person = new Person(1, "login", "password", 0);
+        assertThat(mergePatch.apply(person, patch("{\"login\":\"login\",\"password\":\"new\"}")))
+                .containsExactly("password");
+        assertThat(person).isEqualTo(new Person(1, "login", "new", 0));
+    }
+
+    @Test
+    void whenNullThenPropertyCleared() throws IOException {
+        Person person = new Person(1, "login", "password", 0);
+        assertThat(mergePatch.apply(person, patch("{\"version\":null}")))
+                .containsExactly("version");
+        assertThat(person.getVersion()).isNull();
+    }
+
+    @Test
+    void whenUnknownPropertyOrNullPrimitiveThenIllegalArgument() {
+        Person person = new Person(1, "login", "password", 0);
+        assertThatThrownBy(() -> mergePatch.apply(person, patch("{\"unknown\":1}")))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> mergePatch.apply(person, patch("{\"id\":null}")))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> mergePatch.apply(person, patch("{\"id\":\"abc\"}")))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+}
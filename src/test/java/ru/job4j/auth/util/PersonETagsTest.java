@@ -0,0 +1,45 @@
+package ru.job4j.auth.util;
+
+import org.junit.jupiter.api.Test;
+import ru.job4j.auth.model.Person;
+import ru.job4j.auth.model.PersonPage;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class PersonETagsTest {
+
+    @Test
+    void whenPersonThenStrongETagOfIdAndVersion() {
+        assertThat(PersonETags.of(new Person(7, "login", "password", 3))).isEqualTo("\"7-3\"");
+        assertThat(PersonETags.of(new Person(7, "login", "password", null)))
+                .isEqualTo("\"7-0\"");
+    }
+
+    @Test
+    void whenPageRowsUnchangedThenSameWeakETag() {
+        String etag = PersonETags.of(page(false, new Person(1, "a", "p", 0),
+                new Person(2, "b", "p", 4)));
+        assertThat(etag).startsWith("W/\"p-").endsWith("\"");
+        assertThat(PersonETags.of(page(false, new Person(1, "x", "y", 0),
+                new Person(2, "z", "w", 4)))).isEqualTo(etag);
+    }
+
+    @Test
+    void whenPageRowAddedChangedOrRemovedThenETagChanges() {
+        Person first = new Person(1, "a", "p", 0);
+        Person second = new Person(2, "b", "p", 4);
+        String etag = PersonETags.of(page(false, first, second));
+        assertThat(PersonETags.of(page(false, first, new Person(2, "b", "p", 5))))
+                .isNotEqualTo(etag);
+        assertThat(PersonETags.of(page(false, first))).isNotEqualTo(etag);
+        assertThat(PersonETags.of(page(false, first, second, new Person(3, "c", "p", 0))))
+                .isNotEqualTo(etag);
+        assertThat(PersonETags.of(page(true, first, second))).isNotEqualTo(etag);
+    }
+
+    private static PersonPage page(boolean hasMore, Person... persons) {
+        return new PersonPage(List.of(persons), null, hasMore);
+    }
+}
@@ -0,0 +1,41 @@
+package ru.job4j.auth.util;
+
+import io.micrometer.core.instrument.MockClock;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.simple.SimpleConfig;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class ResultTimersTest {
+    private final MockClock clock = new MockClock();
+    private final SimpleMeterRegistry registry =
+            new SimpleMeterRegistry(SimpleConfig.DEFAULT, clock);
+
+    @Test
+    void whenCreatedThenAllResultsRegisteredAndStopRecordsElapsed() {
+        ResultTimers timers = new ResultTimers(registry, "test.timer", "Test",
+                Tags.of("cache", "hit"), "success", "error");
+        assertThat(registry.find("test.timer").timers()).hasSize(2);
+        long start = timers.start();
+        clock.add(5, TimeUnit.MILLISECONDS);
+        timers.stop(start, "error");
+        assertThat(registry.timer("test.timer", "cache", "hit", "result", "error")
+                .totalTime(TimeUnit.MILLISECONDS)).isEqualTo(5);
+        assertThat(registry.timer("test.timer", "cache", "hit", "result", "success").count())
+                .isZero();
+    }
+
+    @Test
+    void whenUnknownResultThenIllegalArgument() {
+        ResultTimers timers = new ResultTimers(registry, "test.timer", "Test",
+                Tags.empty(), "success");
+        assertThatThrownBy(() -> timers.stop(timers.start(), "other"))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThat(registry.find("test.timer").timers()).hasSize(1);
+    }
+}
@@ -0,0 +1,33 @@
+package ru.job4j.auth.websecurity;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.security.authentication.AnonymousAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.authority.AuthorityUtils;
+import org.springframework.security.web.access.WebInvocationPrivilegeEvaluator;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * С отдельным портом actuator: проверка доступа к странице ошибки
+ * (ErrorPageSecurityFilter) идёт по запросу-заглушке без порта.
+ */
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:managementdb;MODE=PostgreSQL;"
+                + "CASE_INSENSITIVE_IDENTIFIERS=TRUE",
+        "management.server.port=18081"})
+class ManagementPortSecurityTest {
+    private static final Authentication ANONYMOUS = new AnonymousAuthenticationToken(
+            "anonymous", "anonymousUser", AuthorityUtils.createAuthorityList("ROLE_ANONYMOUS"));
+
+    @Autowired
+    private WebInvocationPrivilegeEvaluator privileges;
+
+    @Test
+    void whenAnonymousErrorDispatchThenAccessCheckedWithoutPort() {
+        assertThat(privileges.isAllowed("/person/", ANONYMOUS)).isFalse();
+        assertThat(privileges.isAllowed("/actuator/health", ANONYMOUS)).isTrue();
+    }
+}
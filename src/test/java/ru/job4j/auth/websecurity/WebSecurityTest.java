@@ -0,0 +1,70 @@
+package ru.job4j.auth.websecurity;
+
+import com.auth0.jwt.JWT;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.actuate.metrics.AutoConfigureMetrics;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.web.servlet.MockMvc;
+import ru.job4j.auth.crypto.ES256Algorithm;
+import ru.job4j.auth.crypto.JwtKeyRing;
+import ru.job4j.auth.filter.JwtTokens;
+
+import java.util.Date;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+import static ru.job4j.auth.filter.JWTAuthenticationFilter.HEADER_STRING;
+import static ru.job4j.auth.filter.JWTAuthenticationFilter.TOKEN_PREFIX;
+
+@SpringBootTest(properties = {
+        "spring.datasource.url=jdbc:h2:mem:securitydb;MODE=PostgreSQL;"
+                + "CASE_INSENSITIVE_IDENTIFIERS=TRUE",
+        "admin.logins=admin"})
+@AutoConfigureMockMvc
+@AutoConfigureMetrics
+class WebSecurityTest {
+    @Autowired
+    private MockMvc mvc;
+    @Autowired
+    private JwtTokens tokens;
+    @Autowired
+    private JwtKeyRing keys;
+
+    @Test
+    void whenHealthWithoutTokenThenOk() throws Exception {
+        mvc.perform(get("/actuator/health")).andExpect(status().isOk());
+    }
+
+    @Test
+    void whenPrometheusOnPublicPortThenAdminOnly() throws Exception {
+        mvc.perform(get("/actuator/prometheus")).andExpect(status().isForbidden());
+        mvc.perform(get("/actuator/prometheus")
+                        .header(HEADER_STRING, TOKEN_PREFIX + tokens.sign("user")))
+                .andExpect(status().isForbidden());
+        mvc.perform(get("/actuator/prometheus")
+                        .header(HEADER_STRING, TOKEN_PREFIX + tokens.sign("admin")))
+                .andExpect(status().isOk());
+    }
+
+    @Test
+    void whenExpiredTokenThenUnauthorizedWithInvalidToken() throws Exception {
+        String expired = JWT.create()
+                .withSubject("user")
+                .withExpiresAt(new Date(System.currentTimeMillis() - 60_000))
+                .sign(new ES256Algorithm(keys));
+        mvc.perform(get("/person/").header(HEADER_STRING, TOKEN_PREFIX + expired))
+                .andExpect(status().isUnauthorized())
+                .andExpect(header().string(HttpHeaders.WWW_AUTHENTICATE,
+                        "Bearer error=\"invalid_token\""));
+    }
+
+    @Test
+    void whenForgedTokenThenUnauthorized() throws Exception {
+        mvc.perform(get("/person/").header(HEADER_STRING, TOKEN_PREFIX + "garbage"))
+                .andExpect(status().isUnauthorized());
+    }
+}